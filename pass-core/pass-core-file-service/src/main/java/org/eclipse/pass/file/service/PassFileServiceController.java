@@ -24,10 +24,10 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.pass.file.service.storage.FileStorageService;
 import org.eclipse.pass.file.service.storage.StorageFile;
+import org.eclipse.pass.file.service.storage.StorageFileResource;
 import org.eclipse.pass.object.security.WebSecurityRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -73,12 +73,8 @@ public class PassFileServiceController {
     @PostMapping("/file")
     public ResponseEntity<?> fileUpload(@RequestParam("file") MultipartFile file, Principal principal) {
         StorageFile returnStorageFile;
-        try {
-            if (file.getBytes().length == 0 || file.isEmpty()) {
-                return ResponseEntity.badRequest().build();
-            }
-        } catch (IOException e) {
-            LOG.error("File Service: Error processing file upload: " + e);
+        //the size of the part is known without reading it, the content is only read once when stored
+        if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
@@ -93,7 +89,9 @@ public class PassFileServiceController {
     }
 
     /**
-     * Gets a file by the fileId and returns a single file. Implicitly supports HTTP HEAD.
+     * Gets a file by the fileId and returns a single file. Implicitly supports HTTP HEAD. The file is streamed from
+     * storage, HTTP Range requests are answered with partial content and a matching If-None-Match returns
+     * 304 Not Modified. The OCFL content digest of the file is used as its ETag.
      *
      * @param uuid of the file to return (required), is one part of the fileId
      * @param origFileName of the file to return (required), is one part of the fileId
@@ -107,7 +105,7 @@ public class PassFileServiceController {
             LOG.error("File ID not provided to get a file.");
             return ResponseEntity.badRequest().body("File ID not provided to get a file.");
         }
-        ByteArrayResource fileResource;
+        StorageFileResource fileResource;
         String contentType = "";
 
         try {
@@ -118,12 +116,15 @@ public class PassFileServiceController {
             return ResponseEntity.notFound().build();
         }
 
+        // Range and If-None-Match are handled by Spring MVC for Resource bodies with an ETag
         String headerAttachment = "attachment; filename=\"" + origFileName + "\"";
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, headerAttachment)
-                .contentLength(fileResource.contentLength())
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(fileResource);
+                .contentType(MediaType.parseMediaType(contentType));
+        if (fileResource.getDigest() != null) {
+            response.eTag(fileResource.getDigest());
+        }
+        return response.body(fileResource);
     }
 
     /**
@@ -18,18 +18,32 @@ package org.eclipse.pass.file.service.storage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import edu.wisc.library.ocfl.api.OcflRepository;
 import edu.wisc.library.ocfl.api.exception.NotFoundException;
+import edu.wisc.library.ocfl.api.model.DigestAlgorithm;
 import edu.wisc.library.ocfl.api.model.FileDetails;
 import edu.wisc.library.ocfl.api.model.ObjectVersionId;
 import edu.wisc.library.ocfl.api.model.User;
@@ -39,6 +53,7 @@ import edu.wisc.library.ocfl.aws.OcflS3Client;
 import edu.wisc.library.ocfl.core.OcflRepositoryBuilder;
 import edu.wisc.library.ocfl.core.extension.storage.layout.config.HashedNTupleLayoutConfig;
 import edu.wisc.library.ocfl.core.path.constraint.ContentPathConstraints;
+import edu.wisc.library.ocfl.core.storage.cloud.CloudObjectKey;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
@@ -47,15 +62,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 
 /**
  * The FileStorageService is responsible for the implementation of the persistence of files to their respective
@@ -73,8 +90,10 @@ import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
  *  - ocflDir: This is the directory where files are stored in the OCFL repository. This is a child of the rootDir.
  *  - workDir: This is a temporary working directory that is required by the OcflRepositoryBuilder. This is a child of
  *       the rootDir. Both the ocflDir and workDir are required to be on the same mount.
- *  - tempDir: This is a temporary directory that is used to move files to/from the OCFL repository and staging them
- *      for download. This is a child of the rootDir.
+ *  - tempDir: This is a temporary directory that is used to stage uploaded files before they are moved into the OCFL
+ *      repository. This is a child of the rootDir. Downloads do not use the tempDir, they are streamed directly from
+ *      the OCFL storage. Abandoned entries in the tempDir and workDir are removed periodically, see
+ *      {@link #cleanupTempFiles()}.
  * Note, the S3 OCFL implementation does not cache locally and therefore performs much slower compared to the file
  * system implementation, most notably on large files.
  *
@@ -87,10 +106,14 @@ public class FileStorageService {
     private static final Logger LOG = LoggerFactory.getLogger(FileStorageService.class);
 
     private final Path tempLoc;
+    private final Path workLoc;
+    private final Duration tempMaxAge;
+    private final Cache<String, VersionDetails> versionDetailsCache;
     private final StorageServiceType storageType;
     private final OcflRepository ocflRepository;
     private Path ocflLoc;
     private S3Client cloudS3Client;
+    private OcflS3Client ocflS3Client;
     private String bucketName;
     private String repoPrefix;
 
@@ -123,7 +146,13 @@ public class FileStorageService {
         if (storageType.equals(StorageServiceType.FILE_SYSTEM)) {
             ocflLoc = Paths.get(rootLoc.toString(), storageProperties.getStorageOcflDir());
         }
-        Path workLoc = Paths.get(rootLoc.toString(), storageProperties.getStorageWorkDir());
+        this.workLoc = Paths.get(rootLoc.toString(), storageProperties.getStorageWorkDir());
+        this.tempMaxAge = storageProperties.getTempMaxAge();
+        this.versionDetailsCache = Caffeine.newBuilder()
+                .maximumSize(storageProperties.getMetadataCacheSize())
+                .expireAfterWrite(storageProperties.getMetadataCacheTtl())
+                .recordStats()
+                .build();
         this.tempLoc = Paths.get(rootLoc.toString(), storageProperties.getStorageTempDir());
 
         try {
@@ -133,6 +162,9 @@ public class FileStorageService {
             if (!Files.exists(workLoc)) {
                 Files.createDirectory(workLoc);
             }
+            if (!Files.exists(tempLoc)) {
+                Files.createDirectory(tempLoc);
+            }
             if (!Files.isReadable(workLoc) || !Files.isWritable(workLoc)) {
                 throw new IOException("File Service: No permission to read/write work directory.");
             }
@@ -205,29 +237,23 @@ public class FileStorageService {
 
             //repoPrefix is optional and can be built with or without it
             if (storageProperties.getS3RepoPrefix().isPresent()) {
-                ocflRepository = new OcflRepositoryBuilder()
-                        .defaultLayoutConfig(new HashedNTupleLayoutConfig())
-                        .contentPathConstraints(ContentPathConstraints.cloud())
-                        .storage(storage -> storage
-                                .cloud(OcflS3Client.builder()
-                                        .s3Client(cloudS3Client)
-                                        .bucket(bucketName)
-                                        .repoPrefix(repoPrefix)
-                                        .build()))
-                        .workDir(workLoc)
+                ocflS3Client = OcflS3Client.builder()
+                        .s3Client(cloudS3Client)
+                        .bucket(bucketName)
+                        .repoPrefix(repoPrefix)
                         .build();
             } else {
-                ocflRepository = new OcflRepositoryBuilder()
-                        .defaultLayoutConfig(new HashedNTupleLayoutConfig())
-                        .contentPathConstraints(ContentPathConstraints.cloud())
-                        .storage(storage -> storage
-                                .cloud(OcflS3Client.builder()
-                                        .s3Client(cloudS3Client)
-                                        .bucket(bucketName)
-                                        .build()))
-                        .workDir(workLoc)
+                ocflS3Client = OcflS3Client.builder()
+                        .s3Client(cloudS3Client)
+                        .bucket(bucketName)
                         .build();
             }
+            ocflRepository = new OcflRepositoryBuilder()
+                    .defaultLayoutConfig(new HashedNTupleLayoutConfig())
+                    .contentPathConstraints(ContentPathConstraints.cloud())
+                    .storage(storage -> storage.cloud(ocflS3Client))
+                    .workDir(workLoc)
+                    .build();
             LOG.info("File Service: S3 client is configured and OCFL repository is built");
         } else {
             throw new IOException("File Service: File Service Type is missing or incorrect in the " +
@@ -236,7 +262,8 @@ public class FileStorageService {
     }
 
     /**
-     * Persists a file to the repository/storage indicated in the StorageProperties.
+     * Persists a file to the repository/storage indicated in the StorageProperties. The content of the file is read
+     * once as a stream, so the memory used does not depend on the size of the file.
      *
      * @param mFile A MultiPart file that is to be persisted into storage or repository.
      * @param userName The username of the user that is uploading the file.
@@ -250,6 +277,7 @@ public class FileStorageService {
     public StorageFile storeFile(MultipartFile mFile, String userName) throws IOException {
         StorageFile storageFile;
         //NOTE: the work directory on the ocfl-java client should be located on the same mount as the OCFL storage root.
+        //The upload is not copied to the temp directory, the OCFL client stages it in the work directory.
         try {
             //remove any unsafe characters from the original file name and the hyphen, since it is used as a delimiter
             String origFileNameExt = Jsoup.clean(Objects.requireNonNull(mFile.getOriginalFilename()), Safelist.basic());
@@ -260,32 +288,26 @@ public class FileStorageService {
             //changing the stored file name to UUID to prevent any issues with long file names
             //e.g. 260 char limit on the path in Windows. Original filename is preserved in the fileId.
             String ocflRepoFileName = StringUtils.isNotEmpty(fileExt) ? fileUuid + "." + fileExt : fileUuid;
-            Path pathTempLoc = Paths.get(tempLoc.toString());
 
             //Create OCFL user to identify the owner of the file
             User fileUser = new User();
             fileUser.setName(userName);
 
-            if (!Files.exists(pathTempLoc)) {
-                Files.createDirectory(pathTempLoc);
+            //the upload is streamed once into the OCFL staging area, which computes the digest while writing
+            try (InputStream uploadStream = mFile.getInputStream()) {
+                ocflRepository.updateObject(ObjectVersionId.head(fileId),
+                        new VersionInfo().setMessage("Pass-Core File Service: Initial commit").setUser(fileUser),
+                        updater -> updater.writeFile(uploadStream, ocflRepoFileName));
             }
-            Path tempPathAndFileName = Paths.get(tempLoc.toString(), ocflRepoFileName);
-            mFile.transferTo(tempPathAndFileName);
+            VersionDetails versionDetails = ocflRepository.describeVersion(ObjectVersionId.head(fileId));
+            versionDetailsCache.put(fileId, versionDetails);
+            String fileRepoRelPath = versionDetails.getFileMap().entrySet().iterator().next().getValue().getStorageRelativePath();
             if (storageType.equals(StorageServiceType.FILE_SYSTEM)) {
-                ocflRepository.putObject(ObjectVersionId.head(fileId), tempPathAndFileName,
-                        new VersionInfo().setMessage("Pass-Core File Service: Initial commit").setUser(fileUser));
-                String fileRepoRelPath = ocflRepository.describeVersion(ObjectVersionId.head(fileId))
-                        .getFileMap().entrySet().iterator().next().getValue().getStorageRelativePath();
                 LOG.info("File Service: File with ID " + fileId + " was stored in the file system repo at the " +
                         "location:" + Paths.get(this.ocflLoc.toString(),fileRepoRelPath));
-
             } else if (storageType.equals(StorageServiceType.S3)) {
-                ocflRepository.putObject(ObjectVersionId.head(fileId), tempPathAndFileName,
-                        new VersionInfo().setMessage("Pass-Core File Service: Initial commit").setUser(fileUser));
-                String fileRepoRelPath = ocflRepository.describeVersion(ObjectVersionId.head(fileId))
-                        .getFileMap().entrySet().iterator().next().getValue().getStorageRelativePath();
                 LOG.info("File Service: File with ID " + fileId + " was stored in the S3 repo at location: " +
-                        Paths.get(this.repoPrefix,this.bucketName,fileRepoRelPath));
+                        Paths.get(this.bucketName, ocflS3Client.prefix(), fileRepoRelPath));
             }
 
             storageFile = new StorageFile(
@@ -297,8 +319,6 @@ public class FileStorageService {
                     mFile.getSize(),
                     fileExt
             );
-
-            Files.delete(tempPathAndFileName);
         } catch (IOException e) {
             LOG.error("Error storing file", e);
             throw new IOException("File Service: The file system was unable to store the uploaded file", e);
@@ -307,42 +327,105 @@ public class FileStorageService {
     }
 
     /**
-     * Gets the file (bytes) of the supplied fileId.
+     * Gets the file of the supplied fileId as a resource that streams directly from the storage. The bytes of the
+     * file are never loaded into memory or copied to the temp directory, so the memory used by a download does not
+     * depend on the size of the file.
      *
      * @param fileId The fileId of the file to be returned.
-     * @return Returns a file as a ByteArrayResource
-     * @throws IOException If a file does not exist or the appropriate read/write permissions are not correct an
+     * @return Returns a file as a StorageFileResource
+     * @throws IOException If a file does not exist or the appropriate read permissions are not correct an
      * IOException will be thrown.
      */
-    public ByteArrayResource getFile(String fileId) throws IOException {
-        ByteArrayResource loadedResource;
-        Path tempLoadDir = Paths.get(this.tempLoc.toString(),"output", fileId.split("/")[0],
-                Instant.now().toString().replace(":","-").replace(".","-"));
-        Path tempLoadParentDir = Paths.get(this.tempLoc.toString(),"output", fileId.split("/")[0]);
+    public StorageFileResource getFile(String fileId) throws IOException {
+        FileDetails fileDetails;
         try {
-            //need the parent directory for the OCFL getObject to work
-            if (!Files.exists(tempLoadParentDir)) {
-                Files.createDirectories(tempLoadParentDir);
-            }
-            // the output path for getObject must not exist, hence temp dir is created on the fly
-            ocflRepository.getObject(ObjectVersionId.head(fileId), tempLoadDir);
-            LOG.debug("File Service: File with ID " + fileId + " was loaded from the repo");
-            Path fileNamePath = Objects.requireNonNull(tempLoadDir.toFile().listFiles())[0].toPath();
-            loadedResource = new ByteArrayResource(Files.readAllBytes(fileNamePath));
-
+            fileDetails = describeHeadVersion(fileId).getFiles().stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("File Service: No content found for file ID: " + fileId));
         } catch (NotFoundException e) {
             throw new IOException("File Service: The file could not be loaded, file ID: " + fileId + " " + e);
         }
+        String digest = fileDetails.getFixity().getOrDefault(DigestAlgorithm.sha512,
+                fileDetails.getFixity().values().stream().findFirst().orElse(null));
+        String storageRelPath = fileDetails.getStorageRelativePath();
 
-        if (loadedResource.exists() && loadedResource.isReadable()) {
-            //clean up temp directory
-            if (!FileSystemUtils.deleteRecursively(Paths.get(this.tempLoc.toString()))) {
-                LOG.debug("File Service: No files to cleanup on file get");
+        if (storageType.equals(StorageServiceType.FILE_SYSTEM)) {
+            Path filePath = this.ocflLoc.resolve(storageRelPath);
+            if (!Files.isReadable(filePath)) {
+                throw new IOException("File Service: Unable to return the file. Verify read " +
+                        "permissions of the OCFL directory.");
             }
-            return loadedResource;
-        } else {
-            throw new IOException("File Service: Unable to return the file. Verify read/write " +
-                    "permissions of the temp directory.");
+            LOG.debug("File Service: File with ID " + fileId + " is streamed from the repo at " + filePath);
+            return new StorageFileResource(fileId, Files.size(filePath), digest, offset -> {
+                SeekableByteChannel channel = Files.newByteChannel(filePath, StandardOpenOption.READ);
+                return Channels.newInputStream(channel.position(offset));
+            });
+        }
+
+        String key = CloudObjectKey.builder().prefix(ocflS3Client.prefix()).buildFromPath(storageRelPath).getKey();
+        long contentLength = ocflS3Client.head(storageRelPath).getContentLength();
+        LOG.debug("File Service: File with ID " + fileId + " is streamed from the S3 repo at key " + key);
+        return new StorageFileResource(fileId, contentLength, digest, offset -> {
+            try {
+                return cloudS3Client.getObject(GetObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .range("bytes=" + offset + "-")
+                        .build());
+            } catch (SdkException e) {
+                throw new IOException("File Service: Unable to read the file from S3, file ID: " + fileId, e);
+            }
+        });
+    }
+
+    /**
+     * Removes abandoned entries from the temp directory and the OCFL working directory. Requests do not share any
+     * scratch space: downloads are streamed from storage and each upload is staged by the OCFL client in its own
+     * directory below the working directory, which is removed when the version is committed. Entries are only left
+     * behind when a request is interrupted, for example by a restart during an upload. A top level entry is deleted
+     * when nothing in it has been modified within the configured temp max age. Writing a file below a directory does
+     * not change the modification time of the directory, so the whole tree of each entry is checked and a long upload
+     * or commit is not affected. Runs every pass.file-service.cleanup-interval minutes, defaults to 15 minutes.
+     */
+    @Scheduled(fixedRateString = "${pass.file-service.cleanup-interval:15}", timeUnit = TimeUnit.MINUTES)
+    public void cleanupTempFiles() {
+        Instant cutoff = Instant.now().minus(tempMaxAge);
+        for (Path dir : List.of(tempLoc, workLoc)) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> entries = Files.list(dir)) {
+                entries.forEach(entry -> {
+                    try {
+                        if (!modifiedSince(entry, cutoff)) {
+                            FileSystemUtils.deleteRecursively(entry);
+                            LOG.info("File Service: Removed abandoned temporary file " + entry);
+                        }
+                    } catch (IOException e) {
+                        LOG.warn("File Service: Unable to remove temporary file " + entry, e);
+                    }
+                });
+            } catch (IOException e) {
+                LOG.warn("File Service: Unable to list temporary directory " + dir, e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether anything in the tree of a path has been modified since the cutoff. A tree that changes or
+     * disappears while it is checked, for example when an upload is committed, is in use and counts as modified.
+     */
+    private static boolean modifiedSince(Path entry, Instant cutoff) throws IOException {
+        try (Stream<Path> paths = Files.walk(entry)) {
+            return paths.anyMatch(path -> {
+                try {
+                    return !Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+                } catch (IOException e) {
+                    return true;
+                }
+            });
+        } catch (NoSuchFileException | UncheckedIOException e) {
+            return true;
         }
     }
 
@@ -351,7 +434,38 @@ public class FileStorageService {
      * @param fileId The fileId of the file to be deleted
      */
     public void deleteFile(String fileId) {
-        ocflRepository.purgeObject(fileId);
+        try {
+            ocflRepository.purgeObject(fileId);
+        } finally {
+            versionDetailsCache.invalidate(fileId);
+        }
+    }
+
+    /**
+     * Gets the hit and miss statistics of the cache of OCFL version metadata.
+     *
+     * @return The statistics of the metadata cache
+     */
+    public CacheStats getMetadataCacheStats() {
+        return versionDetailsCache.stats();
+    }
+
+    /**
+     * Describes the head version of a file. The result is cached by fileId since files are not modified once stored,
+     * which saves the repeated OCFL lookups of a request (several round trips each on S3). The entry is evicted when
+     * the file is deleted.
+     *
+     * @param fileId The fileId of the file.
+     * @return The details of the head version of the file.
+     * @throws NotFoundException If the file does not exist.
+     */
+    private VersionDetails describeHeadVersion(String fileId) {
+        VersionDetails versionDetails = versionDetailsCache.get(fileId,
+                id -> ocflRepository.describeVersion(ObjectVersionId.head(id)));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("File Service: Metadata cache " + versionDetailsCache.stats());
+        }
+        return versionDetails;
     }
 
     /**
@@ -361,7 +475,7 @@ public class FileStorageService {
      * @return The relative path of the file.
      */
     public String getResourceFileRelativePath(String fileId) throws IOException {
-        VersionDetails versionDetails = ocflRepository.describeVersion(ObjectVersionId.head(fileId));
+        VersionDetails versionDetails = describeHeadVersion(fileId);
         Collection<FileDetails> allVersionFiles = versionDetails.getFiles();
         return allVersionFiles.stream().findFirst()
                 .orElseThrow(() -> new IOException("The relative path could not be found for file ID: " + fileId))
@@ -377,7 +491,7 @@ public class FileStorageService {
      */
     public String getFileContentType(String fileId) {
         try {
-            VersionDetails versionDetails = ocflRepository.describeVersion(ObjectVersionId.head(fileId));
+            VersionDetails versionDetails = describeHeadVersion(fileId);
             FileDetails fileDetails = versionDetails.getFiles().stream().findFirst()
                     .orElseThrow(() -> new IOException("The content type could not be found for file ID: " + fileId));
             Path fileDetailPath = Paths.get(fileDetails.getPath());
@@ -413,7 +527,7 @@ public class FileStorageService {
      * @return The owner of the file.
      */
     public String getFileOwner(String fileId) {
-        VersionInfo versionInfo = ocflRepository.describeVersion(ObjectVersionId.head(fileId)).getVersionInfo();
+        VersionInfo versionInfo = describeHeadVersion(fileId).getVersionInfo();
         return versionInfo.getUser().getName();
     }
 }
@@ -0,0 +1,145 @@
+/*
+ *
+ * Copyright 2023 Johns Hopkins University
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.eclipse.pass.file.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * A StorageFileResource is a read-only view of a file persisted in the OCFL repository. It does not hold the bytes of
+ * the file in memory, every call to {@link #getInputStream()} opens a new stream directly against the storage
+ * (file system or S3). The stream is opened lazily, so a skip before the first read, as done by Spring when serving
+ * an HTTP Range request, only moves the starting offset and does not transfer the skipped bytes.
+ *
+ * @author Tim Sanders
+ * @see FileStorageService
+ */
+public class StorageFileResource extends AbstractResource {
+    private final String fileId;
+    private final long contentLength;
+    private final String digest;
+    private final StorageStreamOpener streamOpener;
+
+    /**
+     * Opens a stream on the stored bytes of a file starting at the given offset.
+     */
+    @FunctionalInterface
+    interface StorageStreamOpener {
+        /**
+         * Open a stream on the stored file.
+         *
+         * @param offset The number of bytes to skip from the start of the file.
+         * @return A stream positioned at the offset.
+         * @throws IOException If the storage cannot be read.
+         */
+        InputStream open(long offset) throws IOException;
+    }
+
+    /**
+     * Initializes the StorageFileResource.
+     *
+     * @param fileId The fileId of the file in the repository.
+     * @param contentLength The size of the file in bytes.
+     * @param digest The OCFL content digest of the file.
+     * @param streamOpener Opens a stream on the stored file at an offset.
+     */
+    StorageFileResource(String fileId, long contentLength, String digest, StorageStreamOpener streamOpener) {
+        this.fileId = fileId;
+        this.contentLength = contentLength;
+        this.digest = digest;
+        this.streamOpener = streamOpener;
+    }
+
+    /**
+     * Get the OCFL content digest of the file. Since OCFL content is addressed by its digest, the value is suitable
+     * as a strong HTTP entity tag.
+     *
+     * @return The content digest of the file
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "File Service file [" + fileId + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new OffsetInputStream();
+    }
+
+    /**
+     * Defers opening the underlying storage stream until the first read so leading skips are free.
+     */
+    private class OffsetInputStream extends InputStream {
+        private long offset;
+        private InputStream in;
+
+        @Override
+        public int read() throws IOException {
+            return stream().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return stream().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (in != null) {
+                return in.skip(n);
+            }
+            long skipped = Math.max(0, Math.min(n, contentLength - offset));
+            offset += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in == null ? 0 : in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+
+        private InputStream stream() throws IOException {
+            if (in == null) {
+                in = offset >= contentLength ? InputStream.nullInputStream() : streamOpener.open(offset);
+            }
+            return in;
+        }
+    }
+}
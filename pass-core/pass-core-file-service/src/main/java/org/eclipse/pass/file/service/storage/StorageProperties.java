@@ -16,6 +16,7 @@
  */
 package org.eclipse.pass.file.service.storage;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -38,6 +39,9 @@ public class StorageProperties {
     private String s3BucketName;
     private String s3Endpoint;
     private String s3RepoPrefix;
+    private Duration tempMaxAge = Duration.ofHours(1);
+    private long metadataCacheSize = 10000;
+    private Duration metadataCacheTtl = Duration.ofMinutes(30);
 
     /**
      * Get the root directory for the File Service. This is the absolute path of the root directory.
@@ -113,6 +117,36 @@ public class StorageProperties {
         return Optional.ofNullable(s3Endpoint);
     }
 
+    /**
+     * Get the age after which an entry in the temp or OCFL working directory is considered abandoned and is removed
+     * by the scheduled cleanup of the File Service. Defaults to one hour.
+     *
+     * @return The maximum age of temporary files
+     */
+    public Duration getTempMaxAge() {
+        return tempMaxAge;
+    }
+
+    /**
+     * Get the maximum number of files whose OCFL version metadata is cached by the File Service.
+     *
+     * @return The maximum number of cached entries
+     */
+    public long getMetadataCacheSize() {
+        return metadataCacheSize;
+    }
+
+    /**
+     * Get how long the OCFL version metadata of a file is cached by the File Service. Files are not modified after
+     * they are stored, the expiry only bounds how long a file deleted through another File Service instance sharing
+     * the same storage is still seen. Defaults to 30 minutes.
+     *
+     * @return The time to live of a cached entry
+     */
+    public Duration getMetadataCacheTtl() {
+        return metadataCacheTtl;
+    }
+
     /**
      * Set the root directory for the File Service. This is the absolute path of the root directory.
      * Important: The OCFL root and working directory must be on the same mount.
@@ -158,4 +192,31 @@ public class StorageProperties {
     public void setS3Endpoint(String endpoint) {
         this.s3Endpoint = endpoint;
     }
+
+    /**
+     * Set the age after which an entry in the temp or OCFL working directory is removed by the scheduled cleanup.
+     *
+     * @param tempMaxAge The maximum age of temporary files
+     */
+    public void setTempMaxAge(Duration tempMaxAge) {
+        this.tempMaxAge = tempMaxAge;
+    }
+
+    /**
+     * Set the maximum number of files whose OCFL version metadata is cached by the File Service.
+     *
+     * @param metadataCacheSize The maximum number of cached entries
+     */
+    public void setMetadataCacheSize(long metadataCacheSize) {
+        this.metadataCacheSize = metadataCacheSize;
+    }
+
+    /**
+     * Set how long the OCFL version metadata of a file is cached by the File Service.
+     *
+     * @param metadataCacheTtl The time to live of a cached entry
+     */
+    public void setMetadataCacheTtl(Duration metadataCacheTtl) {
+        this.metadataCacheTtl = metadataCacheTtl;
+    }
 }
@@ -16,14 +16,20 @@
 package org.eclipse.pass.main.security;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.yahoo.elide.RefreshableElide;
 import org.eclipse.pass.object.PassClient;
 import org.eclipse.pass.object.PassClientResult;
@@ -53,29 +59,56 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * In any case, the request is passed down the chain.
  * <p>
  * A cache of maximum size pass.auth.max-cache-size of recent authentications is
- * maintained. It is cleared every pass.auth.cache-duration minutes.
+ * maintained. Least recently used authentications are evicted when the cache is full and
+ * an authentication expires pass.auth.cache-duration minutes after it was created.
+ * A user missing from the cache is mapped outside of the cache and the authentication is
+ * then added to it. Mappings are serialized per locator id, so concurrent requests of a user
+ * wait for a single mapping and different users are mapped concurrently without creating
+ * duplicate users. A failed mapping is not cached.
+ * The cache statistics are logged every pass.auth.cache-duration minutes.
  */
 @Component
 public class ShibAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger LOG = LoggerFactory.getLogger(ShibAuthenticationFilter.class);
 
-    private final ConcurrentHashMap<String, ShibAuthentication> auth_cache;
-    private final RefreshableElide elide;
+    private static final int USER_LOCK_STRIPES = 64;
 
-    @Value("${pass.auth.max-cache-size}")
-    private int max_cache_size;
+    private final Cache<String, ShibAuthentication> auth_cache;
+    private final RefreshableElide elide;
+    private final Lock[] user_locks;
 
     /**
      * @param refreshableElide RefreshableElide
+     * @param max_cache_size maximum number of cached authentications
+     * @param cache_duration minutes an authentication is cached
      */
-    public ShibAuthenticationFilter(RefreshableElide refreshableElide) {
-        this.auth_cache = new ConcurrentHashMap<>();
+    public ShibAuthenticationFilter(RefreshableElide refreshableElide,
+                                    @Value("${pass.auth.max-cache-size}") long max_cache_size,
+                                    @Value("${pass.auth.cache-duration}") long cache_duration) {
+        this.auth_cache = Caffeine.newBuilder().maximumSize(max_cache_size)
+            .expireAfterWrite(cache_duration, TimeUnit.MINUTES).recordStats().build();
         this.elide = refreshableElide;
+        this.user_locks = new Lock[USER_LOCK_STRIPES];
+
+        for (int i = 0; i < user_locks.length; i++) {
+            user_locks[i] = new ReentrantLock();
+        }
     }
 
     @Scheduled(fixedRateString = "${pass.auth.cache-duration}", timeUnit = TimeUnit.MINUTES)
-    private void clear_cache() {
-        auth_cache.clear();
+    private void log_cache_stats() {
+        CacheStats stats = auth_cache.stats();
+
+        LOG.info("Authentication cache size: {}, hit rate: {}, hits: {}, misses: {}, evictions: {}",
+            auth_cache.estimatedSize(), String.format("%.3f", stats.hitRate()), stats.hitCount(),
+            stats.missCount(), stats.evictionCount());
+    }
+
+    /**
+     * @return statistics of the cache of recent authentications
+     */
+    public CacheStats getCacheStats() {
+        return auth_cache.stats();
     }
 
     // Do authentication and return Authentication object representing success.
@@ -90,27 +123,48 @@ public class ShibAuthenticationFilter extends OncePerRequestFilter {
         }
 
         User shib_user = parseShibHeaders(request);
-        ShibAuthentication auth = auth_cache.get(shib_user.getUsername());
+        ShibAuthentication auth = auth_cache.getIfPresent(shib_user.getUsername());
 
-        if (auth != null) {
-            return auth;
+        if (auth == null) {
+            auth = map_pass_user(shib_user);
         }
 
-        create_or_update_pass_user(shib_user);
-
-        auth = new ShibAuthentication(shib_user);
+        return auth;
+    }
 
-        if (auth_cache.size() > max_cache_size) {
-            auth_cache.clear();
+    // Map the Shib user to a PASS user outside of the cache and then cache the authentication. Requests are
+    // serialized by the locks of the locator ids of the user so only one user is created and requests of different
+    // users can proceed concurrently. A request which waited on the locks finds the authentication cached by the
+    // request before it. A failed mapping is not cached.
+    private ShibAuthentication map_pass_user(User shib_user) throws IOException {
+        int[] stripes = shib_user.getLocatorIds().stream().mapToInt(ShibAuthenticationFilter::lock_stripe).distinct()
+            .sorted().toArray();
+
+        // Locks are always acquired in stripe order to avoid deadlock
+        for (int stripe : stripes) {
+            user_locks[stripe].lock();
         }
 
-        auth_cache.put(shib_user.getUsername(), auth);
+        try {
+            // Look through the map view so the check is not counted as another cache miss
+            ShibAuthentication auth = auth_cache.asMap().get(shib_user.getUsername());
 
-        return auth;
+            if (auth == null) {
+                create_or_update_pass_user(shib_user);
+                auth = new ShibAuthentication(shib_user);
+                auth_cache.put(shib_user.getUsername(), auth);
+            }
+
+            return auth;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                user_locks[stripes[i]].unlock();
+            }
+        }
     }
 
-    // Ensure that only one user is created
-    private synchronized void create_or_update_pass_user(User shib_user) throws IOException {
+    // Must be called holding the locks of the locator ids of the user
+    private void create_or_update_pass_user(User shib_user) throws IOException {
         try (PassClient pass_client = PassClient.newInstance(elide)) {
             User pass_user = find_pass_user(pass_client, shib_user);
 
@@ -124,6 +178,10 @@ public class ShibAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    private static int lock_stripe(String locator_id) {
+        return (locator_id.hashCode() & Integer.MAX_VALUE) % USER_LOCK_STRIPES;
+    }
+
     private void update_pass_user(PassClient pass_client, User shib_user, User pass_user) throws IOException {
         boolean update = false;
 
@@ -173,16 +231,25 @@ public class ShibAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    // Find the user matching the first locator id of the user which matches anything.
+    // All the locator ids are resolved with a single query.
     private User find_pass_user(PassClient pass_client, User user) throws IOException {
+        if (user.getLocatorIds().isEmpty()) {
+            return null;
+        }
+
         PassClientSelector<User> selector = new PassClientSelector<>(User.class);
+        selector.setFilter(RSQL.or(user.getLocatorIds().stream().map(id -> RSQL.hasMember("locatorIds", id))
+            .toArray(String[]::new)));
+        PassClientResult<User> result = pass_client.selectObjects(selector);
 
         for (String locator_id : user.getLocatorIds()) {
-            selector.setFilter(RSQL.hasMember("locatorIds", locator_id));
-            PassClientResult<User> result = pass_client.selectObjects(selector);
+            List<User> matches = result.getObjects().stream().filter(u -> u.getLocatorIds().contains(locator_id))
+                .collect(Collectors.toList());
 
-            if (result.getTotal() == 1) {
-                return result.getObjects().get(0);
-            } else if (result.getTotal() > 1) {
+            if (matches.size() == 1) {
+                return matches.get(0);
+            } else if (matches.size() > 1) {
                 throw new BadCredentialsException("Found multiple users matching locator: " + locator_id);
             }
         }
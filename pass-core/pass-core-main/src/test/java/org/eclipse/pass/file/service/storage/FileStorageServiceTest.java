@@ -25,13 +25,27 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import edu.wisc.library.ocfl.api.exception.NotFoundException;
 import okhttp3.Credentials;
@@ -45,9 +59,11 @@ import org.eclipse.pass.main.IntegrationTest;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 
@@ -61,6 +77,7 @@ import org.springframework.mock.web.MockMultipartFile;
  * @see FileStorageService
  */
 public class FileStorageServiceTest extends IntegrationTest {
+    private static final Logger LOG = LoggerFactory.getLogger(FileStorageServiceTest.class);
     protected final String USER_NAME = "USER1";
     protected final String USER_NAME2 = "USER2";
     private final String credentialsBackend = Credentials.basic(BACKEND_USER, BACKEND_PASSWORD);
@@ -105,7 +122,7 @@ public class FileStorageServiceTest extends IntegrationTest {
     void getFileShouldReturnFile() throws IOException {
         StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test.txt",
                 Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), "Test Pass-core".getBytes()), USER_NAME);
-        ByteArrayResource file = storageService.getFile(storageFile.getId());
+        StorageFileResource file = storageService.getFile(storageFile.getId());
         assertTrue(file.contentLength() > 0);
     }
 
@@ -126,6 +143,53 @@ public class FileStorageServiceTest extends IntegrationTest {
         assertEquals(0, fileCount);
     }
 
+    /**
+     * Test that abandoned temporary files are removed by the cleanup and recent ones are kept.
+     * @throws IOException if there is an error
+     */
+    @Test
+    void cleanupTempFilesRemovesAbandonedFiles() throws IOException {
+        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+        String rootDirName = storageConfiguration.getStorageProperties().getStorageRootDir();
+        String tempDirName = storageConfiguration.getStorageProperties().getStorageTempDir();
+        Path tempLoc = tempDir.resolve(Paths.get(rootDirName, tempDirName));
+        Path abandoned = Files.createTempFile(tempLoc, "abandoned", ".txt");
+        Path recent = Files.createTempFile(tempLoc, "recent", ".txt");
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+
+        storageService.cleanupTempFiles();
+
+        assertFalse(Files.exists(abandoned));
+        assertTrue(Files.exists(recent));
+        Files.delete(recent);
+    }
+
+    /**
+     * Test that a staging directory is kept while files below it are being written, even if the directory itself has
+     * not been modified within the temp max age.
+     * @throws IOException if there is an error
+     */
+    @Test
+    void cleanupTempFilesKeepsDirectoriesInUse() throws IOException {
+        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+        String rootDirName = storageConfiguration.getStorageProperties().getStorageRootDir();
+        String workDirName = storageConfiguration.getStorageProperties().getStorageWorkDir();
+        Path workLoc = tempDir.resolve(Paths.get(rootDirName, workDirName));
+        Path staging = Files.createTempDirectory(workLoc, "staging");
+        Path content = Files.createDirectory(staging.resolve("content"));
+        Path upload = Files.createTempFile(content, "upload", ".bin");
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        Files.setLastModifiedTime(content, old);
+        Files.setLastModifiedTime(staging, old);
+
+        storageService.cleanupTempFiles();
+        assertTrue(Files.exists(upload));
+
+        Files.setLastModifiedTime(upload, old);
+        storageService.cleanupTempFiles();
+        assertFalse(Files.exists(staging));
+    }
+
     /**
      * Test file content type is returned.
      */
@@ -197,6 +261,27 @@ public class FileStorageServiceTest extends IntegrationTest {
         assertTrue(exceptionText.matches("(.)+(was not found)(.)+"));
     }
 
+    /**
+     * Store file, then look it up several times. The metadata should be served from the cache and be evicted when
+     * the file is deleted.
+     *
+     * @throws IOException if there is an error
+     */
+    @Test
+    void metadataIsCachedAndEvictedOnDelete() throws IOException {
+        StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test.txt",
+                Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), "Test Pass-core".getBytes()), USER_NAME);
+        long hits = storageService.getMetadataCacheStats().hitCount();
+
+        storageService.getFileContentType(storageFile.getId());
+        storageService.getFile(storageFile.getId());
+        assertEquals(USER_NAME, storageService.getFileOwner(storageFile.getId()));
+        assertEquals(hits + 3, storageService.getMetadataCacheStats().hitCount());
+
+        storageService.deleteFile(storageFile.getId());
+        assertThrows(IOException.class, () -> storageService.getFile(storageFile.getId()));
+    }
+
     /**
      * Store file, and then check user permissions on that file. User has permissions to delete file.
      *
@@ -235,7 +320,7 @@ public class FileStorageServiceTest extends IntegrationTest {
         StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test.txt",
                 Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), "Test Pass-core".getBytes()), USER_NAME);
 
-        ByteArrayResource file = storageService.getFile(storageFile.getId());
+        StorageFileResource file = storageService.getFile(storageFile.getId());
         //ensure that the file has been stored by the service
         assertTrue(file.contentLength() > 0);
 
@@ -255,6 +340,140 @@ public class FileStorageServiceTest extends IntegrationTest {
         }
     }
 
+    /**
+     * Get a byte range of a file using the PassFileServiceController. Should return 206 Partial Content with only the
+     * requested bytes.
+     *
+     * @throws IOException if there is an error
+     */
+    @Test
+    void getFileRangeUsingController() throws IOException {
+        StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test.txt",
+                Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), "Test Pass-core".getBytes()), USER_NAME);
+        String url = getBaseUrl() + "file/" + storageFile.getId();
+
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Authorization", credentialsBackend)
+                .header("Range", "bytes=5-8")
+                .get()
+                .build();
+
+        try (Response response = httpClient.newCall(request).execute()) {
+            assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.code());
+            assertEquals("bytes 5-8/14", response.header("Content-Range"));
+            assertEquals("Pass", Objects.requireNonNull(response.body()).string());
+        }
+    }
+
+    /**
+     * Get a file using the PassFileServiceController with the ETag of a previous response. Should return
+     * 304 Not Modified.
+     *
+     * @throws IOException if there is an error
+     */
+    @Test
+    void getFileNotModifiedUsingController() throws IOException {
+        StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test.txt",
+                Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), "Test Pass-core".getBytes()), USER_NAME);
+        String url = getBaseUrl() + "file/" + storageFile.getId();
+
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Authorization", credentialsBackend)
+                .get()
+                .build();
+
+        String etag;
+        try (Response response = httpClient.newCall(request).execute()) {
+            assertEquals(HttpStatus.OK.value(), response.code());
+            etag = response.header("ETag");
+            assertNotNull(etag);
+        }
+
+        Request conditionalRequest = request.newBuilder()
+                .header("If-None-Match", etag)
+                .build();
+
+        try (Response response = httpClient.newCall(conditionalRequest).execute()) {
+            assertEquals(HttpStatus.NOT_MODIFIED.value(), response.code());
+        }
+    }
+
+    /**
+     * Download distinct files in parallel using the PassFileServiceController. All downloads must succeed with the
+     * content of their own file.
+     *
+     * @throws Exception if there is an error
+     */
+    @Test
+    void downloadDistinctFilesInParallel() throws Exception {
+        Map<String, String> contents = storeDistinctFiles(4);
+        downloadInParallel(contents, new ArrayList<>(contents.keySet()));
+    }
+
+    /**
+     * Report the p99 latency of downloading distinct files for increasing numbers of parallel downloads. The largest
+     * number can be changed with the system property pass.file-service.bench.downloads.
+     *
+     * @throws Exception if there is an error
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkParallelDownloads() throws Exception {
+        int maxDownloads = Integer.getInteger("pass.file-service.bench.downloads", 64);
+        Map<String, String> contents = storeDistinctFiles(maxDownloads);
+        List<String> fileIds = new ArrayList<>(contents.keySet());
+
+        for (int downloads = 1; downloads <= maxDownloads; downloads *= 2) {
+            List<Long> latencies = downloadInParallel(contents, fileIds.subList(0, downloads));
+            Collections.sort(latencies);
+            long p99 = latencies.get((int) Math.ceil(0.99 * latencies.size()) - 1);
+            LOG.info("File Service: {} parallel downloads, p99 latency {}ms", downloads, p99 / 1_000_000);
+        }
+    }
+
+    private Map<String, String> storeDistinctFiles(int count) throws IOException {
+        Map<String, String> contents = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String content = "Test Pass-core " + i + " ".repeat(64 * 1024);
+            StorageFile storageFile = storageService.storeFile(new MockMultipartFile("test", "test" + i + ".txt",
+                    Objects.requireNonNull(MEDIA_TYPE_TEXT).toString(), content.getBytes()), USER_NAME);
+            contents.put(storageFile.getId(), content);
+        }
+        return contents;
+    }
+
+    private List<Long> downloadInParallel(Map<String, String> contents, List<String> fileIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(fileIds.size());
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (String fileId : fileIds) {
+            tasks.add(() -> {
+                Request request = new Request.Builder()
+                        .url(getBaseUrl() + "file/" + fileId)
+                        .header("Authorization", credentialsBackend)
+                        .get()
+                        .build();
+                long start = System.nanoTime();
+                try (Response response = httpClient.newCall(request).execute()) {
+                    assertEquals(HttpStatus.OK.value(), response.code());
+                    assertEquals(contents.get(fileId), Objects.requireNonNull(response.body()).string());
+                }
+                return System.nanoTime() - start;
+            });
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        try {
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                latencies.add(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return latencies;
+    }
+
     /**
      * Upload file using the PassFileServiceController.
      *
@@ -365,6 +584,75 @@ public class FileStorageServiceTest extends IntegrationTest {
         }
     }
 
+    /**
+     * Upload several files concurrently. All uploads must succeed.
+     *
+     * @throws Exception if there is an error
+     */
+    @Test
+    void uploadFilesConcurrently() throws Exception {
+        uploadConcurrently(1, 4);
+    }
+
+    /**
+     * Upload several large files concurrently and report the aggregate throughput. The size and number of uploads can
+     * be changed with the system properties pass.file-service.bench.size-mb and pass.file-service.bench.uploads.
+     *
+     * @throws Exception if there is an error
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkConcurrentUploads() throws Exception {
+        int sizeMb = Integer.getInteger("pass.file-service.bench.size-mb", 100);
+        int uploads = Integer.getInteger("pass.file-service.bench.uploads", 4);
+        double seconds = uploadConcurrently(sizeMb, uploads);
+        LOG.info("File Service: {} concurrent uploads of {}MB took {}s, {} MB/s", uploads, sizeMb,
+                String.format("%.2f", seconds), String.format("%.1f", uploads * sizeMb / seconds));
+    }
+
+    private double uploadConcurrently(int sizeMb, int uploads) throws Exception {
+        String url = getBaseUrl() + "file";
+        File file = createTempFile("upload", ".bin");
+        file.deleteOnExit();
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(1).nextBytes(chunk);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(chunk);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            tasks.add(() -> {
+                RequestBody requestBody = new MultipartBody.Builder().setType(MultipartBody.FORM)
+                        .addFormDataPart("file", file.getName(), RequestBody.create(file, MEDIA_TYPE_APPLICATION))
+                        .build();
+                Request request = new Request.Builder()
+                        .url(url)
+                        .post(requestBody)
+                        .addHeader("Authorization", credentialsBackend)
+                        .build();
+                try (Response response = httpClient.newCall(request).execute()) {
+                    return response.code();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        try {
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                assertEquals(HttpStatus.CREATED.value(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertTrue(file.delete());
+        return seconds;
+    }
+
     /**
      * Attempt to upload a file, that has file missing in the body. Should return 400 Bad Request.
      * @throws IOException if there is an error
@@ -23,9 +23,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Credentials;
 import okhttp3.MediaType;
@@ -34,6 +41,8 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.eclipse.pass.main.ShibIntegrationTest;
 import org.eclipse.pass.object.PassClient;
+import org.eclipse.pass.object.PassClientSelector;
+import org.eclipse.pass.object.RSQL;
 import org.eclipse.pass.object.model.Grant;
 import org.eclipse.pass.object.model.PassEntity;
 import org.eclipse.pass.object.model.Source;
@@ -43,6 +52,7 @@ import org.eclipse.pass.object.model.UserRole;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.BadCredentialsException;
 
@@ -53,6 +63,9 @@ public class AccessControlTest extends ShibIntegrationTest {
     private final static String JSON_API_CONTENT_TYPE = "application/vnd.api+json";
     private final static MediaType JSON_API_MEDIA_TYPE = MediaType.parse("application/vnd.api+json; charset=utf-8");
 
+    @Autowired
+    private ShibAuthenticationFilter shibAuthenticationFilter;
+
     // Check the HTTP response code and try to return the JSON result
     private JSONObject check(Response response, int code) throws IOException {
         if (response.code() != code) {
@@ -218,6 +231,79 @@ public class AccessControlTest extends ShibIntegrationTest {
         check(response, 200);
     }
 
+    @Test
+    public void testShibAuthenticationIsCached() throws IOException {
+        String url = getBaseUrl() + "data/grant";
+
+        Request.Builder builder = new Request.Builder();
+        setShibHeaders(builder);
+        Request request = builder.url(url).header("Accept", JSON_API_CONTENT_TYPE)
+                .addHeader("Content-Type", JSON_API_CONTENT_TYPE).get().build();
+
+        // The first request maps the user and the second is served from the cache
+        check(client.newCall(request).execute(), 200);
+        long hits = shibAuthenticationFilter.getCacheStats().hitCount();
+        check(client.newCall(request).execute(), 200);
+
+        assertTrue(shibAuthenticationFilter.getCacheStats().hitCount() > hits);
+    }
+
+    @Test
+    public void testConcurrentFirstTimeShibLogins() throws Exception {
+        int num_users = 100;
+        int logins_per_user = 3;
+        String url = getBaseUrl() + "data/grant";
+        String run_key = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(num_users);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < num_users * logins_per_user; i++) {
+                String key = run_key + "-" + (i % num_users);
+
+                results.add(executor.submit(() -> {
+                    Request.Builder builder = new Request.Builder();
+                    builder.addHeader(ShibConstants.SN_HEADER, "Concurrent");
+                    builder.addHeader(ShibConstants.GIVENNAME_HEADER, "Connie");
+                    builder.addHeader(ShibConstants.UNIQUE_ID_HEADER, "cc" + key + "@johnshopkins.edu");
+                    builder.addHeader(ShibConstants.EMAIL_HEADER, "cc" + key + "@jhu.edu");
+                    builder.addHeader(ShibConstants.EMPLOYEE_ID_HEADER, key);
+                    builder.addHeader(ShibConstants.DISPLAY_NAME_HEADER, "Connie Concurrent");
+                    builder.addHeader(ShibConstants.EPPN_HEADER, "cc" + key + "@johnshopkins.edu");
+                    Request request = builder.url(url).header("Accept", JSON_API_CONTENT_TYPE)
+                            .addHeader("Content-Type", JSON_API_CONTENT_TYPE).get().build();
+
+                    start.await();
+
+                    try (Response response = client.newCall(request).execute()) {
+                        return response.code();
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(200, result.get(2, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Exactly one user must have been created for each identity
+        try (PassClient pass_client = PassClient.newInstance(refreshableElide)) {
+            for (int i = 0; i < num_users; i++) {
+                PassClientSelector<User> selector = new PassClientSelector<>(User.class);
+                selector.setFilter(RSQL.hasMember("locatorIds",
+                        "johnshopkins.edu:unique-id:cc" + run_key + "-" + i));
+
+                assertEquals(1, pass_client.selectObjects(selector).getTotal());
+            }
+        }
+    }
+
     @Test
     public void testCreateGrantAsShibUser() throws IOException, JSONException {
 
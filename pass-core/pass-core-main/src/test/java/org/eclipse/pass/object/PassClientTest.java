@@ -18,6 +18,7 @@ package org.eclipse.pass.object;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -176,6 +177,75 @@ public abstract class PassClientTest extends IntegrationTest {
         assertNull(test);
     }
 
+    @Test
+    public void testExecuteBatch() throws IOException {
+        Funder existing = new Funder();
+        existing.setName("Existing funder");
+        client.createObject(existing);
+
+        SubmissionEvent ev = new SubmissionEvent();
+        ev.setComment("Batch comment");
+        client.createObject(ev);
+
+        String key = "batch: " + UUID.randomUUID();
+        PassClientBatch batch = new PassClientBatch();
+        List<Funder> funders = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Funder funder = new Funder();
+            funder.setName("Batch funder " + i);
+            funder.setLocalKey(key);
+
+            funders.add(funder);
+            batch.createObject(funder);
+        }
+
+        existing.setLocalKey(key);
+        batch.updateObject(existing);
+        batch.deleteObject(ev);
+
+        client.executeBatch(batch);
+
+        batch.getItems().forEach(item -> assertNull(item.getError()));
+        funders.forEach(f -> assertNotNull(f.getId()));
+
+        refreshClient();
+
+        PassClientResult<Funder> result = client.selectObjects(new PassClientSelector<>(Funder.class, 0, 100,
+                RSQL.equals("localKey", key), "id"));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(funders.get(0).getName(), client.getObject(Funder.class, funders.get(0).getId()).getName());
+        assertNull(client.getObject(SubmissionEvent.class, ev.getId()));
+    }
+
+    @Test
+    public void testExecuteBatchFailure() throws IOException {
+        String key = "batch: " + UUID.randomUUID();
+
+        Funder funder = new Funder();
+        funder.setName("Batch funder");
+        funder.setLocalKey(key);
+
+        SubmissionEvent missing = new SubmissionEvent();
+        missing.setId(10000000L);
+
+        PassClientBatch batch = new PassClientBatch();
+        batch.createObject(funder);
+        batch.deleteObject(missing);
+
+        assertThrows(IOException.class, () -> client.executeBatch(batch));
+        assertNotNull(batch.getItems().get(1).getError());
+        assertNull(funder.getId());
+
+        refreshClient();
+
+        PassClientResult<Funder> result = client.selectObjects(new PassClientSelector<>(Funder.class, 0, 100,
+                RSQL.equals("localKey", key), null));
+
+        assertEquals(0, result.getTotal());
+    }
+
     @Test
     public void testSelectObjects() throws IOException {
         int num_grants = 10;
@@ -280,6 +350,45 @@ public abstract class PassClientTest extends IntegrationTest {
             assertNotNull(p.getJournal());
             assertTrue(p.getJournal().getJournalName().startsWith("Journal"));
         });
+
+        // Page by id without totals
+        PassClientSelector<Publication> selector = new PassClientSelector<>(Publication.class, 0, 3, filter, null);
+        selector.setKeyset(true);
+        selector.setTotals(false);
+
+        List<Long> ids = client.streamObjects(selector).map(Publication::getId).collect(Collectors.toList());
+
+        assertEquals(num_pubs, ids.size());
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+
+        // Select the page after an id
+        selector = new PassClientSelector<>(Publication.class, 0, 3, filter, null);
+        selector.setKeyset(true);
+        selector.setAfter(ids.get(4));
+
+        PassClientResult<Publication> result = client.selectObjects(selector);
+
+        assertEquals(ids.subList(5, 8), result.getObjects().stream().map(Publication::getId)
+                .collect(Collectors.toList()));
+        assertEquals(num_pubs - 5, result.getTotal());
+
+        // A top level OR in the filter must not bypass the page condition
+        String or_filter = filter + "," + RSQL.equals("pmid", "pmid:" + UUID.randomUUID());
+
+        selector = new PassClientSelector<>(Publication.class, 0, 3, or_filter, null);
+        selector.setKeyset(true);
+        selector.setAfter(ids.get(4));
+        result = client.selectObjects(selector);
+
+        assertEquals(ids.subList(5, 8), result.getObjects().stream().map(Publication::getId)
+                .collect(Collectors.toList()));
+
+        selector = new PassClientSelector<>(Publication.class, 0, 3, or_filter, null);
+        selector.setKeyset(true);
+        selector.setTotals(false);
+
+        assertEquals(ids, client.streamObjects(selector).limit(num_pubs + 1).map(Publication::getId)
+                .collect(Collectors.toList()));
     }
 
     @Test
@@ -28,11 +28,14 @@ import com.yahoo.elide.core.RequestScope;
 import com.yahoo.elide.core.datastore.DataStoreIterable;
 import com.yahoo.elide.core.datastore.DataStoreTransaction;
 import com.yahoo.elide.core.dictionary.EntityDictionary;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.dialect.ParseException;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.pagination.PaginationImpl;
 import com.yahoo.elide.core.request.EntityProjection;
 import com.yahoo.elide.core.request.Pagination;
+import com.yahoo.elide.core.request.Sorting;
+import com.yahoo.elide.core.sort.SortingImpl;
 import com.yahoo.elide.core.type.ClassType;
 import org.eclipse.pass.object.model.PassEntity;
 
@@ -71,23 +74,37 @@ public class ElideDataStorePassClient implements PassClient {
     }
 
     private EntityProjection get_projection(RequestScope scope, PassClientSelector<?> selector) throws IOException {
-        Pagination pagination = new PaginationImpl(selector.getType(), selector.getOffset(), selector.getLimit(),
-                settings.getDefaultPageSize(), settings.getDefaultMaxPageSize(), true, false);
+        Integer offset = selector.isKeyset() ? null : selector.getOffset();
+        Pagination pagination = new PaginationImpl(selector.getType(), offset, selector.getLimit(),
+                settings.getDefaultPageSize(), settings.getDefaultMaxPageSize(), selector.isTotals(), false);
 
         FilterExpression filter = null;
+        String page_filter = selector.getPageFilter();
 
-        if (selector.getFilter() != null) {
+        if (page_filter != null) {
             try {
                 MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
-                params.add("filter", selector.getFilter());
+                params.add("filter", page_filter);
                 filter = scope.getFilterDialect().parseGlobalExpression(scope.getPath(), params, scope.getApiVersion());
             } catch (ParseException e) {
-                throw new IOException("Failed to parse filter of selector: " + selector.getFilter(), e);
+                throw new IOException("Failed to parse filter of selector: " + page_filter, e);
+            }
+        }
+
+        Sorting sorting = null;
+        String page_sorting = selector.getPageSorting();
+
+        if (page_sorting != null) {
+            try {
+                sorting = SortingImpl.parseSortRule(page_sorting, ClassType.of(selector.getType()),
+                        settings.getDictionary());
+            } catch (InvalidValueException e) {
+                throw new IOException("Failed to parse sorting of selector: " + page_sorting, e);
             }
         }
 
         return EntityProjection.builder().type(selector.getType()).pagination(pagination).filterExpression(filter)
-                .build();
+                .sorting(sorting).build();
     }
 
     private String get_path(Class<?> type, Long id) {
@@ -149,7 +166,7 @@ public class ElideDataStorePassClient implements PassClient {
 
         long total = -1;
         Pagination pagination = proj.getPagination();
-        if (pagination != null) {
+        if (pagination != null && pagination.returnPageTotals() && pagination.getPageTotals() != null) {
             total = pagination.getPageTotals();
         }
 
@@ -174,6 +191,57 @@ public class ElideDataStorePassClient implements PassClient {
         }
     }
 
+    @Override
+    public void executeBatch(PassClientBatch batch) throws IOException {
+        try (DataStoreTransaction tx = elide.getDataStore().beginTransaction()) {
+            RequestScope scope = null;
+
+            for (PassClientBatch.Item item : batch.getItems()) {
+                PassEntity obj = item.getObject();
+
+                try {
+                    switch (item.getOperation()) {
+                        case CREATE:
+                            scope = get_scope(get_path(obj.getClass(), null), tx);
+                            tx.createObject(obj, scope);
+                            break;
+
+                        case UPDATE:
+                            scope = get_scope(get_path(obj.getClass(), obj.getId()), tx);
+                            tx.save(obj, scope);
+                            break;
+
+                        case DELETE:
+                            scope = get_scope(get_path(obj.getClass(), obj.getId()), tx);
+                            EntityProjection projection = EntityProjection.builder().type(obj.getClass()).build();
+                            tx.delete(tx.loadObject(projection, obj.getId(), scope), scope);
+                            break;
+
+                        default:
+                            throw new IllegalArgumentException("Unknown operation: " + item.getOperation());
+                    }
+
+                    // Flush each operation so a failure is attributed to it
+                    tx.flush(scope);
+                } catch (RuntimeException e) {
+                    item.setError(e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+
+                    // Nothing was persisted so created objects must not keep their assigned ids
+                    batch.getItems().stream().filter(i -> i.getOperation() == PassClientBatch.Operation.CREATE)
+                            .forEach(i -> i.getObject().setId(null));
+
+                    throw new IOException("Batch operation " + item.getOperation() + " of " + obj.getClass()
+                            .getSimpleName() + " failed: " + item.getError(), e);
+                }
+            }
+
+            if (scope != null) {
+                tx.preCommit(scope);
+                tx.commit(scope);
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         read_tx.close();
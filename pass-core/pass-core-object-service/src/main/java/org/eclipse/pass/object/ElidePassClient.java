@@ -25,6 +25,10 @@ import java.util.UUID;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.yahoo.elide.Elide;
 import com.yahoo.elide.ElideResponse;
 import com.yahoo.elide.ElideSettings;
@@ -112,11 +116,15 @@ public class ElidePassClient implements PassClient {
     }
 
     private JsonApiDocument to_json_api_doc(PassEntity obj) {
+        return new JsonApiDocument(new Data<>(to_resource(obj, obj.getId() == null ? "-1" : obj.getId().toString())));
+    }
+
+    private Resource to_resource(PassEntity obj, String id) {
         EntityDictionary dict = settings.getDictionary();
 
         String typeName = EntityDictionary.getEntityName(ClassType.of(obj.getClass()));
 
-        Resource resource = new Resource(typeName, obj.getId() == null ? "-1" : obj.getId().toString());
+        Resource resource = new Resource(typeName, id);
 
         Map<String, Relationship> relationships = new HashMap<>();
 
@@ -162,7 +170,7 @@ public class ElidePassClient implements PassClient {
 
         resource.setAttributes(attributes);
 
-        return new JsonApiDocument(new Data<>(resource));
+        return resource;
     }
 
     @Override
@@ -237,23 +245,109 @@ public class ElidePassClient implements PassClient {
         }
     }
 
+    @Override
+    public void executeBatch(PassClientBatch batch) throws IOException {
+        ObjectMapper mapper = elide.getMapper().getObjectMapper();
+        ArrayNode ops = mapper.createArrayNode();
+
+        // Operations are sent as a JSON Patch document which Elide executes in a single transaction
+        for (PassClientBatch.Item item : batch.getItems()) {
+            PassEntity obj = item.getObject();
+            String path = get_path(obj.getClass(), obj.getId());
+            ObjectNode op = ops.addObject();
+
+            switch (item.getOperation()) {
+                case CREATE:
+                    // Elide requires a temporary id for a created object
+                    op.put("op", "add");
+                    op.put("path", get_path(obj.getClass(), null));
+                    op.set("value", mapper.valueToTree(to_resource(obj, UUID.randomUUID().toString())));
+                    break;
+
+                case UPDATE:
+                    op.put("op", "replace");
+                    op.put("path", path);
+                    op.set("value", mapper.valueToTree(to_resource(obj, obj.getId().toString())));
+                    break;
+
+                case DELETE:
+                    op.put("op", "remove");
+                    op.put("path", path);
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + item.getOperation());
+            }
+        }
+
+        String content_type = Elide.JSONAPI_CONTENT_TYPE_WITH_JSON_PATCH_EXTENSION;
+        ElideResponse response = elide.patch(settings.getBaseUrl(), content_type, content_type, "/",
+                mapper.writeValueAsString(ops), user, api_version);
+
+        int code = response.getResponseCode();
+        JsonNode results = response.getBody() == null ? null : mapper.readTree(response.getBody());
+
+        if (code < 200 || code > 204) {
+            if (results != null && results.isArray()) {
+                for (int i = 0; i < results.size() && i < batch.size(); i++) {
+                    JsonNode errors = results.get(i).path("errors");
+
+                    if (errors.size() > 0) {
+                        JsonNode error = errors.get(0);
+                        batch.getItems().get(i).setError(error.has("detail") ? error.get("detail").asText()
+                                : error.toString());
+                    }
+                }
+            }
+
+            throw new IOException("Failed to execute batch: " + code + " " + response.getBody());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PassClientBatch.Item item = batch.getItems().get(i);
+            JsonNode data = results.get(i).path("data");
+
+            if (item.getOperation() == PassClientBatch.Operation.DELETE || !data.isObject()) {
+                continue;
+            }
+
+            if (item.getOperation() == PassClientBatch.Operation.CREATE) {
+                settings.getDictionary().setId(item.getObject(), data.get("id").asText());
+            }
+
+            JsonNode version = data.path("attributes").path("version");
+
+            if (version.isNumber()) {
+                settings.getDictionary().setValue(item.getObject(), "version", version.asLong());
+            }
+        }
+    }
+
     @Override
     public <T extends PassEntity> PassClientResult<T> selectObjects(PassClientSelector<T> selector) throws IOException {
         String path = get_path(selector.getType(), null);
 
         MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
 
-        if (selector.getFilter() != null) {
-            params.add("filter", selector.getFilter());
+        String filter = selector.getPageFilter();
+        if (filter != null) {
+            params.add("filter", filter);
+        }
+
+        String sorting = selector.getPageSorting();
+        if (sorting != null) {
+            params.add("sort", sorting);
         }
 
-        if (selector.getSorting() != null) {
-            params.add("sort", selector.getSorting());
+        if (!selector.isKeyset()) {
+            params.add("page[offset]", "" + selector.getOffset());
         }
 
-        params.add("page[offset]", "" + selector.getOffset());
         params.add("page[limit]", "" + selector.getLimit());
-        params.add("page[totals]", null);
+
+        if (selector.isTotals()) {
+            params.add("page[totals]", null);
+        }
 
         ElideResponse response = elide.get(settings.getBaseUrl(), path, params, user, api_version);
 
@@ -267,11 +361,14 @@ public class ElidePassClient implements PassClient {
 
         JsonApiDocument doc = elide.getMapper().readJsonApiDocument(response.getBody());
 
-        Object totalval = doc.getMeta().getValue("page", Map.class).get("totalRecords");
         long total = -1;
 
-        if (totalval != null) {
-            total = Long.parseLong(totalval.toString());
+        if (doc.getMeta() != null) {
+            Map<?, ?> page = doc.getMeta().getValue("page", Map.class);
+
+            if (page != null && page.get("totalRecords") != null) {
+                total = Long.parseLong(page.get("totalRecords").toString());
+            }
         }
 
         PassClientResult<T> result = new PassClientResult<>(total);
@@ -116,6 +116,16 @@ public interface PassClient extends Closeable {
         deleteObject(obj.getClass(), obj.getId());
     }
 
+    /**
+     * Execute all the operations of a batch in a single transaction. If any operation fails, none are applied, an
+     * exception is thrown, and the items of the batch record which operations failed and why.
+     * Objects created by the batch have their id set.
+     *
+     * @param batch operations to execute
+     * @throws IOException if operation fails
+     */
+    void executeBatch(PassClientBatch batch) throws IOException;
+
     /**
      * Select objects from the repository matching the selector.
      *
@@ -128,6 +138,7 @@ public interface PassClient extends Closeable {
 
     /**
      * Stream all objects in the repository matching the selector starting from the selector offset.
+     * If the selector uses keyset paging, each page starts after the id of the last object of the previous page.
      *
      * @param <T> object type
      * @param selector determines which objects to retrieve
@@ -146,14 +157,23 @@ public interface PassClient extends Closeable {
 
             @Override
             public long estimateSize() {
-                return result.getTotal();
+                return result.getTotal() < 0 ? Long.MAX_VALUE : result.getTotal();
             }
 
             @Override
             public boolean tryAdvance(Consumer<? super T> consumer) {
                 if (next == result.getObjects().size()) {
+                    if (result.getObjects().size() == 0) {
+                        return false;
+                    }
+
                     try {
-                        selector.setOffset(selector.getOffset() + selector.getLimit());
+                        if (selector.isKeyset()) {
+                            selector.setAfter(result.getObjects().get(next - 1).getId());
+                        } else {
+                            selector.setOffset(selector.getOffset() + selector.getLimit());
+                        }
+
                         result = selectObjects(selector);
                         next = 0;
                     } catch (IOException e) {
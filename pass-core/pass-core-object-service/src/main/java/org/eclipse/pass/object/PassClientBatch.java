@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.pass.object.model.PassEntity;
+
+/**
+ * PassClientBatch is an ordered list of create, update, and delete operations which are executed together in a
+ * single transaction by {@link PassClient#executeBatch(PassClientBatch)}. Either all of the operations are applied
+ * or none of them are. Relationships of the objects must target objects which already exist.
+ * <p>
+ * After the batch is executed, each item records the outcome of its operation. Created objects have their id set
+ * and versioned objects have their version updated as with the single object methods of the client.
+ */
+public class PassClientBatch {
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * Kind of operation performed on an object.
+     */
+    public enum Operation {
+        /**
+         * Create the object.
+         */
+        CREATE,
+
+        /**
+         * Update the object.
+         */
+        UPDATE,
+
+        /**
+         * Delete the object.
+         */
+        DELETE
+    }
+
+    /**
+     * An operation on an object and its outcome.
+     */
+    public static class Item {
+        private final Operation operation;
+        private final PassEntity object;
+        private String error;
+
+        private Item(Operation operation, PassEntity object) {
+            this.operation = operation;
+            this.object = object;
+        }
+
+        /**
+         * @return The operation performed on the object.
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return The object the operation is performed on.
+         */
+        public PassEntity getObject() {
+            return object;
+        }
+
+        /**
+         * @return The reason the operation failed or null if it did not fail.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Set the reason the operation failed.
+         * @param error The reason the operation failed.
+         */
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Add an operation to create an object.
+     * @param obj The object to create.
+     * @return This batch.
+     */
+    public PassClientBatch createObject(PassEntity obj) {
+        items.add(new Item(Operation.CREATE, obj));
+        return this;
+    }
+
+    /**
+     * Add an operation to update an object.
+     * @param obj The object to update.
+     * @return This batch.
+     */
+    public PassClientBatch updateObject(PassEntity obj) {
+        items.add(new Item(Operation.UPDATE, obj));
+        return this;
+    }
+
+    /**
+     * Add an operation to delete an object.
+     * @param obj The object to delete.
+     * @return This batch.
+     */
+    public PassClientBatch deleteObject(PassEntity obj) {
+        items.add(new Item(Operation.DELETE, obj));
+        return this;
+    }
+
+    /**
+     *
+     * @return The operations in the order they are executed.
+     */
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     *
+     * @return The number of operations.
+     */
+    public int size() {
+        return items.size();
+    }
+}
@@ -21,6 +21,10 @@ import org.eclipse.pass.object.model.PassEntity;
  * PassClientSelector is used to select objects in the repository.
  * See <a href="https://elide.io/pages/guide/v6/10-jsonapi.html">Elide JSON-API</a> for information on the
  * sort and filter syntax.
+ * <p>
+ * By default a page of matches starting at an offset is returned. With keyset paging the matches are ordered by id and
+ * a page starts after a given id. This avoids the database skipping over all the preceding matches and is preferred
+ * when visiting all the matches of a large table. Counting the total number of matches may also be skipped.
  */
 public class PassClientSelector<T extends PassEntity> {
     private static final int DEFAULT_LIMIT = 500;
@@ -30,6 +34,9 @@ public class PassClientSelector<T extends PassEntity> {
     private Class<T> type;
     private String sorting;
     private String filter;
+    private boolean keyset;
+    private Long after;
+    private boolean totals = true;
 
     /**
      * Match all objects of the given type.
@@ -137,4 +144,75 @@ public class PassClientSelector<T extends PassEntity> {
     public void setFilter(String filter) {
         this.filter = filter;
     }
+
+    /**
+     *
+     * @return Whether matches are paged by id rather than by offset.
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    /**
+     * Set whether matches are paged by id rather than by offset. When paging by id, matches are sorted by id and
+     * the page starts after the id returned by {@link #getAfter()}. The offset and sorting are ignored.
+     * @param keyset Whether matches are paged by id.
+     */
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    /**
+     *
+     * @return The id after which a keyset page starts or null to start at the first match.
+     */
+    public Long getAfter() {
+        return after;
+    }
+
+    /**
+     * Set the id after which a keyset page starts. Typically the id of the last object of the previous page.
+     * @param after The id after which a keyset page starts or null to start at the first match.
+     */
+    public void setAfter(Long after) {
+        this.after = after;
+    }
+
+    /**
+     *
+     * @return Whether the total number of matches is computed.
+     */
+    public boolean isTotals() {
+        return totals;
+    }
+
+    /**
+     * Set whether the total number of matches is computed. Computing the total requires counting all the matches
+     * on every page.
+     * @param totals Whether the total number of matches is computed.
+     */
+    public void setTotals(boolean totals) {
+        this.totals = totals;
+    }
+
+    /**
+     * @return The filter including the keyset page condition.
+     */
+    String getPageFilter() {
+        if (!keyset || after == null) {
+            return filter;
+        }
+
+        String cond = RSQL.gt("id", after.toString());
+
+        // The filter is grouped so that a top level OR does not bypass the page condition
+        return filter == null ? cond : RSQL.and("(" + filter + ")", cond);
+    }
+
+    /**
+     * @return The sorting including the keyset page order.
+     */
+    String getPageSorting() {
+        return keyset ? "id" : sorting;
+    }
 }
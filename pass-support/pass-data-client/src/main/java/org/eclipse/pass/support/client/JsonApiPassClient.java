@@ -3,21 +3,19 @@ package org.eclipse.pass.support.client;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonAdapter.Factory;
 import com.squareup.moshi.JsonReader;
-import com.squareup.moshi.JsonReader.Token;
 import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
@@ -32,6 +30,8 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
 import org.eclipse.pass.support.client.adapter.AggregatedDepositStatusAdapter;
 import org.eclipse.pass.support.client.adapter.AwardStatusAdapter;
 import org.eclipse.pass.support.client.adapter.CopyStatusAdapter;
@@ -66,6 +66,8 @@ import org.eclipse.pass.support.client.model.User;
 public class JsonApiPassClient implements PassClient {
     private final static String JSON_API_CONTENT_TYPE = "application/vnd.api+json";
     private final static MediaType JSON_API_MEDIA_TYPE = MediaType.parse("application/vnd.api+json; charset=utf-8");
+    private final static String JSON_PATCH_CONTENT_TYPE = "application/vnd.api+json; ext=jsonpatch";
+    private final static MediaType JSON_PATCH_MEDIA_TYPE = MediaType.parse(JSON_PATCH_CONTENT_TYPE);
 
     private final Moshi moshi;
     private final Moshi update_moshi;
@@ -158,21 +160,30 @@ public class JsonApiPassClient implements PassClient {
         return new String(chars);
     }
 
-    private String get_java_type(String json_type) {
-        char[] chars = json_type.toCharArray();
-        chars[0] = Character.toUpperCase(chars[0]);
+    private <T extends PassEntity> String to_create_json(T obj) {
+        JsonAdapter<Document<T>> adapter = moshi.adapter(Types.newParameterizedType(Document.class, obj.getClass()));
+        Document<T> doc = Document.with(obj).includedSerialization(IncludedSerialization.NONE).build();
 
-        return new String(chars);
+        return adapter.toJson(doc);
     }
 
-    @Override
-    public <T extends PassEntity> void createObject(T obj) throws IOException {
-        JsonAdapter<Document<T>> adapter = moshi.adapter(Types.newParameterizedType(Document.class, obj.getClass()));
-
+    private <T extends PassEntity> String to_update_json(T obj) throws IOException {
+        // Use adapters that will serialize null values for attributes
+        JsonAdapter<Document<T>> adapter = update_moshi.adapter(Types.newParameterizedType(Document.class,
+            obj.getClass()));
         Document<T> doc = Document.with(obj).includedSerialization(IncludedSerialization.NONE).build();
 
         String json = adapter.toJson(doc);
 
+        // Null relationships are not serialized. Add any missing null to one relationships
+        return add_null_relationships(json, JsonApiRelationships.get_null_relationships(obj));
+    }
+
+    @Override
+    public <T extends PassEntity> void createObject(T obj) throws IOException {
+        JsonAdapter<Document<T>> adapter = moshi.adapter(Types.newParameterizedType(Document.class, obj.getClass()));
+        String json = to_create_json(obj);
+
         String url = baseUrl + "data/" + get_json_type(obj.getClass());
         RequestBody body = RequestBody.create(json, JSON_API_MEDIA_TYPE);
         Request request = new Request.Builder().url(url).header("Accept", JSON_API_CONTENT_TYPE)
@@ -191,15 +202,9 @@ public class JsonApiPassClient implements PassClient {
 
     @Override
     public <T extends PassEntity> void updateObject(T obj) throws IOException {
-        // Use adapters that will serialize null values for attributes
         JsonAdapter<Document<T>> adapter = update_moshi.adapter(Types.newParameterizedType(Document.class,
             obj.getClass()));
-        Document<T> doc = Document.with(obj).includedSerialization(IncludedSerialization.NONE).build();
-
-        String json = adapter.toJson(doc);
-
-        // Null relationships are not serialized. Add any missing null to one relationships
-        json = add_null_relationships(json, get_null_relationships(obj));
+        String json = to_update_json(obj);
 
         String url = get_url(obj);
         RequestBody body = RequestBody.create(json, JSON_API_MEDIA_TYPE);
@@ -208,8 +213,14 @@ public class JsonApiPassClient implements PassClient {
 
         try (Response response = client.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException(
-                        "Update failed: " + url + " returned " + response.code() + " " + response.body().string());
+                String message = "Update failed: " + url + " returned " + response.code() + " "
+                        + response.body().string();
+
+                if (response.code() == 409) {
+                    throw new OptimisticLockException(message);
+                }
+
+                throw new IOException(message);
             }
             Document<T> result_doc = adapter.fromJson(response.body().string());
             setVersionIfNeeded(result_doc, obj);
@@ -223,27 +234,6 @@ public class JsonApiPassClient implements PassClient {
         }
     }
 
-    // Return all to one relationships that have a null value.
-    private List<String> get_null_relationships(PassEntity entity) {
-        List<String> rels = new ArrayList<>();
-
-        for (Method m : entity.getClass().getMethods()) {
-            if (m.getName().startsWith("get") && PassEntity.class.isAssignableFrom(m.getReturnType())) {
-                try {
-                    if (m.invoke(entity) == null) {
-                        String rel = m.getName();
-                        rel = Character.toLowerCase(rel.charAt(3)) + rel.substring(4);
-                        rels.add(rel);
-                    }
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                    throw new RuntimeException("Failed to invoke: " + m.getName(), e);
-                }
-            }
-        }
-
-        return rels;
-    }
-
     // Add the missing to one relationships with null values to the document
     @SuppressWarnings("unchecked")
     private String add_null_relationships(String json, List<String> null_rels) throws IOException {
@@ -298,300 +288,210 @@ public class JsonApiPassClient implements PassClient {
         }
     }
 
-    private static class Relationship {
-        String name;
-        List<String> targets;
-        String target_type;
-        boolean to_many;
+    @Override
+    public <T extends PassEntity> T getObject(Class<T> type, String id, String... include) throws IOException {
+        JsonAdapter<Document<T>> adapter = moshi.adapter(Types.newParameterizedType(Document.class, type));
 
-        Relationship(String name) {
-            this.name = name;
-            this.targets = new ArrayList<>();
+        HttpUrl.Builder url_builder = HttpUrl.parse(get_url(type, id)).newBuilder();
+        if (include != null && include.length > 0) {
+            url_builder.addQueryParameter("include", String.join(",", include));
         }
-    }
-
-    // Return map of source object id to object relationships.
-    // Ignore any relationships whose target is included
-    private Map<String, List<Relationship>> get_relationships(String json_api_doc) throws IOException {
-        Map<String, List<Relationship>> result = new HashMap<>();
-
-        // Contains type_id for objects which are included in the document
-        Set<String> included = new HashSet<>();
-
-        try (Buffer buffer = new Buffer(); JsonReader reader = JsonReader.of(buffer.writeUtf8(json_api_doc))) {
-            reader.beginObject();
+        HttpUrl url = url_builder.build();
 
-            while (reader.hasNext()) {
-                String top_name = reader.nextName();
+        Request request = new Request.Builder().url(url).header("Accept", JSON_API_CONTENT_TYPE)
+                .addHeader("Content-Type", JSON_API_CONTENT_TYPE).get().build();
 
-                if (top_name.equals("data")) {
-                    Token next = reader.peek();
+        Buffer body = new Buffer();
+        try (Response response = client.newCall(request).execute()) {
 
-                    if (next == Token.BEGIN_ARRAY) {
-                        reader.beginArray();
-                        while (reader.hasNext()) {
-                            gather_relationships_from_data(result, reader, included);
-                        }
-                        reader.endArray();
-                    } else if (next == Token.BEGIN_OBJECT) {
-                        gather_relationships_from_data(result, reader, included);
-                    } else {
-                        reader.skipValue();
-                    }
-                } else if (top_name.equals("included")) {
-                    reader.beginArray();
-
-                    while (reader.hasNext()) {
-                        String id = null;
-                        String type = null;
-
-                        reader.beginObject();
-                        while (reader.hasNext()) {
-                            switch (reader.nextName()) {
-                                case "id":
-                                    id = reader.nextString();
-                                    break;
-
-                                case "type":
-                                    type = reader.nextString();
-                                    break;
-
-                                default:
-                                    reader.skipValue();
-                                    break;
-                            }
-                        }
-                        reader.endObject();
+            if (response.code() == 404) {
+                return null;
+            }
 
-                        if (id != null && type != null) {
-                            included.add(type + "_" + id);
-                        }
-                    }
+            body.writeAll(response.body().source());
 
-                    reader.endArray();
-                } else {
-                    reader.skipValue();
-                }
+            if (!response.isSuccessful()) {
+                throw new IOException("Get failed: " + url + " returned " + response.code() + " " + body.readUtf8());
             }
-
-            reader.endObject();
         }
 
-        // Prune relationship targets that are included in the document
-        if (included.size() > 0) {
-            result.forEach((id, rels) -> {
-                rels.forEach(rel -> {
-                    rel.targets.removeIf(target_id -> included.contains(rel.target_type + "_" + target_id));
-                });
-            });
-        }
+        // The clone shares the segments of the body rather than copying them, the body is read again for the
+        // relationships which the document adapter drops
+        Document<T> doc = adapter.fromJson(body.clone());
+        T result = doc.requireData();
+
+        JsonApiRelationships.read(body).set(result);
 
         return result;
     }
 
-    // Return relationships from a data object
-    private void gather_relationships_from_data(Map<String, List<Relationship>> result, JsonReader reader,
-            Set<String> included) throws IOException {
-        String id = null;
-        List<Relationship> rels = null;
-
-        reader.beginObject();
-        while (reader.hasNext()) {
-            String name = reader.nextName();
-
-            if (name.equals("relationships")) {
-                rels = parse_relationships(reader, included);
-            } else if (name.equals("id")) {
-                id = reader.nextString();
-            } else {
-                reader.skipValue();
-            }
-        }
-        reader.endObject();
+    @Override
+    public <T extends PassEntity> void deleteObject(Class<T> type, String id) throws IOException {
+        String url = get_url(type, id);
 
-        if (id != null && rels != null && rels.size() > 0) {
-            result.put(id, rels);
+        Request request = new Request.Builder().url(url).delete().build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException(
+                        "Delete failed: " + url + " returned " + response.code() + " " + response.body().string());
+            }
         }
     }
 
-    // Parse the relationships object
-    private List<Relationship> parse_relationships(JsonReader reader, Set<String> included) throws IOException {
-        List<Relationship> result = new ArrayList<>();
+    @Override
+    public void executeBatch(PassClientBatch batch) throws IOException {
+        List<PassClientBatch.Item> items = batch.getItems();
 
-        reader.beginObject();
-        while (reader.hasNext()) {
-            Relationship rel = new Relationship(reader.nextName());
+        // Objects to create are given temporary ids so later operations can refer to them
+        items.stream().filter(i -> i.getOperation() == PassClientBatch.Operation.CREATE)
+                .forEach(i -> i.getObject().setId(UUID.randomUUID().toString()));
 
-            reader.beginObject();
-            while (reader.hasNext()) {
-                if (reader.nextName().equals("data")) {
-                    Token next = reader.peek();
+        String json;
+        try {
+            json = to_json_patch(items);
+        } catch (IOException | RuntimeException e) {
+            reset_created_ids(items);
+            throw e;
+        }
 
-                    if (next == Token.BEGIN_ARRAY) {
-                        reader.beginArray();
-                        rel.to_many = true;
+        String url = baseUrl + "data";
+        RequestBody body = RequestBody.create(json.getBytes(StandardCharsets.UTF_8), JSON_PATCH_MEDIA_TYPE);
+        Request request = new Request.Builder().url(url).header("Accept", JSON_PATCH_CONTENT_TYPE)
+                .addHeader("Content-Type", JSON_PATCH_CONTENT_TYPE).patch(body).build();
 
-                        while (reader.hasNext()) {
-                            fill_relationship(rel, reader);
-                        }
+        List<?> results;
+        try (Response response = client.newCall(request).execute()) {
+            String result_body = response.body().string();
+            results = parse_json_patch_results(result_body);
 
-                        reader.endArray();
-                    } else if (next == Token.BEGIN_OBJECT) {
-                        rel.to_many = false;
-                        fill_relationship(rel, reader);
-                    } else {
-                        reader.skipValue();
-                    }
+            if (!response.isSuccessful()) {
+                reset_created_ids(items);
 
-                    if (rel.targets.size() > 0) {
-                        result.add(rel);
-                    }
-                } else {
-                    reader.skipValue();
+                for (int i = 0; i < results.size() && i < items.size(); i++) {
+                    items.get(i).setError(get_json_patch_error(results.get(i)));
                 }
+
+                throw new IOException("Batch failed: " + url + " returned " + response.code() + " " + result_body);
             }
-            reader.endObject();
         }
-        reader.endObject();
-
-        return result;
-    }
-
-    // Parse the data of a relationship target into a Relationship
-    private void fill_relationship(Relationship rel, JsonReader reader) throws IOException {
-        reader.beginObject();
 
-        String id = null;
-        String type = null;
+        for (int i = 0; i < items.size() && i < results.size(); i++) {
+            PassClientBatch.Item item = items.get(i);
+            Object data = results.get(i) instanceof Map ? ((Map<?, ?>) results.get(i)).get("data") : null;
 
-        while (reader.hasNext()) {
-            switch (reader.nextName()) {
-                case "id":
-                    id = reader.nextString();
-                    break;
+            if (!(data instanceof Map)) {
+                continue;
+            }
 
-                case "type":
-                    type = reader.nextString();
-                    break;
+            Map<?, ?> resource = (Map<?, ?>) data;
 
-                default:
-                    reader.skipValue();
-                    break;
+            if (item.getOperation() == PassClientBatch.Operation.CREATE) {
+                item.getObject().setId(resource.get("id").toString());
             }
-        }
 
-        if (id != null && type != null) {
-            rel.targets.add(id);
-            rel.target_type = type;
+            if (item.getObject() instanceof PassVersionedEntity versioned
+                    && resource.get("attributes") instanceof Map<?, ?> attributes
+                    && attributes.get("version") instanceof Number version) {
+                versioned.setVersion(version.longValue());
+            }
         }
-
-        reader.endObject();
     }
 
-    // Create a PassEntity and set the id. It must have an appropriate constructor.
-    private Object create_target(String target_id, String class_name) {
-        try {
-            return Class.forName(class_name).getConstructor(String.class).newInstance(target_id);
-        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException | ClassNotFoundException e) {
-            throw new RuntimeException("Failed to create: " + class_name, e);
-        }
+    private void reset_created_ids(List<PassClientBatch.Item> items) {
+        items.stream().filter(i -> i.getOperation() == PassClientBatch.Operation.CREATE)
+                .forEach(i -> i.getObject().setId(null));
     }
 
-    // Set a value on an object using a set method.
-    private void set_value(Object obj, String set_method, Object value) {
-        try {
-            Class<?> value_class = value.getClass();
+    // Write the operations as a JSON Patch document which Elide executes in a single transaction
+    private String to_json_patch(List<PassClientBatch.Item> items) throws IOException {
+        try (Buffer buffer = new Buffer(); JsonWriter writer = JsonWriter.of(buffer)) {
+            writer.beginArray();
+
+            for (PassClientBatch.Item item : items) {
+                PassEntity obj = item.getObject();
+                String type_path = "/" + get_json_type(obj.getClass());
+
+                writer.beginObject();
+
+                switch (item.getOperation()) {
+                    case CREATE:
+                        writer.name("op").value("add");
+                        writer.name("path").value(type_path);
+                        writer.name("value");
+                        write_data(writer, to_create_json(obj));
+                        break;
+
+                    case UPDATE:
+                        writer.name("op").value("replace");
+                        writer.name("path").value(type_path + "/" + obj.getId());
+                        writer.name("value");
+                        write_data(writer, to_update_json(obj));
+                        break;
+
+                    case DELETE:
+                        writer.name("op").value("remove");
+                        writer.name("path").value(type_path + "/" + obj.getId());
+                        break;
+
+                    default:
+                        throw new IllegalArgumentException("Unknown operation: " + item.getOperation());
+                }
 
-            // Handle the set method taking a List instead of a List implementation
-            if (value instanceof List) {
-                value_class = List.class;
+                writer.endObject();
             }
 
-            obj.getClass().getMethod(set_method, value_class).invoke(obj, value);
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException e) {
-            throw new RuntimeException("Failed to invoke: " + set_method, e);
+            writer.endArray();
+            writer.flush();
+
+            return buffer.readUtf8();
         }
     }
 
-    // Set a relationship on a matched object
-    private void set_relationship(Object obj, Relationship rel) {
-        // Targets may have been pruned
-        if (rel.targets.size() == 0) {
-            return;
-        }
+    // Copy the primary data of a JSON API document to the writer
+    private void write_data(JsonWriter writer, String json_api_doc) throws IOException {
+        try (Buffer buffer = new Buffer(); JsonReader reader = JsonReader.of(buffer.writeUtf8(json_api_doc))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("data")) {
+                    try (BufferedSource source = reader.nextSource(); BufferedSink sink = writer.valueSink()) {
+                        source.readAll(sink);
+                    }
 
-        String target_class_name = "org.eclipse.pass.support.client.model." + get_java_type(rel.target_type);
-        Object target;
+                    return;
+                }
 
-        if (rel.to_many) {
-            List<Object> list = new ArrayList<>();
-            rel.targets.forEach(id -> {
-                list.add(create_target(id, target_class_name));
-            });
-            target = list;
-        } else {
-            target = create_target(rel.targets.get(0), target_class_name);
+                reader.skipValue();
+            }
         }
 
-        set_value(obj, "set" + get_java_type(rel.name), target);
+        throw new IOException("Document has no data: " + json_api_doc);
     }
 
-    private void set_relationships(Object obj, List<Relationship> rels) {
-        if (rels != null) {
-            rels.forEach(rel -> {
-                set_relationship(obj, rel);
-            });
+    private List<?> parse_json_patch_results(String body) throws IOException {
+        if (body == null || body.isBlank()) {
+            return List.of();
         }
-    }
 
-    @Override
-    public <T extends PassEntity> T getObject(Class<T> type, String id, String... include) throws IOException {
-        JsonAdapter<Document<T>> adapter = moshi.adapter(Types.newParameterizedType(Document.class, type));
+        try (Buffer buffer = new Buffer(); JsonReader reader = JsonReader.of(buffer.writeUtf8(body))) {
+            Object value = reader.readJsonValue();
 
-        HttpUrl.Builder url_builder = HttpUrl.parse(get_url(type, id)).newBuilder();
-        if (include != null && include.length > 0) {
-            url_builder.addQueryParameter("include", String.join(",", include));
+            return value instanceof List ? (List<?>) value : List.of();
         }
-        HttpUrl url = url_builder.build();
-
-        Request request = new Request.Builder().url(url).header("Accept", JSON_API_CONTENT_TYPE)
-                .addHeader("Content-Type", JSON_API_CONTENT_TYPE).get().build();
+    }
 
-        String body;
-        try (Response response = client.newCall(request).execute()) {
+    private String get_json_patch_error(Object result) {
+        if (result instanceof Map<?, ?> map && map.get("errors") instanceof List<?> errors && !errors.isEmpty()) {
+            Object error = errors.get(0);
 
-            if (response.code() == 404) {
-                return null;
+            if (error instanceof Map<?, ?> error_map && error_map.get("detail") != null) {
+                return error_map.get("detail").toString();
             }
 
-            body = response.body().string();
-
-            if (!response.isSuccessful()) {
-                throw new IOException("Get failed: " + url + " returned " + response.code() + " " + body);
-            }
+            return String.valueOf(error);
         }
 
-        Document<T> doc = adapter.fromJson(body);
-        T result = doc.requireData();
-
-        set_relationships(result, get_relationships(body).get(id));
-
-        return result;
-    }
-
-    @Override
-    public <T extends PassEntity> void deleteObject(Class<T> type, String id) throws IOException {
-        String url = get_url(type, id);
-
-        Request request = new Request.Builder().url(url).delete().build();
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException(
-                        "Delete failed: " + url + " returned " + response.code() + " " + response.body().string());
-            }
-        }
+        return null;
     }
 
     @Override
@@ -605,38 +505,60 @@ public class JsonApiPassClient implements PassClient {
             url_builder.addQueryParameter("include", String.join(",", include));
         }
 
-        if (selector.getFilter() != null) {
-            url_builder.addQueryParameter("filter", selector.getFilter());
+        String filter = selector.getFilter();
+        String sorting = selector.getSorting();
+
+        if (selector.isKeyset()) {
+            sorting = "id";
+
+            if (selector.getAfter() != null) {
+                String after = RSQL.gt("id", selector.getAfter());
+                // The filter is grouped so that a top level OR does not bypass the page condition
+                filter = filter == null ? after : RSQL.and("(" + filter + ")", after);
+            }
+        }
+
+        if (filter != null) {
+            url_builder.addQueryParameter("filter", filter);
         }
 
-        if (selector.getSorting() != null) {
-            url_builder.addQueryParameter("sort", selector.getSorting());
+        if (sorting != null) {
+            url_builder.addQueryParameter("sort", sorting);
+        }
+
+        if (!selector.isKeyset()) {
+            url_builder.addQueryParameter("page[offset]", "" + selector.getOffset());
         }
 
-        url_builder.addQueryParameter("page[offset]", "" + selector.getOffset());
         url_builder.addQueryParameter("page[limit]", "" + selector.getLimit());
-        url_builder.addQueryParameter("page[totals]", null);
+
+        if (selector.isTotals()) {
+            url_builder.addQueryParameter("page[totals]", null);
+        }
 
         HttpUrl url = url_builder.build();
 
         Request request = new Request.Builder().url(url).header("Accept", JSON_API_CONTENT_TYPE)
                 .addHeader("Content-Type", JSON_API_CONTENT_TYPE).get().build();
 
-        String body;
+        Buffer body = new Buffer();
         try (Response response = client.newCall(request).execute()) {
 
             if (response.code() == 404) {
                 return null;
             }
 
-            body = response.body().string();
+            body.writeAll(response.body().source());
 
             if (!response.isSuccessful()) {
-                throw new IOException("Select failed: " + url + " returned " + response.code() + " " + body);
+                throw new IOException("Select failed: " + url + " returned " + response.code() + " "
+                        + body.readUtf8());
             }
         }
 
-        Document<List<T>> doc = adapter.fromJson(body);
+        // The clone shares the segments of the body rather than copying them, the body is read again for the
+        // relationships which the document adapter drops
+        Document<List<T>> doc = adapter.fromJson(body.clone());
         List<T> matches = doc.requireData();
         long total = -1;
 
@@ -648,11 +570,8 @@ public class JsonApiPassClient implements PassClient {
             }
         }
 
-        Map<String, List<Relationship>> rels = get_relationships(body);
-
-        matches.forEach(o -> {
-            set_relationships(o, rels.get(o.getId()));
-        });
+        JsonApiRelationships rels = JsonApiRelationships.read(body);
+        matches.forEach(rels::set);
 
         return new PassClientResult<>(matches, total);
     }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.client;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an update of a versioned object is rejected because the object was modified since it was read. The
+ * object must be read again before the update can be retried.
+ */
+public class OptimisticLockException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message description of the conflict
+     */
+    public OptimisticLockException(String message) {
+        super(message);
+    }
+}
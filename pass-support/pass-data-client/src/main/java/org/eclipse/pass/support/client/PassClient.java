@@ -83,9 +83,11 @@ public interface PassClient {
 
     /**
      * Update an existing object.
+     * The version of a versioned object must match the stored version and is updated by the method.
      *
      * @param <T> type of the object
      * @param obj object to update
+     * @throws OptimisticLockException if the object was modified since it was read
      * @throws IOException if operation fails
      */
     <T extends PassEntity> void updateObject(T obj) throws IOException;
@@ -140,6 +142,16 @@ public interface PassClient {
         deleteObject(obj.getClass(), obj.getId());
     }
 
+    /**
+     * Execute all the operations of a batch in a single request and transaction. If any operation fails, none are
+     * applied, an exception is thrown, and the items of the batch record which operations failed and why.
+     * Objects created by the batch have their id set.
+     *
+     * @param batch operations to execute
+     * @throws IOException if operation fails
+     */
+    void executeBatch(PassClientBatch batch) throws IOException;
+
     /**
      * Select objects from the repository matching the selector.
      *
@@ -152,6 +164,7 @@ public interface PassClient {
 
     /**
      * Stream all objects in the repository matching the selector starting from the selector offset.
+     * If the selector uses keyset paging, each page starts after the id of the last object of the previous page.
      *
      * @param <T> type of the object
      * @param selector which objects to retrieve
@@ -170,14 +183,23 @@ public interface PassClient {
 
             @Override
             public long estimateSize() {
-                return result.getTotal();
+                return result.getTotal() < 0 ? Long.MAX_VALUE : result.getTotal();
             }
 
             @Override
             public boolean tryAdvance(Consumer<? super T> consumer) {
                 if (next == result.getObjects().size()) {
+                    if (result.getObjects().size() == 0) {
+                        return false;
+                    }
+
                     try {
-                        selector.setOffset(selector.getOffset() + selector.getLimit());
+                        if (selector.isKeyset()) {
+                            selector.setAfter(result.getObjects().get(next - 1).getId());
+                        } else {
+                            selector.setOffset(selector.getOffset() + selector.getLimit());
+                        }
+
                         result = selectObjects(selector);
                         next = 0;
                     } catch (IOException e) {
@@ -202,6 +224,27 @@ public interface PassClient {
         return StreamSupport.stream(iter, false);
     }
 
+    /**
+     * Stream all objects in the repository matching the selector starting from the selector offset. The selector
+     * limit is used as the page size. While the current page is consumed, up to prefetch following pages are
+     * retrieved concurrently. The stream may be made parallel, in which case it is split by ranges of pages.
+     * Relationship targets named by the selector include are retrieved with each page.
+     * The number of pages is determined when the stream is created, objects matching afterward are not returned.
+     * The observed pages per second are logged when all pages have been retrieved.
+     * Since pages are addressed by offset, the selector must not use keyset paging and must compute totals.
+     * Closing the stream stops any outstanding page retrieval.
+     *
+     * @param <T> type of the object
+     * @param selector which objects to retrieve
+     * @param prefetch maximum number of pages retrieved concurrently
+     * @return Stream matching objects
+     * @throws IOException if operation fails
+     */
+    default <T extends PassEntity> Stream<T> streamObjects(PassClientSelector<T> selector, int prefetch)
+            throws IOException {
+        return PassClientPageSpliterator.stream(this, selector, prefetch);
+    }
+
     /**
      * Download the binary associated with a File.
      *
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.pass.support.client.model.PassEntity;
+
+/**
+ * PassClientBatch is an ordered list of create, update, and delete operations executed together in a single
+ * transaction by {@link PassClient#executeBatch(PassClientBatch)}. Either all of the operations are applied or none
+ * of them are. A relationship may target an object created earlier in the same batch.
+ * After the batch is executed, each item records the outcome of its operation.
+ */
+public class PassClientBatch {
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * Kind of operation performed on an object.
+     */
+    public enum Operation {
+        /**
+         * Create the object
+         */
+        CREATE,
+
+        /**
+         * Update the object
+         */
+        UPDATE,
+
+        /**
+         * Delete the object
+         */
+        DELETE
+    }
+
+    /**
+     * An operation on an object and its outcome.
+     */
+    public static class Item {
+        private final Operation operation;
+        private final PassEntity object;
+        private String error;
+
+        private Item(Operation operation, PassEntity object) {
+            this.operation = operation;
+            this.object = object;
+        }
+
+        /**
+         * @return operation performed on the object
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return object the operation is performed on
+         */
+        public PassEntity getObject() {
+            return object;
+        }
+
+        /**
+         * @return reason the operation failed or null if it did not fail
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * @param error reason the operation failed
+         */
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * @param obj object to create
+     * @return this batch
+     */
+    public PassClientBatch createObject(PassEntity obj) {
+        items.add(new Item(Operation.CREATE, obj));
+        return this;
+    }
+
+    /**
+     * @param obj object to update
+     * @return this batch
+     */
+    public PassClientBatch updateObject(PassEntity obj) {
+        items.add(new Item(Operation.UPDATE, obj));
+        return this;
+    }
+
+    /**
+     * @param obj object to delete
+     * @return this batch
+     */
+    public PassClientBatch deleteObject(PassEntity obj) {
+        items.add(new Item(Operation.DELETE, obj));
+        return this;
+    }
+
+    /**
+     * @return operations in the order they are executed
+     */
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @return number of operations
+     */
+    public int size() {
+        return items.size();
+    }
+}
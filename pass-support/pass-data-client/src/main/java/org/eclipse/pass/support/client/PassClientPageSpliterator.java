@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.client;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.pass.support.client.model.PassEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spliterator over the pages of matches of a selector. The number of pages is determined from the total returned
+ * with the first page, so only the matches present when the stream is created are visited. A spliterator covers a
+ * range of pages and fetches up to prefetch of them concurrently while the current page is consumed. It can be split
+ * by page ranges so parallel streams fetch and process different parts of the result concurrently.
+ *
+ * @param <T> type of the object
+ */
+class PassClientPageSpliterator<T extends PassEntity> implements Spliterator<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(PassClientPageSpliterator.class);
+
+    private final Scan<T> scan;
+    private final Deque<Future<List<T>>> pending;
+    private List<T> current;
+    private int next;
+    private int nextPage;
+    private int endPage;
+
+    /**
+     * State shared by all the spliterators of a stream.
+     */
+    private static class Scan<T extends PassEntity> {
+        final PassClient client;
+        final PassClientSelector<T> selector;
+        final int prefetch;
+        final int pages;
+        final ExecutorService executor;
+        final AtomicInteger fetched = new AtomicInteger();
+        final long start = System.nanoTime();
+
+        Scan(PassClient client, PassClientSelector<T> selector, int prefetch, int pages) {
+            this.client = client;
+            this.selector = selector;
+            this.prefetch = prefetch;
+            this.pages = pages;
+
+            // Threads time out so an abandoned stream does not keep them around
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(prefetch, prefetch, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "pass-client-prefetch");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> fetch(int page) throws IOException {
+            PassClientSelector<T> page_selector = new PassClientSelector<>((Class<T>) selector.getType(),
+                    selector.getOffset() + page * selector.getLimit(), selector.getLimit(), selector.getFilter(),
+                    selector.getSorting(), selector.getInclude());
+            page_selector.setTotals(false);
+            List<T> objects = client.selectObjects(page_selector).getObjects();
+            fetched(1);
+            return objects;
+        }
+
+        void fetched(int count) {
+            if (fetched.addAndGet(count) == pages) {
+                double seconds = (System.nanoTime() - start) / 1e9;
+                LOG.info("Streamed {} pages of {} in {}s, {} pages/sec", pages,
+                        selector.getType().getSimpleName(), String.format("%.2f", seconds),
+                        String.format("%.1f", pages / seconds));
+                executor.shutdown();
+            }
+        }
+    }
+
+    private PassClientPageSpliterator(Scan<T> scan, List<T> current, Deque<Future<List<T>>> pending,
+                                      int nextPage, int endPage) {
+        this.scan = scan;
+        this.current = current;
+        this.pending = pending;
+        this.nextPage = nextPage;
+        this.endPage = endPage;
+    }
+
+    /**
+     * Return a stream of all objects matching the selector starting from the selector offset.
+     *
+     * @param <T> type of the object
+     * @param client used to select pages
+     * @param selector which objects to retrieve, its limit is the page size
+     * @param prefetch maximum number of pages fetched concurrently
+     * @return Stream of matching objects
+     * @throws IOException if the first page cannot be retrieved
+     */
+    static <T extends PassEntity> Stream<T> stream(PassClient client, PassClientSelector<T> selector,
+                                                     int prefetch) throws IOException {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be at least 1");
+        }
+
+        if (selector.isKeyset() || !selector.isTotals()) {
+            throw new IllegalArgumentException("Concurrent page stream requires offset paging with totals");
+        }
+
+        PassClientResult<T> first = client.selectObjects(selector);
+
+        if (first.getTotal() < 0) {
+            throw new IOException("Total number of matches required to stream pages concurrently");
+        }
+
+        long remaining = first.getTotal() - selector.getOffset();
+        int pages = (int) Math.max(1, (remaining + selector.getLimit() - 1) / selector.getLimit());
+
+        Scan<T> scan = new Scan<>(client, selector, prefetch, pages);
+        scan.fetched(1);
+
+        PassClientPageSpliterator<T> iter = new PassClientPageSpliterator<>(scan, first.getObjects(),
+                new ArrayDeque<>(), 1, pages);
+
+        return StreamSupport.stream(iter, false).onClose(scan.executor::shutdownNow);
+    }
+
+    // Keep up to prefetch pages in flight
+    private void fill() {
+        while (pending.size() < scan.prefetch && nextPage < endPage) {
+            int page = nextPage++;
+            pending.add(scan.executor.submit(() -> scan.fetch(page)));
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+        while (next == current.size()) {
+            fill();
+
+            if (pending.isEmpty()) {
+                return false;
+            }
+
+            try {
+                current = pending.poll().get();
+                next = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        consumer.accept(current.get(next++));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int unscheduled = endPage - nextPage;
+
+        if (unscheduled < 2) {
+            return null;
+        }
+
+        // The prefix takes the current page, the pages in flight, and half of the unscheduled pages
+        int mid = nextPage + unscheduled / 2;
+        PassClientPageSpliterator<T> prefix = new PassClientPageSpliterator<>(scan, current,
+                new ArrayDeque<>(pending), nextPage, mid);
+        prefix.next = next;
+
+        current = List.of();
+        next = 0;
+        pending.clear();
+        nextPage = mid;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return (current.size() - next) + (long) (pending.size() + endPage - nextPage) * scan.selector.getLimit();
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -22,6 +22,9 @@ import org.eclipse.pass.support.client.model.PassEntity;
  * See https://elide.io/pages/guide/v6/10-jsonapi.html for information on the
  * sort, filter, and include syntax.
  * A given number of matches in the total result list starting at the given offset are returned.
+ * With keyset paging the matches are instead sorted by id and a page starts after a given id. This avoids the
+ * database skipping over all the preceding matches and is preferred when visiting all matches of a large type.
+ * Counting the total number of matches may also be skipped.
  */
 public class PassClientSelector<T extends PassEntity> {
     private static final int DEFAULT_LIMIT = 500;
@@ -32,6 +35,9 @@ public class PassClientSelector<T extends PassEntity> {
     private String sorting;
     private String filter;
     private String[] include;
+    private boolean keyset;
+    private String after;
+    private boolean totals = true;
 
     /**
      * Match all objects of the given type.
@@ -144,4 +150,51 @@ public class PassClientSelector<T extends PassEntity> {
     public void setInclude(String... include) {
         this.include = include;
     }
+
+    /**
+     * @return whether matches are paged by id rather than by offset
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    /**
+     * When paging by id, matches are sorted by id and start after the id returned by {@link #getAfter()}.
+     * The offset and sorting are ignored.
+     *
+     * @param keyset whether matches are paged by id
+     */
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    /**
+     * @return id after which a keyset page starts or null to start at the first match
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * @param after id after which a keyset page starts, typically the last id of the previous page
+     */
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    /**
+     * @return whether the total number of matches is computed
+     */
+    public boolean isTotals() {
+        return totals;
+    }
+
+    /**
+     * Computing the total requires counting all matches on every page.
+     *
+     * @param totals whether the total number of matches is computed
+     */
+    public void setTotals(boolean totals) {
+        this.totals = totals;
+    }
 }
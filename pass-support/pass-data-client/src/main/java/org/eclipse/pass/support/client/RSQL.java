@@ -73,6 +73,15 @@ public class RSQL {
         return comparison(name, "<=", value);
     }
 
+    /**
+     * @param name Name of field
+     * @param value Value of field
+     * @return RSQL expression testing that object has a field gt value
+     */
+    public static String gt(String name, String value) {
+        return comparison(name, ">", value);
+    }
+
     /**
      * @param name Name of field
      * @param values Values of field
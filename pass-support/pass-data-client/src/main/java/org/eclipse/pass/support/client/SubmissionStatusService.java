@@ -1,7 +1,14 @@
 package org.eclipse.pass.support.client;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.eclipse.pass.support.client.model.Deposit;
@@ -78,23 +85,101 @@ public class SubmissionStatusService {
                 "No status could be calculated for the Submission as it does not have a `Submission.id`.");
         }
 
-        SubmissionStatus fromStatus = submission.getSubmissionStatus();
-        SubmissionStatus toStatus;
-
         if (!submission.getSubmitted()) {
             List<SubmissionEvent> submissionEvents = getRelationshipSubject(SubmissionEvent.class, "submission.id",
                     submission.getId());
 
+            return calculateSubmissionStatus(submission, submissionEvents, null, null);
+        }
+
+        List<Deposit> deposits = getRelationshipSubject(Deposit.class, "submission.id", submission.getId());
+        List<RepositoryCopy> repositoryCopies = getRelationshipSubject(RepositoryCopy.class,
+                "publication.id", submission.getPublication().getId());
+
+        return calculateSubmissionStatus(submission, null, deposits, repositoryCopies);
+    }
+
+    /**
+     * Calculates the appropriate {@link SubmissionStatus} for each of the {@link Submission}s provided, as
+     * {@link #calculateSubmissionStatus(Submission)} does. The related {@link Deposit}s, {@link RepositoryCopy}s
+     * and {@link SubmissionEvent}s of all the submissions are retrieved with one query per type rather than with
+     * queries for each submission.
+     * <p>
+     * A submission whose status cannot be calculated is logged and left out of the result.
+     * </p>
+     *
+     * @param submissions The submissions, which must have ids and relationships to their publication and
+     *                    repositories
+     * @return Calculated submission status by submission id
+     */
+    public Map<String, SubmissionStatus> calculateSubmissionStatuses(List<Submission> submissions) {
+        Set<String> submittedIds = new LinkedHashSet<>();
+        Set<String> unsubmittedIds = new LinkedHashSet<>();
+        Set<String> publicationIds = new LinkedHashSet<>();
+
+        for (Submission submission : submissions) {
+            if (submission.getId() == null) {
+                throw new IllegalArgumentException(
+                    "No status could be calculated for a Submission as it does not have a `Submission.id`.");
+            }
+
+            if (!submission.getSubmitted()) {
+                unsubmittedIds.add(submission.getId());
+            } else {
+                submittedIds.add(submission.getId());
+
+                if (submission.getPublication() != null) {
+                    publicationIds.add(submission.getPublication().getId());
+                }
+            }
+        }
+
+        Map<String, List<SubmissionEvent>> submissionEvents = getRelationshipSubjects(SubmissionEvent.class,
+                "submission.id", unsubmittedIds, SubmissionEvent::getSubmission);
+        Map<String, List<Deposit>> deposits = getRelationshipSubjects(Deposit.class, "submission.id",
+                submittedIds, Deposit::getSubmission);
+        Map<String, List<RepositoryCopy>> repositoryCopies = getRelationshipSubjects(RepositoryCopy.class,
+                "publication.id", publicationIds, RepositoryCopy::getPublication);
+
+        Map<String, SubmissionStatus> result = new HashMap<>();
+
+        for (Submission submission : submissions) {
+            String id = submission.getId();
+
+            try {
+                if (!submission.getSubmitted()) {
+                    result.put(id, calculateSubmissionStatus(submission,
+                            submissionEvents.getOrDefault(id, Collections.emptyList()), null, null));
+                } else {
+                    List<RepositoryCopy> copies = submission.getPublication() == null ? Collections.emptyList()
+                            : repositoryCopies.getOrDefault(submission.getPublication().getId(),
+                            Collections.emptyList());
+
+                    result.put(id, calculateSubmissionStatus(submission, null,
+                            deposits.getOrDefault(id, Collections.emptyList()), copies));
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to calculate the status of Submission {}: {}", id, e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    // Calculate the status from the related objects. Submission events are used for unsubmitted records and
+    // deposits and repository copies for submitted records.
+    private SubmissionStatus calculateSubmissionStatus(Submission submission, List<SubmissionEvent> submissionEvents,
+            List<Deposit> deposits, List<RepositoryCopy> repositoryCopies) {
+        SubmissionStatus fromStatus = submission.getSubmissionStatus();
+        SubmissionStatus toStatus;
+
+        if (!submission.getSubmitted()) {
             // Calculate the pre-submission status, defaulting to the existing status if one cannot be determined
             // from the submission events.
             toStatus = SubmissionStatusCalculator.calculatePreSubmissionStatus(submissionEvents,
                                                                                submission.getSubmissionStatus());
 
         } else {
-            List<Deposit> deposits = getRelationshipSubject(Deposit.class, "submission.id", submission.getId());
-            List<RepositoryCopy> repositoryCopies = getRelationshipSubject(RepositoryCopy.class,
-                    "publication.id", submission.getPublication().getId());
-
             toStatus = SubmissionStatusCalculator.calculatePostSubmissionStatus(submission.getRepositories()
                     .stream().map(Repository::getId).collect(Collectors.toList()), deposits,
                     repositoryCopies);
@@ -128,6 +213,26 @@ public class SubmissionStatusService {
         }
     }
 
+    // Retrieve the objects of a type whose relationship matches any of the target ids, grouped by target id
+    <T extends PassEntity> Map<String, List<T>> getRelationshipSubjects(Class<T> type, String predicate,
+            Collection<String> targetIds, Function<T, PassEntity> target) {
+        if (targetIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        PassClientSelector<T> sel = new PassClientSelector<>(type);
+        sel.setFilter(RSQL.in(predicate, targetIds.toArray(String[]::new)));
+
+        try {
+            return client.streamObjects(sel).filter(o -> target.apply(o) != null)
+                    .collect(Collectors.groupingBy(o -> target.apply(o).getId()));
+        } catch (IOException e) {
+            String msg = String.format("Failed to retrieve objects with %d targets and predicate %s. "
+                    + "The following explaination was provided: %s", targetIds.size(), predicate, e.getMessage());
+            throw new RuntimeException(msg);
+        }
+    }
+
     /**
      * Calculates the appropriate {@link SubmissionStatus} for the {@code Submission.id} provided.
      * <p>
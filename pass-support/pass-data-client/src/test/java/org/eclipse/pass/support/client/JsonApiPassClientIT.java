@@ -3,6 +3,7 @@ package org.eclipse.pass.support.client;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -171,7 +172,7 @@ public class JsonApiPassClientIT {
         client.updateObject(updateSubmission1);
 
         // WHEN/THEN
-        IOException ioException = assertThrows(IOException.class, () -> {
+        IOException ioException = assertThrows(OptimisticLockException.class, () -> {
             updateSubmission2.setSubmitterName("Anothernewname");
             client.updateObject(updateSubmission2);
         });
@@ -200,7 +201,7 @@ public class JsonApiPassClientIT {
         client.updateObject(updateDeposit1);
 
         // WHEN/THEN
-        IOException ioException = assertThrows(IOException.class, () -> {
+        IOException ioException = assertThrows(OptimisticLockException.class, () -> {
             updateDeposit2.setDepositStatus(DepositStatus.ACCEPTED);
             client.updateObject(updateDeposit2);
         });
@@ -337,12 +338,97 @@ public class JsonApiPassClientIT {
         pubs.forEach(p -> p.setJournal(new Journal(journal.getId())));
         assertIterableEquals(pubs, client.streamObjects(selector).collect(Collectors.toList()));
 
+        // Test a stream paging by id without totals
+        selector = new PassClientSelector<>(Publication.class, 0, 3, filter, null);
+        selector.setKeyset(true);
+        selector.setTotals(false);
+        assertIterableEquals(pubs, client.streamObjects(selector).collect(Collectors.toList()));
+
+        // Test selecting a keyset page
+        selector = new PassClientSelector<>(Publication.class, 0, 3, filter, null);
+        selector.setKeyset(true);
+        selector.setAfter(pubs.get(4).getId());
+        result = client.selectObjects(selector);
+
+        assertEquals(pubs.size() - 5, result.getTotal());
+        assertIterableEquals(pubs.subList(5, 8), result.getObjects());
+
+        // Test that a top level OR in the filter does not bypass the keyset page condition
+        String or_filter = filter + "," + RSQL.equals("pmid", "" + UUID.randomUUID());
+        selector = new PassClientSelector<>(Publication.class, 0, 3, or_filter, null);
+        selector.setKeyset(true);
+        selector.setAfter(pubs.get(4).getId());
+        assertIterableEquals(pubs.subList(5, 8), client.selectObjects(selector).getObjects());
+
+        selector = new PassClientSelector<>(Publication.class, 0, 3, or_filter, null);
+        selector.setKeyset(true);
+        selector.setTotals(false);
+        assertIterableEquals(pubs, client.streamObjects(selector).limit(pubs.size() + 1)
+            .collect(Collectors.toList()));
+
         // Test searching on a relationship. Do not include journal.
         filter = RSQL.equals("journal.id", journal.getId());
         selector = new PassClientSelector<>(Publication.class, 0, 100, filter, "id");
         assertIterableEquals(pubs, client.streamObjects(selector).collect(Collectors.toList()));
     }
 
+    @Test
+    public void testExecuteBatch() throws IOException {
+        String pmid = "" + UUID.randomUUID();
+
+        Journal journal = new Journal();
+        journal.setJournalName("Batch journal");
+
+        Journal old_journal = new Journal();
+        old_journal.setJournalName("Old batch journal");
+        client.createObject(old_journal);
+
+        PassClientBatch batch = new PassClientBatch();
+        batch.createObject(journal);
+
+        List<Publication> pubs = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Publication pub = new Publication();
+            pub.setTitle("Batch title: " + i);
+            pub.setPmid(pmid);
+            pub.setJournal(journal);
+
+            batch.createObject(pub);
+            pubs.add(pub);
+        }
+
+        old_journal.setIssns(List.of("Print:1234-5678"));
+        batch.updateObject(old_journal);
+
+        client.executeBatch(batch);
+
+        batch.getItems().forEach(item -> assertNull(item.getError()));
+        assertNotNull(journal.getId());
+        pubs.forEach(p -> assertNotNull(p.getId()));
+
+        PassClientSelector<Publication> selector = new PassClientSelector<>(Publication.class, 0, 100,
+                RSQL.equals("pmid", pmid), "id");
+        List<Publication> test = client.selectObjects(selector).getObjects();
+
+        assertEquals(pubs.size(), test.size());
+        test.forEach(p -> assertEquals(journal.getId(), p.getJournal().getId()));
+        assertEquals(old_journal.getIssns(), client.getObject(old_journal).getIssns());
+
+        // A failed operation fails the whole batch
+        Publication pub = new Publication();
+        pub.setPmid(pmid);
+
+        PassClientBatch failing = new PassClientBatch();
+        failing.createObject(pub);
+        failing.deleteObject(new Journal("10000000"));
+
+        assertThrows(IOException.class, () -> client.executeBatch(failing));
+        assertNull(pub.getId());
+        assertNotNull(failing.getItems().get(1).getError());
+        assertEquals(pubs.size(), client.selectObjects(selector).getObjects().size());
+    }
+
     @Test
     public void testSelectUserObjects_Success_HasMember() throws IOException {
         User pi = new User();
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.squareup.moshi.JsonReader;
+import okio.Buffer;
+import org.eclipse.pass.support.client.model.Grant;
+import org.eclipse.pass.support.client.model.Publication;
+import org.eclipse.pass.support.client.model.Repository;
+import org.eclipse.pass.support.client.model.Submission;
+import org.eclipse.pass.support.client.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JsonApiRelationshipsTest {
+    private static final Logger LOG = LoggerFactory.getLogger(JsonApiRelationshipsTest.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    // Page of submissions where the publications of even submissions are included
+    private static String submission_page(int size) {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"type\":\"submission\",\"id\":\"").append(i).append("\",");
+            json.append("\"attributes\":{\"submitterName\":\"Name ").append(i)
+                    .append("\",\"metadata\":\"{\\\"title\\\":\\\"A title\\\"}\",\"submitted\":true,\"version\":3},");
+            json.append("\"relationships\":{");
+            json.append("\"publication\":{\"data\":{\"type\":\"publication\",\"id\":\"p").append(i).append("\"}},");
+            json.append("\"submitter\":{\"data\":{\"type\":\"user\",\"id\":\"u").append(i).append("\"}},");
+            json.append("\"repositories\":{\"data\":[{\"type\":\"repository\",\"id\":\"r1\"},")
+                    .append("{\"type\":\"repository\",\"id\":\"r2\"},{\"type\":\"repository\",\"id\":\"r3\"}]},");
+            json.append("\"grants\":{\"links\":{\"self\":\"http://example.com\"},")
+                    .append("\"data\":[{\"type\":\"grant\",\"id\":\"g").append(i).append("\"}]},");
+            json.append("\"preparers\":{\"data\":[]},");
+            json.append("\"effectivePolicies\":{\"data\":null}}}");
+        }
+
+        json.append("],\"included\":[");
+
+        for (int i = 0; i < size; i += 2) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append("{\"type\":\"publication\",\"id\":\"p").append(i)
+                    .append("\",\"attributes\":{\"title\":\"Title\"},\"relationships\":{\"journal\":{\"data\":")
+                    .append("{\"type\":\"journal\",\"id\":\"j1\"}}}}");
+        }
+
+        json.append("],\"meta\":{\"page\":{\"totalRecords\":").append(size).append("}}}");
+
+        return json.toString();
+    }
+
+    private static List<Submission> submissions(int size) {
+        List<Submission> result = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            result.add(new Submission("" + i));
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testSetRelationships() throws IOException {
+        List<Submission> subs = submissions(10);
+        JsonApiRelationships rels = JsonApiRelationships.read(new Buffer().writeUtf8(submission_page(10)));
+
+        subs.forEach(rels::set);
+
+        for (int i = 0; i < subs.size(); i++) {
+            Submission sub = subs.get(i);
+
+            // Included targets are left to the document adapter
+            if (i % 2 == 0) {
+                assertNull(sub.getPublication());
+            } else {
+                assertEquals(new Publication("p" + i), sub.getPublication());
+            }
+
+            assertEquals(new User("u" + i), sub.getSubmitter());
+            assertEquals(List.of("r1", "r2", "r3"),
+                    sub.getRepositories().stream().map(Repository::getId).collect(Collectors.toList()));
+            assertEquals(List.of(new Grant("g" + i)), sub.getGrants());
+            assertTrue(sub.getPreparers().isEmpty());
+            assertTrue(sub.getEffectivePolicies().isEmpty());
+        }
+    }
+
+    @Test
+    public void testObjectWithoutRelationships() throws IOException {
+        Submission sub = new Submission("sub");
+
+        JsonApiRelationships.read(new Buffer().writeUtf8(
+                "{\"data\":{\"type\":\"submission\",\"id\":\"sub\",\"attributes\":{\"source\":\"pass\"}}}")).set(sub);
+
+        assertNull(sub.getPublication());
+        assertNull(sub.getSubmitter());
+    }
+
+    @Test
+    public void testGetNullRelationships() {
+        Submission sub = new Submission("sub");
+        sub.setSubmitter(new User("u"));
+
+        List<String> rels = JsonApiRelationships.get_null_relationships(sub);
+
+        assertEquals(List.of("publication"), rels);
+    }
+
+    /**
+     * Measure the second pass which decodes the relationships of a page of submissions, compared to a single full
+     * parse of the same page. The number of iterations can be set with the system property
+     * pass.client.bench.iterations.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkSubmissionPage() throws IOException {
+        int iterations = Integer.getInteger("pass.client.bench.iterations", 200);
+        Buffer page = new Buffer().writeUtf8(submission_page(PAGE_SIZE));
+
+        // Warm up both passes before timing them
+        double relationships_ms = 0;
+        double parse_ms = 0;
+
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < iterations; i++) {
+                List<Submission> subs = submissions(PAGE_SIZE);
+                JsonApiRelationships rels = JsonApiRelationships.read(page.clone());
+                subs.forEach(rels::set);
+
+                assertEquals(new User("u7"), subs.get(7).getSubmitter());
+            }
+
+            relationships_ms = (System.nanoTime() - start) / 1e6 / iterations;
+            start = System.nanoTime();
+
+            for (int i = 0; i < iterations; i++) {
+                try (JsonReader reader = JsonReader.of(page.clone())) {
+                    assertTrue(reader.readJsonValue() instanceof Map);
+                }
+            }
+
+            parse_ms = (System.nanoTime() - start) / 1e6 / iterations;
+        }
+
+        LOG.info("Page of {} submissions: relationships pass {}ms, full parse {}ms, relationships pass is {}% of a "
+                + "full parse", PAGE_SIZE, String.format("%.2f", relationships_ms), String.format("%.2f", parse_ms),
+                String.format("%.0f", 100 * relationships_ms / parse_ms));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.pass.support.client.model.Grant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PassClientPageSpliteratorTest {
+    private static final int TOTAL = 103;
+
+    @Mock
+    private PassClient client;
+
+    private List<Grant> grants;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        grants = IntStream.range(0, TOTAL).mapToObj(i -> new Grant("" + i)).collect(Collectors.toList());
+
+        lenient().when(client.selectObjects(any())).thenAnswer(invocation -> {
+            PassClientSelector<?> sel = invocation.getArgument(0);
+            int from = Math.min(sel.getOffset(), TOTAL);
+            int to = Math.min(sel.getOffset() + sel.getLimit(), TOTAL);
+
+            return new PassClientResult<>(new ArrayList<>(grants.subList(from, to)), TOTAL);
+        });
+    }
+
+    @Test
+    public void testSequentialStreamIsOrdered() throws IOException {
+        PassClientSelector<Grant> sel = new PassClientSelector<>(Grant.class, 0, 10, "filter", "id");
+        sel.setInclude("pi");
+
+        List<Grant> result = PassClientPageSpliterator.stream(client, sel, 4).collect(Collectors.toList());
+
+        assertIterableEquals(grants, result);
+
+        // Every page selected once, all with the include of the selector
+        ArgumentCaptor<PassClientSelector<Grant>> captor = ArgumentCaptor.forClass(PassClientSelector.class);
+        verify(client, times(11)).selectObjects(captor.capture());
+        captor.getAllValues().forEach(s -> {
+            assertArrayEquals(new String[] {"pi"}, s.getInclude());
+            assertEquals("filter", s.getFilter());
+        });
+    }
+
+    @Test
+    public void testParallelStream() throws IOException {
+        PassClientSelector<Grant> sel = new PassClientSelector<>(Grant.class, 0, 5, null, "id");
+
+        List<Grant> result = PassClientPageSpliterator.stream(client, sel, 3).parallel()
+                .collect(Collectors.toList());
+
+        assertIterableEquals(grants, result);
+        verify(client, times(21)).selectObjects(any());
+    }
+
+    @Test
+    public void testStreamFromOffset() throws IOException {
+        PassClientSelector<Grant> sel = new PassClientSelector<>(Grant.class, 95, 5, null, "id");
+
+        List<Grant> result = PassClientPageSpliterator.stream(client, sel, 2).collect(Collectors.toList());
+
+        assertIterableEquals(grants.subList(95, TOTAL), result);
+    }
+
+    @Test
+    public void testPageFailure() throws IOException {
+        doAnswer(invocation -> {
+            PassClientSelector<?> sel = invocation.getArgument(0);
+
+            if (sel.getOffset() > 0) {
+                throw new IOException("boom");
+            }
+
+            return new PassClientResult<>(new ArrayList<>(grants.subList(0, 10)), TOTAL);
+        }).when(client).selectObjects(any());
+
+        PassClientSelector<Grant> sel = new PassClientSelector<>(Grant.class, 0, 10, null, "id");
+
+        assertThrows(RuntimeException.class,
+            () -> PassClientPageSpliterator.stream(client, sel, 2).collect(Collectors.toList()));
+    }
+}
@@ -1,10 +1,14 @@
 package org.eclipse.pass.support.client;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.eclipse.pass.support.client.model.CopyStatus;
@@ -19,6 +23,7 @@ import org.eclipse.pass.support.client.model.SubmissionEvent;
 import org.eclipse.pass.support.client.model.SubmissionStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -119,4 +124,55 @@ public class SubmissionStatusServiceTest {
         SubmissionStatus newStatus = service.calculateSubmissionStatus(submission);
         assertEquals(SubmissionStatus.CHANGES_REQUESTED, newStatus);
     }
+
+    /**
+     * Ensure that the related objects of a batch of submitted Submissions are retrieved with one query per type
+     * and matched up with their Submission.
+     *
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCalcSubmissionStatusesBatch() throws Exception {
+        Repository repo1 = new Repository("repo1");
+
+        Publication pub1 = new Publication("publication:1");
+        Publication pub2 = new Publication("publication:2");
+
+        Submission sub1 = new Submission("submission:1");
+        sub1.setRepositories(List.of(repo1));
+        sub1.setPublication(pub1);
+        sub1.setSubmitted(true);
+        sub1.setSubmissionStatus(SubmissionStatus.SUBMITTED);
+
+        Submission sub2 = new Submission("submission:2");
+        sub2.setRepositories(List.of(repo1));
+        sub2.setPublication(pub2);
+        sub2.setSubmitted(true);
+        sub2.setSubmissionStatus(SubmissionStatus.SUBMITTED);
+
+        Deposit dep1 = new Deposit("dep1");
+        dep1.setSubmission(new Submission(sub1.getId()));
+        dep1.setRepository(repo1);
+        dep1.setDepositStatus(DepositStatus.ACCEPTED);
+
+        RepositoryCopy rc1 = new RepositoryCopy("rc1");
+        rc1.setPublication(new Publication(pub1.getId()));
+        rc1.setRepository(repo1);
+        rc1.setCopyStatus(CopyStatus.COMPLETE);
+
+        service = new SubmissionStatusService(client);
+
+        when(client.streamObjects(Mockito.any())).thenReturn(Stream.of(dep1)).thenReturn(Stream.of(rc1));
+
+        Map<String, SubmissionStatus> statuses = service.calculateSubmissionStatuses(List.of(sub1, sub2));
+
+        assertEquals(SubmissionStatus.COMPLETE, statuses.get(sub1.getId()));
+        assertEquals(SubmissionStatus.SUBMITTED, statuses.get(sub2.getId()));
+
+        ArgumentCaptor<PassClientSelector<?>> sel = ArgumentCaptor.forClass(PassClientSelector.class);
+        verify(client, times(2)).streamObjects(sel.capture());
+        assertEquals("submission.id=in=('submission:1','submission:2')", sel.getAllValues().get(0).getFilter());
+        assertEquals("publication.id=in=('publication:1','publication:2')", sel.getAllValues().get(1).getFilter());
+    }
 }
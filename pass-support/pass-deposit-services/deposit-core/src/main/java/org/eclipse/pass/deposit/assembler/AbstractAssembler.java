@@ -32,6 +32,7 @@ import org.eclipse.pass.deposit.model.DepositSubmission;
 import org.eclipse.pass.support.client.PassClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -70,6 +71,11 @@ public abstract class AbstractAssembler implements Assembler {
 
     protected final PassClient passClient;
 
+    /**
+     * Writes the package streams created by this assembler, may be {@code null}
+     */
+    protected ExceptionHandlingThreadPoolExecutor assemblerExecutor;
+
     /**
      * Constructs a new assembler that provides {@link MetadataBuilderFactory} and {@link ResourceBuilderFactory} for
      * implementations to create and amend the state of package metadata and resources.
@@ -83,6 +89,17 @@ public abstract class AbstractAssembler implements Assembler {
         this.passClient = passClient;
     }
 
+    /**
+     * Sets the executor shared by assemblers for writing package streams.  If not set, a default executor shared by
+     * the JVM is used.
+     *
+     * @param assemblerExecutor the executor writing package streams
+     */
+    @Autowired(required = false)
+    public void setAssemblerExecutor(ExceptionHandlingThreadPoolExecutor assemblerExecutor) {
+        this.assemblerExecutor = assemblerExecutor;
+    }
+
     /**
      * This abstract implementation will resolve the custodial content of the package as a {@code List} of
      * {@link DepositFileResource}s, then invoke
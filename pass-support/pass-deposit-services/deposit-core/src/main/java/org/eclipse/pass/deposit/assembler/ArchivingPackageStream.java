@@ -25,8 +25,7 @@ import java.io.PipedOutputStream;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
@@ -50,6 +49,10 @@ import org.slf4j.LoggerFactory;
  * {@link ResourceBuilder} interfaces for adding metadata describing the stream and resources within the stream
  * ({@code ResourceBuilder} instances are obtained from the {@code ResourceBuilderFactory} supplied on construction).
  * </p>
+ * <p>
+ * Packages are written by an executor shared by all {@code ArchivingPackageStream}s, which bounds the number of
+ * packages written at once.  Exceptions thrown while writing a package are reported to the reader of that package.
+ * </p>
  */
 public class ArchivingPackageStream implements PackageStream {
 
@@ -59,7 +62,15 @@ public class ArchivingPackageStream implements PackageStream {
 
     private static final Logger LOG = LoggerFactory.getLogger(ArchivingPackageStream.class);
 
-    private static final int ONE_MIB = 2 ^ 20;
+    /**
+     * Package option for the capacity in bytes of the pipe connecting the writer of the package to the reader
+     */
+    public static final String PIPE_SIZE = "pipe-size";
+
+    /**
+     * Capacity of the pipe used when the {@link #PIPE_SIZE} option is not supplied
+     */
+    public static final int DEFAULT_PIPE_SIZE = 1024 * 1024;
 
     /**
      * The custodial content to be packaged and streamed.
@@ -79,19 +90,37 @@ public class ArchivingPackageStream implements PackageStream {
 
     private final ArchiveOutputStreamFactory archiveOutputStreamFactory;
 
+    private final int pipeSize;
+
+    /**
+     * Executor used when one is not supplied on construction, i.e. outside of a Spring context
+     */
+    private static class DefaultExecutorHolder {
+        private static final ExceptionHandlingThreadPoolExecutor EXECUTOR =
+            ExceptionHandlingThreadPoolExecutor.newAssemblerExecutor(getRuntime().availableProcessors(), 16, 300);
+    }
+
     public ArchivingPackageStream(DepositSubmission submission,
                                   List<DepositFileResource> custodialContent,
                                   MetadataBuilder metadataBuilder,
                                   ResourceBuilderFactory rbf,
                                   Map<String, Object> packageOptions,
                                   PackageProvider packageProvider) {
+        this(submission, custodialContent, metadataBuilder, rbf, packageOptions, packageProvider, null);
+    }
+
+    public ArchivingPackageStream(DepositSubmission submission,
+                                  List<DepositFileResource> custodialContent,
+                                  MetadataBuilder metadataBuilder,
+                                  ResourceBuilderFactory rbf,
+                                  Map<String, Object> packageOptions,
+                                  PackageProvider packageProvider,
+                                  ExceptionHandlingThreadPoolExecutor executorService) {
         this.custodialContent = custodialContent;
         this.metadataBuilder = metadataBuilder;
         this.packageOptions = packageOptions;
-        this.executorService = new ExceptionHandlingThreadPoolExecutor(
-            getRuntime().availableProcessors(),
-            getRuntime().availableProcessors() * 2, 1,
-            TimeUnit.MINUTES, new ArrayBlockingQueue<>(10));
+        this.pipeSize = pipeSize(packageOptions);
+        this.executorService = executorService != null ? executorService : DefaultExecutorHolder.EXECUTOR;
         this.streamWriter = new DefaultStreamWriterImpl(submission, custodialContent, rbf, packageOptions,
                                                         packageProvider);
         if (STREAMING_IO_LOG.isDebugEnabled()) {
@@ -120,7 +149,7 @@ public class ArchivingPackageStream implements PackageStream {
         // Create a pipe: bytes written to the PipedOutputStream will be the source of bytes read from the
         // PipedInputStream.  As the caller reads bytes from the PipedInputStream, bytes will be read from the
         // PipedOutputStream.
-        ExHandingPipedInputStream pipedIn = new ExHandingPipedInputStream(ONE_MIB);
+        ExHandingPipedInputStream pipedIn = new ExHandingPipedInputStream(pipeSize);
 
         PipedOutputStream pipedOut;
         try {
@@ -172,15 +201,49 @@ public class ArchivingPackageStream implements PackageStream {
             }
         };
 
-        executorService.setExceptionHandler(exceptionHandler);
-
-        // invoke call() from another thread
+        // invoke call() from another thread, routing any exception to this stream
         CallableStreamWriter<?> callableSw = new CallableStreamWriter<>(streamWriter, archiveOut, custodialContent);
-        executorService.submit(callableSw);
+        try {
+            executorService.submit(callableSw, exceptionHandler);
+        } catch (RejectedExecutionException e) {
+            exceptionHandler.accept(callableSw, e);
+            throw e;
+        }
+
+        STREAMING_IO_LOG.debug("{} submitted for writing, {} packages being written and {} waiting", this,
+                               executorService.getActiveCount(), executorService.getQueueDepth());
 
         return pipedIn;
     }
 
+    /**
+     * The capacity of the pipe may be supplied as a number or a string, i.e. from the options of an assembler in the
+     * repository configuration.
+     *
+     * @param packageOptions the package options
+     * @return the capacity of the pipe in bytes
+     */
+    static int pipeSize(Map<String, Object> packageOptions) {
+        Object value = packageOptions == null ? null : packageOptions.get(PIPE_SIZE);
+
+        if (value == null) {
+            return DEFAULT_PIPE_SIZE;
+        }
+
+        int size;
+        try {
+            size = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid package option " + PIPE_SIZE + ": " + value, e);
+        }
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Package option " + PIPE_SIZE + " must be positive: " + value);
+        }
+
+        return size;
+    }
+
     @Override
     public PackageStream.Metadata metadata() {
         return metadataBuilder.build();
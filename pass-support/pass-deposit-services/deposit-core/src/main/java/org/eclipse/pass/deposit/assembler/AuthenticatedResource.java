@@ -77,6 +77,15 @@ public class AuthenticatedResource extends UrlResource {
     @Override
     protected void customizeConnection(HttpURLConnection con) throws IOException {
         LOG.trace("Customizing {}@{}", con.getClass().getName(), toHexString(identityHashCode(con)));
+        authenticate(con);
+    }
+
+    /**
+     * Supplies the Basic authentication credentials to a connection opened to the URL of this resource.
+     *
+     * @param con the connection
+     */
+    public void authenticate(URLConnection con) {
         byte[] bytes = String.format("%s:%s", username, password).getBytes();
         con.setRequestProperty("Authorization", "Basic " + getEncoder().encodeToString(bytes));
     }
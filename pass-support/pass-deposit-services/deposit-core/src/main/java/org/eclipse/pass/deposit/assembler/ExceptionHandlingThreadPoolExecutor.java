@@ -15,23 +15,44 @@
  */
 package org.eclipse.pass.deposit.assembler;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
+ * A {@code ThreadPoolExecutor} which reports exceptions thrown by its tasks to an exception handler.  A handler may be
+ * supplied for the executor as a whole, or for an individual task when it is {@link #submit(Callable, BiConsumer)
+ * submitted}, which allows a single executor to be shared by many {@link ArchivingPackageStream}s.
+ * <p>
+ * Executors created by {@link #newAssemblerExecutor(int, int, long)} apply backpressure: when every thread is busy
+ * and the queue is full, submitting a task blocks the caller until there is room in the queue.
+ * </p>
+ *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
 public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ExceptionHandlingThreadPoolExecutor.class);
+
     private BiConsumer<Runnable, Throwable> exceptionHandler;
 
+    private final LongAdder blockedSubmissions = new LongAdder();
+
     public ExceptionHandlingThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
                                                BlockingQueue<Runnable> workQueue) {
         super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
@@ -63,6 +84,62 @@ public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
         this.exceptionHandler = exceptionHandler;
     }
 
+    /**
+     * Creates an executor for writing package streams.  Threads are created on demand up to {@code threads}, and
+     * exit when idle.  When all threads are busy, up to {@code queueSize} tasks wait in the queue, after which
+     * submitting a task blocks for up to {@code submitTimeoutSecs}.
+     *
+     * @param threads the maximum number of packages written at once
+     * @param queueSize the maximum number of packages waiting to be written
+     * @param submitTimeoutSecs how long a submission may wait for room in the queue before it is rejected
+     * @return the executor
+     */
+    public static ExceptionHandlingThreadPoolExecutor newAssemblerExecutor(int threads, int queueSize,
+                                                                           long submitTimeoutSecs) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread t = new Thread(runnable, "pass-assembler-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+
+        BlockingRejectionHandler blockingHandler = new BlockingRejectionHandler(submitTimeoutSecs);
+        ExceptionHandlingThreadPoolExecutor executor = new ExceptionHandlingThreadPoolExecutor(threads, threads, 1,
+            TimeUnit.MINUTES, new ArrayBlockingQueue<>(queueSize), threadFactory, blockingHandler);
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * Submit a task whose exceptions are reported to {@code exceptionHandler} instead of the exception handler of
+     * this executor.
+     *
+     * @param task the task
+     * @param exceptionHandler receives the task and the exception it threw
+     * @param <V> the type returned by the task
+     * @return the future result of the task
+     */
+    public <V> Future<V> submit(Callable<V> task, BiConsumer<Runnable, Throwable> exceptionHandler) {
+        HandledFutureTask<V> future = new HandledFutureTask<>(task, exceptionHandler);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return the number of submissions which were blocked because the queue was full
+     */
+    public long getBlockedSubmissions() {
+        return blockedSubmissions.sum();
+    }
+
     @Override
     protected void afterExecute(Runnable runnable, Throwable throwable) {
         super.afterExecute(runnable, throwable);
@@ -84,8 +161,58 @@ public class ExceptionHandlingThreadPoolExecutor extends ThreadPoolExecutor {
 
         // Only invoke the exception handler if the Throwable is present, otherwise the stream closing logic supplied
         // by ArchivingPackageStream is executed erroneously.
-        if (exceptionHandler != null && throwable != null) {
-            exceptionHandler.accept(runnable, throwable);
+        BiConsumer<Runnable, Throwable> handler = runnable instanceof HandledFutureTask<?> ?
+                                                  ((HandledFutureTask<?>) runnable).exceptionHandler :
+                                                  exceptionHandler;
+
+        if (handler != null && throwable != null) {
+            handler.accept(runnable, throwable);
+        }
+    }
+
+    private static class HandledFutureTask<V> extends FutureTask<V> {
+
+        private final BiConsumer<Runnable, Throwable> exceptionHandler;
+
+        HandledFutureTask(Callable<V> callable, BiConsumer<Runnable, Throwable> exceptionHandler) {
+            super(callable);
+            this.exceptionHandler = exceptionHandler;
+        }
+    }
+
+    /**
+     * Blocks the submitting thread until the task fits in the queue.
+     */
+    private static class BlockingRejectionHandler implements RejectedExecutionHandler {
+
+        private final long timeoutSecs;
+
+        BlockingRejectionHandler(long timeoutSecs) {
+            this.timeoutSecs = timeoutSecs;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+
+            if (executor instanceof ExceptionHandlingThreadPoolExecutor) {
+                ((ExceptionHandlingThreadPoolExecutor) executor).blockedSubmissions.increment();
+            }
+
+            LOG.warn("All {} package assembly threads are busy and {} packages are waiting, blocking until there is " +
+                     "room", executor.getActiveCount(), executor.getQueue().size());
+
+            try {
+                if (!executor.getQueue().offer(runnable, timeoutSecs, TimeUnit.SECONDS)) {
+                    throw new RejectedExecutionException(
+                        "Timed out after " + timeoutSecs + "s waiting to queue package assembly");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted waiting to queue package assembly", e);
+            }
         }
     }
 }
@@ -18,8 +18,6 @@ package org.eclipse.pass.deposit.config.spring;
 import java.net.URI;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -30,7 +28,10 @@ import org.eclipse.pass.deposit.DepositServiceErrorHandler;
 import org.eclipse.pass.deposit.assembler.Assembler;
 import org.eclipse.pass.deposit.assembler.ExceptionHandlingThreadPoolExecutor;
 import org.eclipse.pass.deposit.config.repository.Repositories;
+import org.eclipse.pass.deposit.cri.CriticalLockProvider;
 import org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction;
+import org.eclipse.pass.deposit.cri.PostgresCriticalLockProvider;
+import org.eclipse.pass.deposit.cri.StripedCriticalLockProvider;
 import org.eclipse.pass.deposit.model.InMemoryMapRegistry;
 import org.eclipse.pass.deposit.model.Packager;
 import org.eclipse.pass.deposit.model.Registry;
@@ -45,6 +46,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -220,8 +222,33 @@ public class DepositConfig {
     }
 
     @Bean
-    ExceptionHandlingThreadPoolExecutor executorService() {
-        return new ExceptionHandlingThreadPoolExecutor(1, 2, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10));
+    @ConditionalOnProperty(name = "pass.deposit.critical.lock.provider", havingValue = "jvm", matchIfMissing = true)
+    CriticalLockProvider stripedCriticalLockProvider(
+        @Value("${pass.deposit.critical.lock.jvm.stripes:256}") int stripes) {
+        return new StripedCriticalLockProvider(stripes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pass.deposit.critical.lock.provider", havingValue = "postgres")
+    CriticalLockProvider postgresCriticalLockProvider(
+        @Value("${pass.deposit.critical.lock.postgres.url}") String url,
+        @Value("${pass.deposit.critical.lock.postgres.user}") String user,
+        @Value("${pass.deposit.critical.lock.postgres.password}") String password,
+        @Value("${pass.deposit.critical.lock.postgres.pool-size:8}") int poolSize,
+        @Value("${pass.deposit.critical.lock.postgres.timeout-secs:60}") int timeoutSecs,
+        @Value("${pass.deposit.critical.lock.postgres.lease-ms:300000}") long leaseMs) {
+        LOG.info("Using Postgres advisory locks for critical paths: {}", url);
+        return new PostgresCriticalLockProvider(url, user, password, poolSize, timeoutSecs, leaseMs);
+    }
+
+    @Bean
+    ExceptionHandlingThreadPoolExecutor assemblerExecutor(
+        @Value("${pass.deposit.assembler.threads:0}") int threads,
+        @Value("${pass.deposit.assembler.queue-size:16}") int queueSize,
+        @Value("${pass.deposit.assembler.submit-timeout-secs:300}") long submitTimeoutSecs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        LOG.info("Writing at most {} packages at once, with {} waiting", poolSize, queueSize);
+        return ExceptionHandlingThreadPoolExecutor.newAssemblerExecutor(poolSize, queueSize, submitTimeoutSecs);
     }
 
 }
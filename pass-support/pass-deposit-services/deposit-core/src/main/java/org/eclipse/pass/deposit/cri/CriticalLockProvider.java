@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.cri;
+
+import java.io.IOException;
+
+/**
+ * Provides exclusive locks over the resources modified by {@link CriticalPath}. A lock is identified by a key, and
+ * at most one holder of a key may be inside a critical section at a time. Depending on the implementation, the
+ * guarantee holds within a single JVM or across every Deposit Services instance sharing the same lock store.
+ */
+public interface CriticalLockProvider {
+
+    /**
+     * Block until the lock identified by {@code key} is held by the caller.
+     *
+     * @param key identifies the lock
+     * @return the held lock, which must be closed to release it
+     * @throws IOException if the lock cannot be obtained
+     */
+    CriticalLock lock(String key) throws IOException;
+
+    /**
+     * A held lock, released by {@link #close()}.
+     */
+    interface CriticalLock extends AutoCloseable {
+
+        /**
+         * @return {@code true} if the lock was held by someone else when it was requested
+         */
+        boolean isContended();
+
+        /**
+         * Release the lock.
+         */
+        @Override
+        void close();
+    }
+}
@@ -18,14 +18,21 @@
 
 package org.eclipse.pass.deposit.cri;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import org.eclipse.pass.support.client.OptimisticLockException;
 import org.eclipse.pass.support.client.PassClient;
 import org.eclipse.pass.support.client.model.PassEntity;
+import org.eclipse.pass.support.client.model.PassVersionedEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -37,6 +44,18 @@ import org.springframework.stereotype.Component;
  * will be persisted in the repository.  Likewise, if the critical method does <em>not</em> modify resource state, it
  * will <em>not</em> attempt to persist the resource (since there are no changes to persist).
  * </p>
+ * <p>
+ * Mutual exclusion is provided by a {@link CriticalLockProvider}. The time spent waiting for locks and the number of
+ * contended acquisitions are recorded, and are available from the getters of this class.
+ * </p>
+ * <p>
+ * When optimistic mode is enabled, resources which are {@link PassVersionedEntity versioned} are not locked by
+ * interactions whose {@code critical} function is an {@link IdempotentFunction}. Instead the update is rejected by the
+ * repository if the resource was modified after it was read, and the whole interaction, including the {@code critical}
+ * function, is retried with backoff against a fresh copy of the resource. The version returned by the update is set on
+ * the resource, so it is not read again before the post-condition is applied. Other {@code critical} functions may
+ * have side effects, such as sending a package, which must not be repeated, so their interactions are always locked.
+ * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
@@ -46,15 +65,66 @@ public class CriticalPath implements CriticalRepositoryInteraction {
 
     private final PassClient passClient;
 
+    private final CriticalLockProvider lockProvider;
+
+    private final LongAdder lockAcquisitions = new LongAdder();
+
+    private final LongAdder lockContentions = new LongAdder();
+
+    private final LongAdder lockWaitNanos = new LongAdder();
+
+    private final LongAdder optimisticConflicts = new LongAdder();
+
+    private final boolean optimistic;
+
+    private final int optimisticMaxAttempts;
+
+    private final long optimisticBackoffMs;
+
+    /**
+     * Critical paths are only excluded from each other within this JVM.
+     *
+     * @param passClient the PASS client
+     */
     public CriticalPath(PassClient passClient) {
+        this(passClient, new StripedCriticalLockProvider());
+    }
+
+    /**
+     * Critical paths are excluded from each other wherever the lock provider is shared.
+     *
+     * @param passClient the PASS client
+     * @param lockProvider provides locks over resources
+     */
+    public CriticalPath(PassClient passClient, CriticalLockProvider lockProvider) {
+        this(passClient, lockProvider, false, 1, 0);
+    }
+
+    /**
+     * @param passClient the PASS client
+     * @param lockProvider provides locks over resources which are not updated optimistically
+     * @param optimistic whether versioned resources are updated optimistically instead of being locked
+     * @param optimisticMaxAttempts the maximum number of attempts of an optimistic interaction
+     * @param optimisticBackoffMs the initial delay before retrying an optimistic interaction, doubled on each retry
+     */
+    @Autowired
+    public CriticalPath(PassClient passClient, CriticalLockProvider lockProvider,
+                        @Value("${pass.deposit.critical.optimistic.enabled:false}") boolean optimistic,
+                        @Value("${pass.deposit.critical.optimistic.max-attempts:5}") int optimisticMaxAttempts,
+                        @Value("${pass.deposit.critical.optimistic.backoff-ms:50}") long optimisticBackoffMs) {
         this.passClient = passClient;
+        this.lockProvider = lockProvider;
+        this.optimistic = optimistic;
+        this.optimisticMaxAttempts = Math.max(1, optimisticMaxAttempts);
+        this.optimisticBackoffMs = optimisticBackoffMs;
     }
 
     /**
      * Executes in order:
      * <ol>
-     *     <li>Obtain a lock over the interned, string form of the {@code uri}, insuring no interference from other
-     *         threads executing in this JVM</li>
+     *     <li>Obtain a lock over the type and id of the resource from the {@link CriticalLockProvider}, insuring no
+     *         interference from other threads sharing the provider, short-circuiting the interaction by returning a
+     *         {@code CriticalResult} if the lock cannot be obtained</li>
      *     <li>Read the {@code PassEntity} identified by {@code uri} from the repository, short-circuiting the
      *         interaction by returning a {@code CriticalResult} if an {@code Exception} is thrown</li>
      *     <li>Apply the pre-condition {@code Predicate}, short-circuiting the interaction by returning a
@@ -100,8 +170,9 @@ public class CriticalPath implements CriticalRepositoryInteraction {
     /**
      * Executes in order:
      * <ol>
-     *     <li>Obtain a lock over the interned, string form of the {@code uri}, insuring no interference from other
-     *         threads executing in this JVM</li>
+     *     <li>Obtain a lock over the type and id of the resource from the {@link CriticalLockProvider}, insuring no
+     *         interference from other threads sharing the provider, short-circuiting the interaction by returning a
+     *         {@code CriticalResult} if the lock cannot be obtained</li>
      *     <li>Read the {@code PassEntity} identified by {@code uri} from the repository, short-circuiting the
      *         interaction by returning a {@code CriticalResult} if an {@code Exception} is thrown</li>
      *     <li>Apply the pre-condition {@code Predicate}, short-circuiting the interaction by returning a
@@ -142,12 +213,22 @@ public class CriticalPath implements CriticalRepositoryInteraction {
                                                                           Function<T, R> critical,
                                                                           boolean updatesEntity) {
 
+        if (optimistic && critical instanceof IdempotentFunction
+                && PassVersionedEntity.class.isAssignableFrom(clazz)) {
+            return performOptimistic(id, clazz, precondition, postcondition, critical, updatesEntity);
+        }
+
         CriticalResult<R, T> cr = null;
 
-        // 1. Obtain a lock over the repository resource URI, then enter the critical section
-        String lock = (clazz.getName() + id).intern();
+        // 1. Obtain a lock over the repository resource, then enter the critical section
+        CriticalLockProvider.CriticalLock lock;
+        try {
+            lock = lock(clazz.getName() + id);
+        } catch (Exception e) {
+            return new CriticalResult<>(null, null, false, e);
+        }
 
-        synchronized (lock) {
+        try (lock) {
 
             // 2. Read the resource from the repository
 
@@ -212,4 +293,131 @@ public class CriticalPath implements CriticalRepositoryInteraction {
 
         return cr;
     }
+
+    /**
+     * Executes the steps of performCritical without a lock, retrying them if the update conflicts with a concurrent
+     * modification of the resource. The resource is not read again after it is updated. The critical function must be
+     * idempotent because it is applied again on each retry.
+     */
+    private <R, T extends PassEntity> CriticalResult<R, T> performOptimistic(String id, Class<T> clazz,
+                                                                             Predicate<T> precondition,
+                                                                             BiPredicate<T, R> postcondition,
+                                                                             Function<T, R> critical,
+                                                                             boolean updatesEntity) {
+        for (int attempt = 1; ; attempt++) {
+            T resource = null;
+            try {
+                resource = passClient.getObject(clazz, id);
+            } catch (Exception e) {
+                return new CriticalResult<>(null, null, false, e);
+            }
+
+            try {
+                if (!precondition.test(resource)) {
+                    LOG.debug("Precondition for applying the critical path on resource {} failed.", resource.getId());
+                    return new CriticalResult<>(null, resource, false);
+                }
+            } catch (Exception e) {
+                return new CriticalResult<>(null, resource, false, e);
+            }
+
+            R updateResult = null;
+            try {
+                updateResult = critical.apply(resource);
+            } catch (Exception e) {
+                return new CriticalResult<>(updateResult, resource, false, e);
+            }
+
+            // The update sets the new version on the resource, which is then current
+            if (updatesEntity) {
+                try {
+                    passClient.updateObject(resource);
+                } catch (OptimisticLockException e) {
+                    optimisticConflicts.increment();
+
+                    if (attempt >= optimisticMaxAttempts) {
+                        LOG.debug("Giving up updating resource {} after {} conflicts", id, attempt);
+                        return new CriticalResult<>(updateResult, resource, false, e);
+                    }
+
+                    LOG.debug("Update of resource {} conflicted, retrying", id);
+
+                    try {
+                        backoff(attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return new CriticalResult<>(updateResult, resource, false, ie);
+                    }
+
+                    continue;
+                } catch (Exception e) {
+                    return new CriticalResult<>(updateResult, resource, false, e);
+                }
+            }
+
+            try {
+                if (!postcondition.test(resource, updateResult)) {
+                    LOG.debug("Postcondition over resource {} and result {} failed.", resource.getId(), updateResult);
+                    return new CriticalResult<>(updateResult, resource, false);
+                }
+            } catch (Exception e) {
+                return new CriticalResult<>(updateResult, resource, false, e);
+            }
+
+            return new CriticalResult<>(updateResult, resource, true);
+        }
+    }
+
+    // Exponential backoff with jitter, so conflicting writers spread out their retries
+    private void backoff(int attempt) throws InterruptedException {
+        long delay = optimisticBackoffMs << Math.min(attempt - 1, 10);
+
+        if (delay > 0) {
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+        }
+    }
+
+    private CriticalLockProvider.CriticalLock lock(String key) throws Exception {
+        long start = System.nanoTime();
+        CriticalLockProvider.CriticalLock lock = lockProvider.lock(key);
+        long wait = System.nanoTime() - start;
+
+        lockAcquisitions.increment();
+        lockWaitNanos.add(wait);
+
+        if (lock.isContended()) {
+            lockContentions.increment();
+            LOG.debug("Waited {} ms for contended lock on {}", TimeUnit.NANOSECONDS.toMillis(wait), key);
+        }
+
+        return lock;
+    }
+
+    /**
+     * @return the number of locks obtained
+     */
+    public long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    /**
+     * @return the number of locks which were held by another critical path when requested
+     */
+    public long getLockContentions() {
+        return lockContentions.sum();
+    }
+
+    /**
+     * @return the total time spent waiting for locks in milliseconds
+     */
+    public long getLockWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lockWaitNanos.sum());
+    }
+
+    /**
+     * @return the number of optimistic updates rejected because the resource was modified concurrently
+     */
+    public long getOptimisticConflicts() {
+        return optimisticConflicts.sum();
+    }
 }
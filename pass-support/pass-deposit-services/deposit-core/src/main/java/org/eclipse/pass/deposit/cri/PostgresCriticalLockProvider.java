@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.cri;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Locks which exclude every Deposit Services instance connected to the same Postgres database, implemented with
+ * session level advisory locks.
+ * <p>
+ * A held lock pins a database session until it is released. The session is the lease: if the holder dies or loses
+ * its connection, Postgres ends the session and releases the lock. When a lease duration is configured, the session
+ * is also ended by the server if it sits idle for longer than the lease (requires Postgres 14), so a holder that hangs
+ * inside a critical section cannot block other instances forever. Requires Postgres 11 or later for
+ * {@code hashtextextended}.
+ * </p>
+ * <p>
+ * Sessions come from a connection pool whose size bounds the number of locks held at once. Opening a session and
+ * validating an idle one are bounded by the lock timeout.
+ * </p>
+ */
+public class PostgresCriticalLockProvider implements CriticalLockProvider, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(PostgresCriticalLockProvider.class);
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtextextended(?, 0))";
+    private static final String LOCK_SQL = "SELECT pg_advisory_lock(hashtextextended(?, 0))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtextextended(?, 0))";
+
+    private final int timeoutSecs;
+    private final HikariDataSource sessions;
+
+    /**
+     * @param url JDBC url of the database
+     * @param user database user
+     * @param password database password, must not be empty
+     * @param poolSize maximum number of sessions and so of locks held at once
+     * @param timeoutSecs maximum time to wait for a session or a lock
+     * @param leaseMs maximum time a held lock may be idle before the server releases it, 0 for no limit
+     * @throws IllegalArgumentException if no password is given
+     */
+    public PostgresCriticalLockProvider(String url, String user, String password, int poolSize, int timeoutSecs,
+                                        long leaseMs) {
+        if (password == null || password.isEmpty()) {
+            throw new IllegalArgumentException("A password is required for the Postgres critical lock provider, "
+                + "set PASS_DEPOSIT_CRITICAL_LOCK_POSTGRES_PASSWORD");
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("critical-lock");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(0);
+        config.setAutoCommit(true);
+        config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(timeoutSecs));
+        config.setValidationTimeout(Math.min(TimeUnit.SECONDS.toMillis(timeoutSecs), 5000));
+
+        if (leaseMs > 0) {
+            config.setConnectionInitSql("SET idle_session_timeout = " + leaseMs);
+            // Retire idle sessions before the server ends them
+            config.setIdleTimeout(leaseMs / 2);
+        }
+
+        // Do not connect until the first lock so the application starts while the database is unavailable
+        config.setInitializationFailTimeout(-1);
+
+        this.timeoutSecs = timeoutSecs;
+        this.sessions = new HikariDataSource(config);
+    }
+
+    @Override
+    public CriticalLock lock(String key) throws IOException {
+        Connection conn = null;
+
+        try {
+            conn = sessions.getConnection();
+
+            boolean contended = !query(conn, TRY_LOCK_SQL, key, 0);
+
+            if (contended) {
+                query(conn, LOCK_SQL, key, timeoutSecs);
+            }
+
+            return new PostgresLock(conn, key, contended);
+        } catch (SQLException e) {
+            discard(conn);
+            throw new IOException("Failed to lock " + key, e);
+        }
+    }
+
+    private class PostgresLock implements CriticalLock {
+        private final Connection conn;
+        private final String key;
+        private final boolean contended;
+
+        PostgresLock(Connection conn, String key, boolean contended) {
+            this.conn = conn;
+            this.key = key;
+            this.contended = contended;
+        }
+
+        @Override
+        public boolean isContended() {
+            return contended;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (query(conn, UNLOCK_SQL, key, timeoutSecs)) {
+                    conn.close();
+                } else {
+                    LOG.warn("Lock on {} was not held when released", key);
+                    discard(conn);
+                }
+            } catch (SQLException e) {
+                // Ending the session releases the lock if it is still held
+                LOG.warn("Failed to release lock on {}, the lease may have expired", key, e);
+                discard(conn);
+            }
+        }
+    }
+
+    private static boolean query(Connection conn, String sql, String key, int timeoutSecs) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            stmt.setQueryTimeout(timeoutSecs);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                // pg_advisory_lock returns void, which is read as null
+                return !rs.next() || rs.getObject(1) == null || rs.getBoolean(1);
+            }
+        }
+    }
+
+    // End the session so that a lock it may still hold is released
+    private void discard(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+
+        sessions.evictConnection(conn);
+    }
+
+    /**
+     * Close the sessions. Locks which are still held are released when they are closed.
+     */
+    @Override
+    public void close() {
+        sessions.close();
+    }
+}
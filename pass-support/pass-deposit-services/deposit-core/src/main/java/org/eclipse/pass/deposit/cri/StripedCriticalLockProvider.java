@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.cri;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks which only exclude threads executing in this JVM. Keys are hashed onto a fixed number of stripes, so unrelated
+ * keys may occasionally share a lock, but no per-key state is retained.
+ */
+public class StripedCriticalLockProvider implements CriticalLockProvider {
+
+    /**
+     * Default number of stripes
+     */
+    public static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] stripes;
+
+    public StripedCriticalLockProvider() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes the number of locks keys are hashed onto
+     */
+    public StripedCriticalLockProvider(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + stripes);
+        }
+
+        this.stripes = new ReentrantLock[stripes];
+
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public CriticalLock lock(String key) {
+        ReentrantLock lock = stripes[Math.floorMod(spread(key.hashCode()), stripes.length)];
+        boolean contended = !lock.tryLock();
+
+        if (contended) {
+            lock.lock();
+        }
+
+        return new CriticalLock() {
+            @Override
+            public boolean isContended() {
+                return contended;
+            }
+
+            @Override
+            public void close() {
+                lock.unlock();
+            }
+        };
+    }
+
+    // Mix the high bits into the low bits, as String hash codes of similar keys differ mostly in the low bits
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
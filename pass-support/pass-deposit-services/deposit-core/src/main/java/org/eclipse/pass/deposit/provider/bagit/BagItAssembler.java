@@ -52,7 +52,8 @@ public class BagItAssembler extends AbstractAssembler {
         BagItPackageProvider packageProvider = new BagItPackageProvider(new BagItWriter(UTF_8),
                                                                         new HandlebarsParameterizer(new Handlebars()),
                                                                         passClient);
-        return new ArchivingPackageStream(submission, custodialResources, mdb, rbf, options, packageProvider);
+        return new ArchivingPackageStream(submission, custodialResources, mdb, rbf, options, packageProvider,
+                                          assemblerExecutor);
 
     }
 }
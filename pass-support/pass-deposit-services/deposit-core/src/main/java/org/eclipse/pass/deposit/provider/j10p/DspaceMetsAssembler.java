@@ -58,7 +58,8 @@ public class DspaceMetsAssembler extends AbstractAssembler {
                                                 Map<String, Object> options) {
         buildMetadata(mb, options);
         DspaceMetsPackageProvider packageProvider = this.packageProviderFactory.newInstance();
-        return new ArchivingPackageStream(submission, custodialResources, mb, rbf, options, packageProvider);
+        return new ArchivingPackageStream(submission, custodialResources, mb, rbf, options, packageProvider,
+                                          assemblerExecutor);
     }
 
 }
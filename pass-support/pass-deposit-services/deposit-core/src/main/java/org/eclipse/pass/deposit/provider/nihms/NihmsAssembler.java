@@ -75,7 +75,8 @@ public class NihmsAssembler extends AbstractAssembler {
         buildMetadata(mb, options);
         namePackage(submission, mb);
         NihmsPackageProvider packageProvider = this.packageProviderFactory.newInstance();
-        return new ArchivingPackageStream(submission, custodialResources, mb, rbf, options, packageProvider);
+        return new ArchivingPackageStream(submission, custodialResources, mb, rbf, options, packageProvider,
+                                          assemblerExecutor);
     }
 
     static void namePackage(DepositSubmission submission, MetadataBuilder mb) {
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+
+import org.eclipse.pass.deposit.model.Packager;
+import org.eclipse.pass.deposit.transport.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the deposits of a single Submission to each of its Repositories.  When enabled, deposits are run concurrently
+ * on a bounded pool of threads, so that the time taken to deposit a Submission is that of the slowest Repository
+ * rather than the sum of all of them.  Each deposit is isolated from the failure of the others.
+ * <p>
+ * The number of deposits using a transport protocol at once may be limited, for example to avoid overloading a SWORD
+ * endpoint.  Limits are supplied as comma separated {@code protocol=limit} pairs, e.g. {@code SWORDv2=2,ftp=1}.
+ * </p>
+ */
+@Component
+public class DepositFanOut {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DepositFanOut.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Semaphore> transportLimits;
+
+    /**
+     * @param enabled whether deposits are run concurrently
+     * @param threads the maximum number of deposits run at once
+     * @param transportLimits the maximum number of deposits run at once for each transport protocol
+     */
+    @Autowired
+    public DepositFanOut(@Value("${pass.deposit.fanout.enabled:false}") boolean enabled,
+                         @Value("${pass.deposit.fanout.threads:4}") int threads,
+                         @Value("${pass.deposit.fanout.transport-limits:}") String transportLimits) {
+        this.transportLimits = parseTransportLimits(transportLimits);
+
+        if (enabled) {
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread t = new Thread(runnable, "pass-deposit-fanout-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            this.executor.allowCoreThreadTimeOut(true);
+            LOG.info("Depositing to at most {} Repositories at once, transport limits: {}", threads,
+                     this.transportLimits.isEmpty() ? "none" : transportLimits);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @return whether deposits are run concurrently
+     */
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Runs every task, concurrently if enabled, and waits for them to complete.  The failure of a task does not
+     * prevent the others from running.
+     *
+     * @param tasks the tasks to run
+     * @return the exceptions thrown by failed tasks, in the order of the tasks
+     */
+    public List<RuntimeException> runAll(List<Runnable> tasks) {
+        List<RuntimeException> failures = new ArrayList<>();
+
+        if (executor == null || tasks.size() < 2) {
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+
+            return failures;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> futures.add(executor.submit(task)));
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                failures.add(cause instanceof RuntimeException ? (RuntimeException) cause :
+                             new RuntimeException(cause.getMessage(), cause));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                failures.add(new RuntimeException("Interrupted waiting for deposits to complete", e));
+                break;
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Runs the task once the limit of the transport protocol used by the {@code packager} allows it.
+     *
+     * @param packager the Packager performing the deposit
+     * @param task the deposit
+     */
+    public void withTransportLimit(Packager packager, Runnable task) {
+        Semaphore limit = null;
+
+        if (packager != null && packager.getTransport() != null && packager.getTransport().protocol() != null) {
+            limit = transportLimits.get(packager.getTransport().protocol().name().toLowerCase());
+        }
+
+        if (limit == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting to deposit with " + packager.getTransport().protocol(), e);
+        }
+
+        try {
+            task.run();
+        } finally {
+            limit.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    static Map<String, Semaphore> parseTransportLimits(String limits) {
+        if (limits == null || limits.isBlank()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Semaphore> result = new HashMap<>();
+
+        for (String pair : limits.split(",")) {
+            String[] parts = pair.split("=");
+
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid transport limit, expected protocol=limit: " + pair);
+            }
+
+            String protocol = parts[0].trim();
+
+            try {
+                Transport.PROTOCOL.valueOf(protocol);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown transport protocol in transport limit: " + pair, e);
+            }
+
+            result.put(protocol.toLowerCase(), new Semaphore(Integer.parseInt(parts[1].trim()), true));
+        }
+
+        return result;
+    }
+}
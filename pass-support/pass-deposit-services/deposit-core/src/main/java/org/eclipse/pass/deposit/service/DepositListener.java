@@ -32,16 +32,22 @@ public class DepositListener {
 
     private final PassClient passClient;
     private final DepositProcessor depositProcessor;
+    private final SubmissionChangeTracker changeTracker;
 
-    public DepositListener(DepositProcessor depositProcessor, PassClient passClient) {
+    public DepositListener(DepositProcessor depositProcessor, PassClient passClient,
+                           SubmissionChangeTracker changeTracker) {
         this.depositProcessor = depositProcessor;
         this.passClient = passClient;
+        this.changeTracker = changeTracker;
     }
 
     @JmsListener(destination = "${pass.deposit.queue.deposit.name}")
     public void processDepositMessage(DepositMessage depositMessage) {
         try {
             Deposit deposit = passClient.getObject(Deposit.class, depositMessage.getDepositId());
+            if (deposit.getSubmission() != null) {
+                changeTracker.markChanged(deposit.getSubmission().getId());
+            }
             depositProcessor.accept(deposit);
         } catch (Exception e) {
             LOG.error("Failed to process deposit JMS message.\nDeposit ID: '{}'",
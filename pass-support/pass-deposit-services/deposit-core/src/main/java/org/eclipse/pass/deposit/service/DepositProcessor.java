@@ -16,6 +16,8 @@
 
 package org.eclipse.pass.deposit.service;
 
+import static org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction.idempotent;
+
 import java.io.IOException;
 import java.util.Collection;
 import java.util.function.Consumer;
@@ -117,7 +119,8 @@ public class DepositProcessor implements Consumer<Deposit> {
          * @return the critical function that may modify the Submission.AggregatedDepositStatus based on its Deposits
          */
         static Function<Submission, Submission> critical(PassClient passClient) {
-            return (criSubmission) -> {
+            // Only reads the deposits of the Submission, so it may be retried
+            return idempotent((criSubmission) -> {
                 PassClientSelector<Deposit> sel = new PassClientSelector<>(Deposit.class);
                 sel.setFilter(RSQL.equals(SUBMISSION_REL,  criSubmission.getId()));
 
@@ -152,7 +155,7 @@ public class DepositProcessor implements Consumer<Deposit> {
                 }
 
                 return criSubmission;
-            };
+            });
         }
     }
 }
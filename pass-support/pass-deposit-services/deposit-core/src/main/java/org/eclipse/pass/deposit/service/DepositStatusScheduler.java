@@ -0,0 +1,189 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the status of a Deposit some time after its package was sent, without holding the thread that sent it.
+ * Repositories such as DSpace accept a SWORD deposit before they have finished ingesting it, so the status is checked
+ * on a delayed queue instead of sleeping in the deposit worker.
+ * <p>
+ * A check which reports that the status is not yet final is rescheduled, doubling the delay each time, up to the
+ * maximum number of attempts.  Deposits still not final after that, or whose check fails, are left to the scheduled
+ * {@link DepositUpdater}.
+ * </p>
+ */
+@Component
+public class DepositStatusScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DepositStatusScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final long delayMs;
+
+    private final int maxAttempts;
+
+    private final LongAdder scheduled = new LongAdder();
+
+    private final LongAdder checks = new LongAdder();
+
+    private final LongAdder resolved = new LongAdder();
+
+    private final LongAdder abandoned = new LongAdder();
+
+    /**
+     * Checks the status of a Deposit.
+     */
+    @FunctionalInterface
+    public interface StatusCheck {
+
+        /**
+         * @param depositId the id of the Deposit
+         * @return {@code true} if the Deposit needs no further checks
+         * @throws Exception if the status cannot be checked
+         */
+        boolean check(String depositId) throws Exception;
+    }
+
+    /**
+     * @param delayMs     milliseconds before the first check, 0 disables follow-up checks
+     * @param maxAttempts the number of times a Deposit is checked
+     * @param threads     the number of threads running checks
+     */
+    @Autowired
+    public DepositStatusScheduler(@Value("${pass.deposit.status.followup.delay-ms:0}") long delayMs,
+                                  @Value("${pass.deposit.status.followup.max-attempts:3}") int maxAttempts,
+                                  @Value("${pass.deposit.status.followup.threads:1}") int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Deposit status threads must be positive");
+        }
+
+        this.delayMs = delayMs;
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread t = new Thread(runnable, "pass-deposit-status-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return {@code true} if follow-up checks are scheduled
+     */
+    public boolean isEnabled() {
+        return delayMs > 0 && maxAttempts > 0;
+    }
+
+    /**
+     * Schedules checks of the status of a Deposit.  Returns immediately.
+     *
+     * @param depositId the id of the Deposit
+     * @param check     checks the status, run on a scheduler thread
+     */
+    public void schedule(String depositId, StatusCheck check) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        scheduled.increment();
+        schedule(depositId, check, 1, delayMs);
+    }
+
+    private void schedule(String depositId, StatusCheck check, int attempt, long delay) {
+        executor.schedule(() -> run(depositId, check, attempt, delay), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(String depositId, StatusCheck check, int attempt, long delay) {
+        checks.increment();
+
+        try {
+            if (check.check(depositId)) {
+                resolved.increment();
+                return;
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to check the status of Deposit {}, leaving it to the deposit updater: {}",
+                     depositId, e.getMessage(), e);
+            abandoned.increment();
+            return;
+        }
+
+        if (attempt < maxAttempts && !executor.isShutdown()) {
+            LOG.debug("Status of Deposit {} is not final after {} checks, checking again in {} ms",
+                      depositId, attempt, delay * 2);
+            schedule(depositId, check, attempt + 1, delay * 2);
+        } else {
+            LOG.debug("Status of Deposit {} is not final after {} checks, leaving it to the deposit updater",
+                      depositId, attempt);
+            abandoned.increment();
+        }
+    }
+
+    /**
+     * @return the number of Deposits whose status checks were scheduled
+     */
+    public long getScheduled() {
+        return scheduled.sum();
+    }
+
+    /**
+     * @return the number of status checks run
+     */
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    /**
+     * @return the number of Deposits whose status was final when checked
+     */
+    public long getResolved() {
+        return resolved.sum();
+    }
+
+    /**
+     * @return the number of Deposits left to the deposit updater
+     */
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+
+    /**
+     * @return the number of status checks waiting to run
+     */
+    public int getPending() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
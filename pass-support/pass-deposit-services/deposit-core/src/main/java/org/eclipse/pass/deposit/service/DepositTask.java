@@ -72,8 +72,6 @@ public class DepositTask {
     private final PassClient passClient;
     private final CriticalRepositoryInteraction cri;
 
-    private long swordSleepTimeMs = 10000;
-
     // e.g. http://dspace-prod.mse.jhu.edu:8080/swordv2
     private String prefixToMatch;
 
@@ -228,10 +226,6 @@ public class DepositTask {
         this.replacementPrefix = replacementPrefix;
     }
 
-    public void setSwordSleepTimeMs(long swordSleepTimeMs) {
-        this.swordSleepTimeMs = swordSleepTimeMs;
-    }
-
     @Override
     public String toString() {
         return "DepositTask{" + "dc=" + dc + ", passClient=" + passClient + '}';
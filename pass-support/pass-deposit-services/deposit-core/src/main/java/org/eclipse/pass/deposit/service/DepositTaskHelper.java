@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import static java.lang.System.identityHashCode;
 import static org.eclipse.deposit.util.loggers.Loggers.WORKERS_LOGGER;
 
+import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiPredicate;
@@ -79,9 +80,7 @@ public class DepositTaskHelper {
 
     private final PassClient passClient;
     private final CriticalRepositoryInteraction cri;
-
-    @Value("${pass.deposit.transport.swordv2.sleep-time-ms}")
-    private long swordDepositSleepTimeMs;
+    private final DepositStatusScheduler statusScheduler;
 
     @Value("${jscholarship.hack.sword.statement.uri-prefix}")
     private String statementUriPrefix;
@@ -91,13 +90,21 @@ public class DepositTaskHelper {
 
     private final Repositories repositories;
 
-    @Autowired
     public DepositTaskHelper(PassClient passClient,
                              CriticalRepositoryInteraction cri,
                              Repositories repositories) {
+        this(passClient, cri, repositories, new DepositStatusScheduler(0, 0, 1));
+    }
+
+    @Autowired
+    public DepositTaskHelper(PassClient passClient,
+                             CriticalRepositoryInteraction cri,
+                             Repositories repositories,
+                             DepositStatusScheduler statusScheduler) {
         this.passClient = passClient;
         this.cri = cri;
         this.repositories = repositories;
+        this.statusScheduler = statusScheduler;
     }
 
     /**
@@ -112,6 +119,10 @@ public class DepositTaskHelper {
      * The {@code DepositTask} composed by this helper method will only accept {@code Deposit} resources with
      * <em>intermediate</em> state.
      * </p>
+     * <p>
+     * When the deposit yields a status reference, e.g. a SWORD statement, the status of the {@code Deposit} is checked
+     * later by the {@link DepositStatusScheduler} rather than by blocking this thread.
+     * </p>
      *
      * @param submission        the submission that the {@code deposit} belongs to
      * @param depositSubmission the submission in the Deposit Services' model
@@ -128,7 +139,6 @@ public class DepositTaskHelper {
             DepositUtil.DepositWorkerContext dc = DepositUtil.toDepositWorkerContext(
                 deposit, submission, depositSubmission, repo, packager);
             DepositTask depositTask = new DepositTask(dc, passClient, cri);
-            depositTask.setSwordSleepTimeMs(swordDepositSleepTimeMs);
             depositTask.setPrefixToMatch(statementUriPrefix);
             depositTask.setReplacementPrefix(statementUriReplacement);
 
@@ -137,6 +147,10 @@ public class DepositTaskHelper {
                                  submission.getId(), repo.getId(), deposit.getId());
 
             depositTask.executeDeposit();
+
+            if (dc.deposit().getDepositStatusRef() != null) {
+                statusScheduler.schedule(dc.deposit().getId(), this::checkDepositStatus);
+            }
         } catch (Exception e) {
             // For example, if the task isn't accepted by the taskExecutor
             String msg = format(FAILED_TO_PROCESS_DEPOSIT, submission.getId(), repo.getId(),
@@ -180,6 +194,19 @@ public class DepositTaskHelper {
         LOG.info("Successfully processed Deposit {}", depositId);
     }
 
+    /**
+     * Processes the status of a Deposit and answers whether it has reached a terminal status.
+     *
+     * @param depositId the id of the Deposit
+     * @return {@code true} if the Deposit status is terminal
+     * @throws IOException if the Deposit cannot be read
+     */
+    boolean checkDepositStatus(String depositId) throws IOException {
+        processDepositStatus(depositId);
+        Deposit deposit = passClient.getObject(Deposit.class, depositId);
+        return deposit == null || DepositStatus.isTerminalStatus(deposit.getDepositStatus());
+    }
+
     static Optional<RepositoryConfig> lookupConfig(Repository passRepository, Repositories repositories) {
         if (passRepository.getRepositoryKey() != null) {
             return Optional.of(repositories.getConfig(passRepository.getRepositoryKey()));
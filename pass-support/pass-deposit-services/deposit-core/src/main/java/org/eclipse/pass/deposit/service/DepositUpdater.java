@@ -19,7 +19,6 @@ import java.io.IOException;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 import org.eclipse.pass.support.client.PassClient;
 import org.eclipse.pass.support.client.PassClientSelector;
@@ -42,16 +41,23 @@ public class DepositUpdater {
     private final PassClient passClient;
     private final DepositTaskHelper depositHelper;
     private final FailedDepositRetry failedDepositRetry;
+    private final UpdateJobRunner updateJobRunner;
 
     @Value("${pass.deposit.update.window.days}")
     private long updateWindowDays;
 
-    @Autowired
     public DepositUpdater(PassClient passClient, DepositTaskHelper depositHelper,
                           FailedDepositRetry failedDepositRetry) {
+        this(passClient, depositHelper, failedDepositRetry, new UpdateJobRunner(1, 100, null));
+    }
+
+    @Autowired
+    public DepositUpdater(PassClient passClient, DepositTaskHelper depositHelper,
+                          FailedDepositRetry failedDepositRetry, UpdateJobRunner updateJobRunner) {
         this.passClient = passClient;
         this.depositHelper = depositHelper;
         this.failedDepositRetry = failedDepositRetry;
+        this.updateJobRunner = updateJobRunner;
     }
 
     public void doUpdate() throws IOException {
@@ -63,21 +69,22 @@ public class DepositUpdater {
                 RSQL.gte("submission.submittedDate", DATE_TIME_FORMATTER.format(submissionFromDate))
             )
         );
-        List<Deposit> deposits = passClient.streamObjects(sel).toList();
-        LOG.warn("Deposit Count for updating: " + deposits.size());
 
-        deposits.forEach(deposit -> {
-            try {
-                if (deposit.getDepositStatus() == DepositStatus.FAILED) {
-                    LOG.info("Retrying FAILED Deposit for {}", deposit.getId());
-                    failedDepositRetry.retryFailedDeposit(deposit);
-                } else {
-                    LOG.info("Updating Deposit.depositStatus for {}", deposit.getId());
-                    depositHelper.processDepositStatus(deposit.getId());
+        updateJobRunner.run("deposit-updater", passClient, sel, (deposits, cycle) -> {
+            deposits.forEach(deposit -> {
+                try {
+                    if (deposit.getDepositStatus() == DepositStatus.FAILED) {
+                        LOG.info("Retrying FAILED Deposit for {}", deposit.getId());
+                        failedDepositRetry.retryFailedDeposit(deposit);
+                    } else {
+                        LOG.info("Updating Deposit.depositStatus for {}", deposit.getId());
+                        depositHelper.processDepositStatus(deposit.getId());
+                    }
+                } catch (Exception e) {
+                    LOG.warn("Failed to update Deposit {}: {}", deposit.getId(), e.getMessage(), e);
+                    cycle.failed();
                 }
-            } catch (Exception e) {
-                LOG.warn("Failed to update Deposit {}: {}", deposit.getId(), e.getMessage(), e);
-            }
+            });
         });
     }
 }
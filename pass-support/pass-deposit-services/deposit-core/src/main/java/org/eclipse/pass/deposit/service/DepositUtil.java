@@ -16,6 +16,7 @@
 package org.eclipse.pass.deposit.service;
 
 import static java.time.Instant.ofEpochMilli;
+import static org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction.idempotent;
 
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -158,10 +159,10 @@ public class DepositUtil {
                 submissionId, Submission.class,
                 (submission) -> !AggregatedDepositStatus.isTerminalStatus(submission.getAggregatedDepositStatus()),
                 (submission) -> submission.getAggregatedDepositStatus() == AggregatedDepositStatus.FAILED,
-                (submission) -> {
+                idempotent((submission) -> {
                     submission.setAggregatedDepositStatus(AggregatedDepositStatus.FAILED);
                     return submission;
-                });
+                }));
 
         if (!updateResult.success()) {
             LOG.debug(
@@ -194,10 +195,10 @@ public class DepositUtil {
                 depositId, Deposit.class,
                 (deposit) -> !DepositStatus.isTerminalStatus(deposit.getDepositStatus()),
                 (deposit) -> deposit.getDepositStatus() == DepositStatus.FAILED,
-                (deposit) -> {
+                idempotent((deposit) -> {
                     deposit.setDepositStatus(DepositStatus.FAILED);
                     return deposit;
-                });
+                }));
 
         if (!updateResult.success()) {
             LOG.debug("Updating status of {} to {} failed: {}", depositId, DepositStatus.FAILED,
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.pass.deposit.DepositServiceRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the set of Submissions whose {@code submissionStatus} may have changed since it was last calculated, so that
+ * the {@link SubmissionStatusUpdater} can recalculate only those.  Submissions are marked when a message for them or
+ * one of their Deposits is received.  Changes to a Deposit, including the RepositoryCopy it links to, are always
+ * announced by a Deposit message.
+ * <p>
+ * When a file is configured the set is kept across restarts.  Each marked Submission is appended to the file, and the
+ * file is rewritten with the remaining Submissions once a set drained by the updater has been processed.  A set that
+ * is drained but not processed, e.g. because of a restart, is therefore processed again.
+ * </p>
+ */
+@Component
+public class SubmissionChangeTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SubmissionChangeTracker.class);
+
+    private final boolean enabled;
+
+    private final Path file;
+
+    private final Set<String> changed = new LinkedHashSet<>();
+
+    /**
+     * @param enabled whether changes are tracked
+     * @param file the file holding the set, or empty to keep the set in memory only
+     */
+    @Autowired
+    public SubmissionChangeTracker(@Value("${pass.deposit.jobs.status.incremental.enabled:false}") boolean enabled,
+                                   @Value("${pass.deposit.jobs.status.incremental.file:}") String file) {
+        this.enabled = enabled;
+        this.file = !enabled || file == null || file.isBlank() ? null : Path.of(file);
+
+        if (this.file != null && Files.exists(this.file)) {
+            try {
+                Files.readAllLines(this.file, StandardCharsets.UTF_8).stream().map(String::trim)
+                    .filter(id -> !id.isEmpty()).forEach(changed::add);
+            } catch (IOException e) {
+                throw new DepositServiceRuntimeException("Unable to read changed Submissions from " + this.file, e);
+            }
+            LOG.info("Loaded {} changed Submissions from {}", changed.size(), this.file);
+        }
+    }
+
+    /**
+     * @return whether changes are tracked
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether the set is kept across restarts
+     */
+    public boolean isPersistent() {
+        return file != null;
+    }
+
+    /**
+     * Marks a Submission as changed.  Does nothing if tracking is disabled or the id is null.
+     *
+     * @param submissionId the id of the Submission
+     */
+    public void markChanged(String submissionId) {
+        if (enabled && submissionId != null) {
+            markChanged(List.of(submissionId));
+        }
+    }
+
+    /**
+     * Marks Submissions as changed.  Does nothing if tracking is disabled.
+     *
+     * @param submissionIds the ids of the Submissions
+     */
+    public synchronized void markChanged(Collection<String> submissionIds) {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> added = new ArrayList<>();
+
+        submissionIds.forEach(id -> {
+            if (changed.add(id)) {
+                added.add(id);
+            }
+        });
+
+        if (file != null && !added.isEmpty()) {
+            try {
+                Files.write(file, added, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                LOG.warn("Unable to record changed Submissions in {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes every Submission from the set.  The file is left as is until {@link #persist()} is called.
+     *
+     * @return the ids of the Submissions in the order they were marked
+     */
+    public synchronized List<String> drain() {
+        List<String> result = new ArrayList<>(changed);
+        changed.clear();
+
+        return result;
+    }
+
+    /**
+     * Rewrites the file with the Submissions currently in the set.
+     */
+    public synchronized void persist() {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, changed, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write changed Submissions to {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -32,16 +32,20 @@ public class SubmissionListener {
 
     private final PassClient passClient;
     private final SubmissionProcessor submissionProcessor;
+    private final SubmissionChangeTracker changeTracker;
 
-    public SubmissionListener(SubmissionProcessor submissionProcessor, PassClient passClient) {
+    public SubmissionListener(SubmissionProcessor submissionProcessor, PassClient passClient,
+                              SubmissionChangeTracker changeTracker) {
         this.submissionProcessor = submissionProcessor;
         this.passClient = passClient;
+        this.changeTracker = changeTracker;
     }
 
     @JmsListener(destination = "${pass.deposit.queue.submission.name}")
     public void processSubmissionMessage(SubmissionMessage submissionMessage) {
         try {
             Submission submission = passClient.getObject(Submission.class, submissionMessage.getSubmissionId());
+            changeTracker.markChanged(submission.getId());
             submissionProcessor.accept(submission);
         } catch (Exception e) {
             LOG.error("Failed to process submission JMS message.\nSubmission ID: '{}'",
@@ -17,6 +17,7 @@ package org.eclipse.pass.deposit.service;
 
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
+import static org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction.idempotent;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -67,12 +68,22 @@ public class SubmissionProcessor implements Consumer<Submission> {
     private final CriticalRepositoryInteraction critical;
     private final DepositTaskHelper depositTaskHelper;
     private final DepositServiceErrorHandler depositServiceErrorHandler;
+    private final DepositFanOut depositFanOut;
 
-    @Autowired
     public SubmissionProcessor(PassClient passClient, DepositSubmissionModelBuilder depositSubmissionModelBuilder,
                                Registry<Packager> packagerRegistry, DepositTaskHelper depositTaskHelper,
                                CriticalRepositoryInteraction critical,
                                DepositServiceErrorHandler errorHandler) {
+        this(passClient, depositSubmissionModelBuilder, packagerRegistry, depositTaskHelper, critical, errorHandler,
+             new DepositFanOut(false, 1, null));
+    }
+
+    @Autowired
+    public SubmissionProcessor(PassClient passClient, DepositSubmissionModelBuilder depositSubmissionModelBuilder,
+                               Registry<Packager> packagerRegistry, DepositTaskHelper depositTaskHelper,
+                               CriticalRepositoryInteraction critical,
+                               DepositServiceErrorHandler errorHandler,
+                               DepositFanOut depositFanOut) {
 
         this.passClient = passClient;
         this.depositSubmissionModelBuilder = depositSubmissionModelBuilder;
@@ -80,6 +91,7 @@ public class SubmissionProcessor implements Consumer<Submission> {
         this.critical = critical;
         this.depositTaskHelper = depositTaskHelper;
         this.depositServiceErrorHandler = errorHandler;
+        this.depositFanOut = depositFanOut;
     }
 
     @Override
@@ -123,6 +135,11 @@ public class SubmissionProcessor implements Consumer<Submission> {
 
         LOG.info("Processing Submission {}", submission.getId());
 
+        if (depositFanOut.isEnabled()) {
+            fanOutDeposits(updatedS, depositSubmission);
+            return;
+        }
+
         updatedS.getRepositories()
                 .stream()
                 .map(repo -> {
@@ -143,6 +160,44 @@ public class SubmissionProcessor implements Consumer<Submission> {
                 });
     }
 
+    /**
+     * Resolves each Repository and deposits to it concurrently.  A failed deposit is handled by the error handler
+     * without affecting the deposits to the other Repositories.  Once every deposit has completed, the first failure,
+     * if any, is re-thrown.
+     */
+    private void fanOutDeposits(Submission submission, DepositSubmission depositSubmission) {
+        List<Runnable> deposits = submission.getRepositories()
+                .stream()
+                .map(repo -> (Runnable) () -> {
+                    Repository resolved;
+                    try {
+                        resolved = passClient.getObject(repo);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to retrieve repository: " + repo.getId(), e);
+                    }
+
+                    if (IntegrationType.WEB_LINK == resolved.getIntegrationType()) {
+                        return;
+                    }
+
+                    try {
+                        submitDeposit(submission, depositSubmission, resolved);
+                    } catch (Exception e) {
+                        depositServiceErrorHandler.handleError(e);
+                        throw e;
+                    }
+                })
+                .collect(Collectors.toList());
+
+        List<RuntimeException> failures = depositFanOut.runAll(deposits);
+
+        if (!failures.isEmpty()) {
+            LOG.warn("{} of {} deposits of Submission {} failed", failures.size(), deposits.size(),
+                     submission.getId());
+            throw failures.get(0);
+        }
+    }
+
     private void submitDeposit(Submission submission, DepositSubmission depositSubmission, Repository repo) {
         Deposit deposit = null;
         Packager packager = null;
@@ -168,7 +223,10 @@ public class SubmissionProcessor implements Consumer<Submission> {
             throw new DepositServiceRuntimeException(msg, e, deposit);
         }
 
-        depositTaskHelper.submitDeposit(submission, depositSubmission, repo, deposit, packager);
+        final Deposit created = deposit;
+        final Packager resolved = packager;
+        depositFanOut.withTransportLimit(packager, () ->
+            depositTaskHelper.submitDeposit(submission, depositSubmission, repo, created, resolved));
     }
 
     static class CriFunc {
@@ -182,7 +240,8 @@ public class SubmissionProcessor implements Consumer<Submission> {
          * Submission
          */
         static Function<Submission, DepositSubmission> critical(DepositSubmissionModelBuilder modelBuilder) {
-            return (s) -> {
+            // Only reads the Submission and its related resources, so it may be retried
+            return idempotent((s) -> {
                 DepositSubmission ds = null;
                 try {
                     ds = modelBuilder.build(s.getId().toString());
@@ -191,7 +250,7 @@ public class SubmissionProcessor implements Consumer<Submission> {
                 }
                 s.setAggregatedDepositStatus(AggregatedDepositStatus.IN_PROGRESS);
                 return ds;
-            };
+            });
         }
 
         /**
@@ -17,6 +17,7 @@ package org.eclipse.pass.deposit.service;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.eclipse.pass.support.client.PassClient;
@@ -28,6 +29,7 @@ import org.eclipse.pass.support.client.model.SubmissionStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -41,6 +43,15 @@ import org.springframework.stereotype.Component;
  * The criteria for determining which Submissions need to have their {@code submissionStatus} updated is hard-coded and
  * limited in part by the {@link PassClient}.
  * </p>
+ * <p>
+ * Submissions are processed in batches by the {@link UpdateJobRunner}.  The status of each batch is calculated from
+ * the related objects of the whole batch, retrieved with a single query per type.
+ * </p>
+ * <p>
+ * In incremental mode only the Submissions marked by the {@link SubmissionChangeTracker} since the last update are
+ * recalculated.  A full scan of the candidates still runs once per reconciliation interval, to pick up changes that
+ * are not announced by a message, such as RepositoryCopies updated outside of Deposit Services.
+ * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
@@ -51,18 +62,45 @@ public class SubmissionStatusUpdater {
 
     private final SubmissionStatusService statusService;
     private final PassClient passClient;
+    private final UpdateJobRunner updateJobRunner;
+    private final SubmissionChangeTracker changeTracker;
+    private final long reconcileIntervalMs;
+    private long lastReconciled;
 
-    @Autowired
     public SubmissionStatusUpdater(SubmissionStatusService statusService, PassClient passClient) {
+        this(statusService, passClient, new UpdateJobRunner(1, 100, null), new SubmissionChangeTracker(false, null),
+             0);
+    }
+
+    @Autowired
+    public SubmissionStatusUpdater(SubmissionStatusService statusService, PassClient passClient,
+                                   UpdateJobRunner updateJobRunner, SubmissionChangeTracker changeTracker,
+                                   @Value("${pass.deposit.jobs.status.reconcile-interval-ms:86400000}")
+                                   long reconcileIntervalMs) {
         this.statusService = statusService;
         this.passClient = passClient;
+        this.updateJobRunner = updateJobRunner;
+        this.changeTracker = changeTracker;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+
+        // Changes made while stopped are only known if the set of changed Submissions was kept
+        this.lastReconciled = changeTracker.isPersistent() ? System.currentTimeMillis() : 0;
     }
 
     /**
-     * Determines the Submissions to be updated, and updates the status of each in turn.
+     * Determines the Submissions to be updated, and updates their status a batch at a time.  In incremental mode only
+     * changed Submissions are updated unless a reconciliation is due.
      * @throws IOException io exception
      */
     public void doUpdate() throws IOException {
+        if (changeTracker.isEnabled() && System.currentTimeMillis() - lastReconciled < reconcileIntervalMs) {
+            doIncrementalUpdate();
+            return;
+        }
+
+        // The full scan covers every Submission marked as changed so far
+        List<String> changed = changeTracker.drain();
+
         PassClientSelector<Submission> sel = new PassClientSelector<>(Submission.class);
         sel.setFilter(
             RSQL.and(
@@ -70,21 +108,71 @@ public class SubmissionStatusUpdater {
                 RSQL.equals("submitted", "true")
             )
         );
-        List<Submission> submissions = passClient.streamObjects(sel).toList();
-        LOG.warn("Submission Count for updating: " + submissions.size());
+
+        try {
+            updateJobRunner.run("submission-status-updater", passClient, sel, this::updateStatuses);
+        } catch (IOException | RuntimeException e) {
+            changeTracker.markChanged(changed);
+            throw e;
+        }
+
+        lastReconciled = System.currentTimeMillis();
+        changeTracker.persist();
+    }
+
+    /**
+     * Updates the status of the Submissions marked as changed since the last update.
+     * @throws IOException io exception
+     */
+    void doIncrementalUpdate() throws IOException {
+        List<String> changed = changeTracker.drain();
+
+        if (changed.isEmpty()) {
+            LOG.info("No changed Submissions to update");
+            return;
+        }
+
+        updateJobRunner.run("submission-status-incremental", changed, (ids, cycle) -> {
+            PassClientSelector<Submission> sel = new PassClientSelector<>(Submission.class);
+            sel.setFilter(
+                RSQL.and(
+                    RSQL.in("id", ids.toArray(String[]::new)),
+                    RSQL.in("submissionStatus", getSubmissionStatusFilter()),
+                    RSQL.equals("submitted", "true")
+                )
+            );
+
+            try {
+                updateStatuses(passClient.streamObjects(sel).toList(), cycle);
+            } catch (IOException | RuntimeException e) {
+                // Try the whole batch again next time
+                changeTracker.markChanged(ids);
+                throw e;
+            }
+        });
+
+        changeTracker.persist();
+    }
+
+    private void updateStatuses(List<Submission> submissions, UpdateJobRunner.Cycle cycle) {
+        Map<String, SubmissionStatus> statuses = statusService.calculateSubmissionStatuses(submissions);
 
         submissions.forEach(submission -> {
             try {
                 LOG.info("Processing Submission.submissionStatus for {}", submission.getId());
-                SubmissionStatus newStatus = statusService.calculateSubmissionStatus(submission);
-                if (newStatus != submission.getSubmissionStatus()) {
+                SubmissionStatus newStatus = statuses.get(submission.getId());
+                if (newStatus == null) {
+                    cycle.failed();
+                } else if (newStatus != submission.getSubmissionStatus()) {
                     LOG.info("Status changed for Submission {} from {} to {}", submission.getId(),
                         submission.getSubmissionStatus(), newStatus);
                     submission.setSubmissionStatus(newStatus);
                     passClient.updateObject(submission);
+                    cycle.changed();
                 }
             } catch (Exception e) {
                 LOG.warn("Unable to update the 'submissionStatus' of {}", submission.getId(), e);
+                cycle.failed();
             }
         });
     }
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+
+import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.PassClientSelector;
+import org.eclipse.pass.support.client.model.PassEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a cycle of a scheduled update job over the PASS objects matched by a selector.  Matches are streamed from PASS
+ * with keyset paging and processed in batches on a bounded pool of threads, so that a cycle neither holds every
+ * candidate in memory nor processes them one at a time.  At most two batches per thread are in flight at once.
+ * <p>
+ * When a checkpoint directory is configured, the id of the last object of the contiguous run of completed batches is
+ * written to a file named after the job.  A cycle that is interrupted, e.g. by a restart, resumes after that id on
+ * its next run.  The run stops at the first batch whose processor throws, so the objects of a failed batch are
+ * processed again on resume.  The checkpoint is removed once a cycle completes.
+ * </p>
+ */
+@Component
+public class UpdateJobRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpdateJobRunner.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final int threads;
+
+    private final int batchSize;
+
+    private final Path checkpointDir;
+
+    /**
+     * @param threads the number of batches processed at once
+     * @param batchSize the number of objects in a batch
+     * @param checkpointDir the directory holding checkpoints, or empty to disable checkpointing
+     */
+    @Autowired
+    public UpdateJobRunner(@Value("${pass.deposit.jobs.update.threads:4}") int threads,
+                           @Value("${pass.deposit.jobs.update.batch-size:100}") int batchSize,
+                           @Value("${pass.deposit.jobs.update.checkpoint-dir:}") String checkpointDir) {
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Update job threads and batch size must be positive");
+        }
+
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.checkpointDir = checkpointDir == null || checkpointDir.isBlank() ? null : Path.of(checkpointDir);
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread t = new Thread(runnable, "pass-update-job-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Processes a batch of objects.
+     *
+     * @param <T> the type of object
+     */
+    @FunctionalInterface
+    public interface BatchProcessor<T> {
+
+        /**
+         * Processes a batch, recording each changed or failed object on the cycle.  An exception thrown by the
+         * processor fails every object of the batch.
+         *
+         * @param batch the objects
+         * @param cycle the running cycle
+         * @throws Exception if the batch cannot be processed
+         */
+        void process(List<T> batch, Cycle cycle) throws Exception;
+    }
+
+    /**
+     * Runs a cycle of a job and waits for it to complete.  The selector is switched to keyset paging by id, with the
+     * page size set to the batch size.
+     *
+     * @param name the name of the job, used for logging and for the checkpoint file
+     * @param passClient the client used to stream matches
+     * @param selector selects the objects to process
+     * @param processor processes each batch
+     * @param <T> the type of object
+     * @return the metrics of the completed cycle
+     * @throws IOException if the matches cannot be streamed, or the checkpoint cannot be read
+     */
+    public <T extends PassEntity> Cycle run(String name, PassClient passClient, PassClientSelector<T> selector,
+                                           BatchProcessor<T> processor) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(checkpointDir == null ? null :
+                                               checkpointDir.resolve(name + ".checkpoint"));
+
+        selector.setKeyset(true);
+        selector.setTotals(false);
+        selector.setLimit(batchSize);
+        selector.setAfter(checkpoint.read());
+
+        if (selector.getAfter() != null) {
+            LOG.warn("Resuming {} after checkpoint {}", name, selector.getAfter());
+        }
+
+        try (Stream<T> matches = passClient.streamObjects(selector)) {
+            return run(name, matches.iterator(), PassEntity::getId, checkpoint, processor);
+        }
+    }
+
+    /**
+     * Runs a cycle of a job over the given items and waits for it to complete.  No checkpoint is kept.
+     *
+     * @param name the name of the job, used for logging
+     * @param items the items to process
+     * @param processor processes each batch
+     * @param <T> the type of item
+     * @return the metrics of the completed cycle
+     * @throws IOException if the cycle is interrupted
+     */
+    public <T> Cycle run(String name, Collection<T> items, BatchProcessor<T> processor) throws IOException {
+        return run(name, items.iterator(), String::valueOf, new Checkpoint(null), processor);
+    }
+
+    private <T> Cycle run(String name, Iterator<T> iter, Function<T, String> idOf, Checkpoint checkpoint,
+                          BatchProcessor<T> processor) throws IOException {
+        Cycle cycle = new Cycle(name);
+        Semaphore inFlight = new Semaphore(threads * 2);
+
+        try {
+            List<T> batch = new ArrayList<>(batchSize);
+            long seq = 0;
+
+            while (iter.hasNext()) {
+                batch.add(iter.next());
+
+                if (batch.size() == batchSize || !iter.hasNext()) {
+                    inFlight.acquire();
+                    submit(batch, seq++, idOf, cycle, checkpoint, inFlight, processor);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted running " + name, e);
+        } finally {
+            // Wait for the batches in flight
+            inFlight.acquireUninterruptibly(threads * 2);
+        }
+
+        checkpoint.clear();
+
+        cycle.complete();
+        LOG.warn("{} processed {} objects in {} batches ({} changed, {} failed) in {} ms, {} objects/sec", name,
+                 cycle.getProcessed(), cycle.getBatches(), cycle.getChanged(), cycle.getFailed(),
+                 cycle.getElapsedMillis(), String.format("%.1f", cycle.getThroughput()));
+
+        return cycle;
+    }
+
+    private <T> void submit(List<T> batch, long seq, Function<T, String> idOf, Cycle cycle, Checkpoint checkpoint,
+                            Semaphore inFlight, BatchProcessor<T> processor) {
+        executor.execute(() -> {
+            boolean succeeded = false;
+
+            try {
+                processor.process(batch, cycle);
+                succeeded = true;
+            } catch (Exception e) {
+                LOG.warn("Failed to process a batch of {} objects of {} starting at {}: {}", batch.size(),
+                         cycle.getName(), idOf.apply(batch.get(0)), e.getMessage(), e);
+                cycle.failed.add(batch.size());
+            } finally {
+                cycle.processed.add(batch.size());
+                cycle.batches.increment();
+                checkpoint.completed(seq, idOf.apply(batch.get(batch.size() - 1)), succeeded);
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Stops the threads processing batches.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Metrics of a cycle of a job.
+     */
+    public static class Cycle {
+
+        private final String name;
+
+        private final long start = System.nanoTime();
+
+        private final LongAdder processed = new LongAdder();
+
+        private final LongAdder changed = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final LongAdder batches = new LongAdder();
+
+        private volatile long elapsedNanos = -1;
+
+        Cycle(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records that an object was changed.
+         */
+        public void changed() {
+            changed.increment();
+        }
+
+        /**
+         * Records that an object could not be processed.
+         */
+        public void failed() {
+            failed.increment();
+        }
+
+        void complete() {
+            elapsedNanos = System.nanoTime() - start;
+        }
+
+        /**
+         * @return the name of the job
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of objects processed, including failures
+         */
+        public long getProcessed() {
+            return processed.sum();
+        }
+
+        /**
+         * @return the number of objects changed
+         */
+        public long getChanged() {
+            return changed.sum();
+        }
+
+        /**
+         * @return the number of objects which could not be processed
+         */
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        /**
+         * @return the number of batches processed
+         */
+        public long getBatches() {
+            return batches.sum();
+        }
+
+        /**
+         * @return the duration of the cycle so far, or of the completed cycle
+         */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos < 0 ? System.nanoTime() - start : elapsedNanos);
+        }
+
+        /**
+         * @return the number of objects processed per second
+         */
+        public double getThroughput() {
+            return getProcessed() * 1000.0 / Math.max(1, getElapsedMillis());
+        }
+    }
+
+    /**
+     * Tracks the completion of batches, which may complete out of order, and persists the last id of the contiguous
+     * run of completed batches.  The run ends before the first failed batch.
+     */
+    private static class Checkpoint {
+
+        private final Path file;
+
+        // Last id of completed batches waiting on an earlier batch, by sequence number
+        private final Map<Long, String> pending = new TreeMap<>();
+
+        private long next;
+
+        // Sequence number of the first failed batch, the checkpoint does not advance past it
+        private long failed = Long.MAX_VALUE;
+
+        Checkpoint(Path file) {
+            this.file = file;
+        }
+
+        String read() throws IOException {
+            if (file == null || !Files.exists(file)) {
+                return null;
+            }
+
+            String id = Files.readString(file, StandardCharsets.UTF_8).trim();
+
+            return id.isEmpty() ? null : id;
+        }
+
+        synchronized void completed(long seq, String lastId, boolean succeeded) {
+            if (!succeeded) {
+                failed = Math.min(failed, seq);
+                pending.keySet().removeIf(s -> s > failed);
+            } else if (seq < failed) {
+                pending.put(seq, lastId);
+            }
+
+            String id = null;
+
+            while (next < failed && pending.containsKey(next)) {
+                id = pending.remove(next++);
+            }
+
+            if (id != null && file != null) {
+                try {
+                    Files.createDirectories(file.getParent());
+                    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                    Files.writeString(tmp, id, StandardCharsets.UTF_8);
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    LOG.warn("Unable to write checkpoint {}: {}", file, e.getMessage());
+                }
+            }
+        }
+
+        void clear() throws IOException {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -17,11 +17,21 @@ package org.eclipse.pass.deposit.support.swordv2;
 
 import static java.lang.String.format;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.abdera.model.Document;
 import org.apache.abdera.model.Feed;
 import org.apache.abdera.parser.Parser;
+import org.eclipse.pass.deposit.assembler.AuthenticatedResource;
 import org.eclipse.pass.deposit.config.repository.RepositoryConfig;
 import org.eclipse.pass.deposit.model.Constants;
 import org.eclipse.pass.deposit.service.DepositTask;
@@ -30,7 +40,10 @@ import org.eclipse.pass.deposit.transport.sword2.Sword2DepositReceiptResponse;
 import org.eclipse.pass.support.client.model.Deposit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Component;
 
 /**
@@ -40,6 +53,12 @@ import org.springframework.stereotype.Component;
  * Atom Statements are typically obtained by de-referencing the {@link Deposit#getDepositStatusRef()}, or inspecting
  * the {@link Sword2DepositReceiptResponse#getReceipt() SWORDv2 deposit receipt}.
  * </p>
+ * <p>
+ * Statements retrieved over HTTP are polled with conditional requests.  The {@code ETag} and {@code Last-Modified}
+ * of each statement are remembered along with its state, and a statement which has not been modified is not parsed
+ * again.  The number of requests open to a host at once may be limited.  Optionally, a statement whose state has not
+ * changed is not polled again until a backoff, which doubles each time the state is found unchanged, has elapsed.
+ * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  * @see <a href="http://swordapp.github.io/SWORDv2-Profile/SWORDProfile.html#statement">SWORDv2 Profile §11</a>
@@ -54,10 +73,67 @@ public class AtomFeedStatusResolver implements DepositStatusResolver<URI, URI> {
 
     private final Parser abderaParser;
     private final ResourceResolver resourceResolver;
+    private final int maxPerHost;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+
+    private final Map<URI, Statement> statements;
+    private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+
+    private final LongAdder polled = new LongAdder();
+    private final LongAdder changed = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
 
     public AtomFeedStatusResolver(Parser abderaParser, ResourceResolver resourceResolver) {
+        this(abderaParser, resourceResolver, 0, 10000, 0, 0);
+    }
+
+    /**
+     * @param abderaParser the parser of Atom statements
+     * @param resourceResolver resolves statement URIs to resources
+     * @param maxPerHost the maximum number of statement requests open to a host at once, or 0 for no limit
+     * @param cacheSize the number of statements whose validators and state are remembered
+     * @param backoffInitialMs the initial delay before polling a statement whose state is unchanged, or 0 to always
+     *                         poll
+     * @param backoffMaxMs the maximum delay before polling a statement whose state is unchanged
+     */
+    @Autowired
+    public AtomFeedStatusResolver(Parser abderaParser, ResourceResolver resourceResolver,
+                                  @Value("${pass.deposit.status.swordv2.max-per-host:0}") int maxPerHost,
+                                  @Value("${pass.deposit.status.swordv2.cache-size:10000}") int cacheSize,
+                                  @Value("${pass.deposit.status.swordv2.backoff.initial-ms:0}") long backoffInitialMs,
+                                  @Value("${pass.deposit.status.swordv2.backoff.max-ms:3600000}") long backoffMaxMs) {
         this.abderaParser = abderaParser;
         this.resourceResolver = resourceResolver;
+        this.maxPerHost = maxPerHost;
+        this.backoffInitialMs = backoffInitialMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, Statement> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * What is known about a statement from the last time it was retrieved
+     */
+    private static class Statement {
+        final String etag;
+        final String lastModified;
+        final URI state;
+        final int unchanged;
+        final long nextPoll;
+
+        Statement(String etag, String lastModified, URI state, int unchanged, long nextPoll) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.state = state;
+            this.unchanged = unchanged;
+            this.nextPoll = nextPoll;
+        }
     }
 
     /**
@@ -88,6 +164,19 @@ public class AtomFeedStatusResolver implements DepositStatusResolver<URI, URI> {
                                                       "Statement URI not recognized as a Spring resource"));
         }
 
+        if (resource instanceof UrlResource && isHttp(atomStatementUri)) {
+            try {
+                return poll(atomStatementUri, (UrlResource) resource);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                String msg = format(ERR, atomStatementUri, "Error polling or parsing Atom statement: " +
+                                                          e.getMessage());
+                throw new RuntimeException(msg, e);
+            }
+        }
+
         Document<Feed> statementDoc = null;
         try {
             LOG.trace("Retrieving and parsing SWORD statement <{}>", atomStatementUri);
@@ -99,4 +188,121 @@ public class AtomFeedStatusResolver implements DepositStatusResolver<URI, URI> {
         }
     }
 
+    private static boolean isHttp(URI uri) {
+        return uri.getScheme() != null && uri.getScheme().startsWith("http");
+    }
+
+    // Retrieve the statement with a conditional request, unless it is backing off
+    private URI poll(URI atomStatementUri, UrlResource resource) throws IOException, InterruptedException {
+        Statement previous;
+
+        synchronized (statements) {
+            previous = statements.get(atomStatementUri);
+        }
+
+        if (previous != null && System.currentTimeMillis() < previous.nextPoll) {
+            LOG.trace("Skipping unchanged SWORD statement <{}>", atomStatementUri);
+            skipped.increment();
+            return previous.state;
+        }
+
+        URLConnection con = resource.getURL().openConnection();
+
+        if (resource instanceof AuthenticatedResource) {
+            ((AuthenticatedResource) resource).authenticate(con);
+        }
+
+        if (previous != null) {
+            if (previous.etag != null) {
+                con.setRequestProperty("If-None-Match", previous.etag);
+            }
+            if (previous.lastModified != null) {
+                con.setRequestProperty("If-Modified-Since", previous.lastModified);
+            }
+        }
+
+        Semaphore limit = maxPerHost > 0 ? hostLimits.computeIfAbsent(resource.getURL().getHost(),
+                                                                      host -> new Semaphore(maxPerHost)) : null;
+
+        if (limit != null) {
+            limit.acquire();
+        }
+
+        URI state;
+
+        try {
+            LOG.trace("Polling SWORD statement <{}>", atomStatementUri);
+            polled.increment();
+
+            if (previous != null && con instanceof HttpURLConnection &&
+                ((HttpURLConnection) con).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                notModified.increment();
+                ((HttpURLConnection) con).disconnect();
+                state = previous.state;
+            } else {
+                try (InputStream in = con.getInputStream()) {
+                    Document<Feed> statementDoc = abderaParser.parse(in);
+                    state = AtomUtil.parseSwordState(statementDoc);
+                }
+            }
+        } finally {
+            if (limit != null) {
+                limit.release();
+            }
+        }
+
+        boolean unchanged = previous != null && (state == null ? previous.state == null :
+                                                 state.equals(previous.state));
+        int unchangedPolls = unchanged ? previous.unchanged + 1 : 0;
+        long nextPoll = 0;
+
+        if (unchanged && backoffInitialMs > 0) {
+            long delay = backoffInitialMs << Math.min(unchangedPolls - 1, 30);
+            nextPoll = System.currentTimeMillis() + Math.min(delay < 0 ? backoffMaxMs : delay, backoffMaxMs);
+        } else if (!unchanged) {
+            changed.increment();
+        }
+
+        String etag = con.getHeaderField("ETag");
+        String lastModified = con.getHeaderField("Last-Modified");
+        Statement current = new Statement(etag != null ? etag : previous == null ? null : previous.etag,
+                                          lastModified != null ? lastModified :
+                                          previous == null ? null : previous.lastModified,
+                                          state, unchangedPolls, nextPoll);
+
+        synchronized (statements) {
+            statements.put(atomStatementUri, current);
+        }
+
+        return state;
+    }
+
+    /**
+     * @return the number of statements requested
+     */
+    public long getPolled() {
+        return polled.sum();
+    }
+
+    /**
+     * @return the number of statements whose state was new or changed when polled
+     */
+    public long getChanged() {
+        return changed.sum();
+    }
+
+    /**
+     * @return the number of polled statements which were not modified
+     */
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    /**
+     * @return the number of statements not polled because their state has not changed recently
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.transport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Idle connections to remote systems, keyed by endpoint and credentials, which can be reused by transport sessions
+ * instead of connecting and authenticating again.
+ * <p>
+ * A connection is {@link #borrow(String) borrowed} when a session is opened and {@link #release(String, Object)
+ * released} when the session is closed.  Connections idle longer than the idle timeout, or that fail the health
+ * check when borrowed, are destroyed.  A pool with a maximum of zero idle connections per key keeps nothing, so every
+ * session connects anew.
+ * </p>
+ *
+ * @param <T> the type of connection
+ */
+public class SessionPool<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionPool.class);
+
+    private final String name;
+
+    private final int maxIdlePerKey;
+
+    private final long idleTimeoutMs;
+
+    private final Predicate<T> healthCheck;
+
+    private final Consumer<T> destroyer;
+
+    private final Map<String, Deque<Idle<T>>> idle = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evicted = new LongAdder();
+
+    private final LongAdder unhealthy = new LongAdder();
+
+    private boolean closed = false;
+
+    private static class Idle<T> {
+        final T connection;
+        final long since;
+
+        Idle(T connection, long since) {
+            this.connection = connection;
+            this.since = since;
+        }
+    }
+
+    /**
+     * @param name          name of the pool used when logging
+     * @param maxIdlePerKey maximum number of idle connections kept for each key, 0 disables pooling
+     * @param idleTimeoutMs milliseconds a connection may be idle before it is destroyed
+     * @param healthCheck   returns {@code true} if a connection is still usable
+     * @param destroyer     closes a connection, must not throw
+     */
+    public SessionPool(String name, int maxIdlePerKey, long idleTimeoutMs, Predicate<T> healthCheck,
+                       Consumer<T> destroyer) {
+        if (maxIdlePerKey < 0) {
+            throw new IllegalArgumentException("Maximum idle connections must not be negative.");
+        }
+        this.name = name;
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.healthCheck = healthCheck;
+        this.destroyer = destroyer;
+    }
+
+    /**
+     * Builds a pool key from an endpoint and credentials.  The password is only represented by its hash code so that
+     * it does not appear in logs.
+     *
+     * @param endpoint the remote endpoint, e.g. host and port or a URL
+     * @param username the user, may be {@code null}
+     * @param password the password, may be {@code null}
+     * @return the key
+     */
+    public static String key(String endpoint, String username, String password) {
+        return username + "@" + endpoint + "#" + Integer.toHexString(Objects.hashCode(password));
+    }
+
+    /**
+     * Takes the most recently used healthy idle connection for the key.  Expired and unhealthy connections found along
+     * the way are destroyed.
+     *
+     * @param key the endpoint and credentials
+     * @return an idle connection, or {@code null} if the caller must connect
+     */
+    public T borrow(String key) {
+        while (true) {
+            Idle<T> candidate;
+
+            synchronized (this) {
+                Deque<Idle<T>> queue = idle.get(key);
+                candidate = queue == null ? null : queue.pollFirst();
+            }
+
+            if (candidate == null) {
+                misses.increment();
+                return null;
+            }
+
+            if (System.currentTimeMillis() - candidate.since > idleTimeoutMs) {
+                evicted.increment();
+                destroy(candidate.connection);
+            } else if (!isHealthy(candidate.connection)) {
+                unhealthy.increment();
+                destroy(candidate.connection);
+            } else {
+                hits.increment();
+                LOG.debug("Reusing {} connection to {}", name, key);
+                return candidate.connection;
+            }
+        }
+    }
+
+    /**
+     * Returns a healthy connection to the pool so that it can be borrowed again.  The connection is destroyed if the
+     * pool is full for the key or closed.
+     *
+     * @param key        the endpoint and credentials the connection was opened with
+     * @param connection the connection
+     */
+    public void release(String key, T connection) {
+        List<Idle<T>> expired = new ArrayList<>();
+        boolean kept = false;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+
+            if (!closed && maxIdlePerKey > 0) {
+                Deque<Idle<T>> queue = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+
+                while (!queue.isEmpty() && now - queue.peekLast().since > idleTimeoutMs) {
+                    expired.add(queue.pollLast());
+                }
+
+                if (queue.size() < maxIdlePerKey) {
+                    queue.addFirst(new Idle<>(connection, now));
+                    kept = true;
+                }
+            }
+        }
+
+        expired.forEach(e -> destroy(e.connection));
+        evicted.add(expired.size());
+
+        if (!kept) {
+            destroy(connection);
+        }
+    }
+
+    /**
+     * Destroys a connection that is broken instead of returning it to the pool.
+     *
+     * @param connection the connection
+     */
+    public void invalidate(T connection) {
+        unhealthy.increment();
+        destroy(connection);
+    }
+
+    /**
+     * Destroys every idle connection.  Connections released afterwards are destroyed.
+     */
+    public void close() {
+        List<Idle<T>> all = new ArrayList<>();
+
+        synchronized (this) {
+            closed = true;
+            idle.values().forEach(all::addAll);
+            idle.clear();
+        }
+
+        all.forEach(e -> destroy(e.connection));
+    }
+
+    /**
+     * @return {@code true} if connections are kept for reuse
+     */
+    public boolean isEnabled() {
+        return maxIdlePerKey > 0;
+    }
+
+    /**
+     * @return the number of idle connections
+     */
+    public synchronized int getIdle() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * @return the number of borrows satisfied by an idle connection
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of borrows which required a new connection
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of connections destroyed because they were idle too long
+     */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return the number of connections destroyed because they failed the health check or were invalidated
+     */
+    public long getUnhealthy() {
+        return unhealthy.sum();
+    }
+
+    private boolean isHealthy(T connection) {
+        try {
+            return healthCheck.test(connection);
+        } catch (RuntimeException e) {
+            LOG.debug("Health check of {} connection failed: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(T connection) {
+        try {
+            destroyer.accept(connection);
+        } catch (RuntimeException e) {
+            LOG.debug("Error closing {} connection: {}", name, e.getMessage(), e);
+        }
+    }
+}
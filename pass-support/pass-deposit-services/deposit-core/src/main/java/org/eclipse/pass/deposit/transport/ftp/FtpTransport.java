@@ -21,16 +21,20 @@ import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static org.eclipse.pass.deposit.transport.ftp.FtpUtil.setTransferMode;
 import static org.eclipse.pass.deposit.transport.ftp.FtpUtil.setWorkingDirectory;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.Map;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.net.ftp.FTPClient;
+import org.eclipse.pass.deposit.transport.SessionPool;
 import org.eclipse.pass.deposit.transport.Transport;
 import org.eclipse.pass.deposit.transport.TransportSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -44,6 +48,11 @@ import org.springframework.stereotype.Component;
  * </ol>
  * In other words, a caller executing a {@link FtpTransport#open(Map)} will receive a {@link FtpTransportSession} that
  * is connected, logged in, and set to a certain working directory.
+ * <p>
+ * Connections are pooled by server, port, and credentials.  When a session is closed after a successful transfer its
+ * connection is kept idle, and the next session opened for the same server reuses it after a {@code NOOP} health check
+ * instead of connecting and logging in again.
+ * </p>
  *
  * Hints accepted by this transport are:
  * <dl>
@@ -72,15 +81,54 @@ public class FtpTransport implements Transport {
 
     private FtpClientFactory ftpClientFactory;
 
+    private final SessionPool<Connection> pool;
+
+    /**
+     * A logged-in FTP client and the directory it was in after login.
+     */
+    static class Connection {
+        final FTPClient ftpClient;
+        final String homeDirectory;
+
+        Connection(FTPClient ftpClient, String homeDirectory) {
+            this.ftpClient = ftpClient;
+            this.homeDirectory = homeDirectory;
+        }
+    }
+
     /**
      * Constructs a new FtpTransport with the supplied {@link FtpClientFactory}.  The client factory is used to create
-     * instances of {@link FTPClient} that underly {@link #open(Map) opened sessions}.
+     * instances of {@link FTPClient} that underly {@link #open(Map) opened sessions}.  Connections are not pooled.
      *
      * @param ftpClientFactory used to create instances of {@link FTPClient}
      */
-    @Autowired
     public FtpTransport(FtpClientFactory ftpClientFactory) {
+        this(ftpClientFactory, 0, 0);
+    }
+
+    /**
+     * Constructs a new FtpTransport with the supplied {@link FtpClientFactory}, keeping up to {@code maxIdlePerKey}
+     * idle connections to each server for reuse.
+     *
+     * @param ftpClientFactory used to create instances of {@link FTPClient}
+     * @param maxIdlePerKey    maximum idle connections kept for each server and user, 0 disables pooling
+     * @param idleTimeoutMs    milliseconds a connection may be idle before it is closed
+     */
+    @Autowired
+    public FtpTransport(FtpClientFactory ftpClientFactory,
+                        @Value("${pass.deposit.transport.pool.max-idle-per-key:0}") int maxIdlePerKey,
+                        @Value("${pass.deposit.transport.pool.idle-timeout-ms:60000}") long idleTimeoutMs) {
         this.ftpClientFactory = ftpClientFactory;
+        this.pool = new SessionPool<>("FTP", maxIdlePerKey, idleTimeoutMs,
+            connection -> connection.ftpClient.isConnected() &&
+                          FtpUtil.performSilently(connection.ftpClient::sendNoOp),
+            connection -> {
+                try {
+                    FtpUtil.disconnect(connection.ftpClient);
+                } catch (IOException e) {
+                    LOG.debug("Error disconnecting pooled FTP client: {}", e.getMessage());
+                }
+            });
     }
 
     @Override
@@ -99,6 +147,19 @@ public class FtpTransport implements Transport {
      */
     @Override
     public TransportSession open(Map<String, String> hints) {
+        Connection pooled = pool.borrow(poolKey(hints));
+
+        if (pooled != null) {
+            try {
+                FtpUtil.performSilently(pooled.ftpClient,
+                    () -> pooled.ftpClient.changeWorkingDirectory(pooled.homeDirectory));
+                return configure(pooled, hints);
+            } catch (RuntimeException e) {
+                LOG.debug("Discarding pooled FTP connection: {}", e.getMessage());
+                pool.invalidate(pooled);
+            }
+        }
+
         return open(ftpClientFactory.newInstance(hints), hints);
     }
 
@@ -117,11 +178,25 @@ public class FtpTransport implements Transport {
     FtpTransportSession open(FTPClient ftpClient, Map<String, String> hints) {
         String serverName = hints.get(TRANSPORT_SERVER_FQDN);
         String serverPort = hints.get(TRANSPORT_SERVER_PORT);
-        String transferMode = hints.get(FtpTransportHints.TRANSFER_MODE);
-        String baseDir = hints.get(FtpTransportHints.BASE_DIRECTORY);
 
         FtpUtil.connect(ftpClient, serverName, Integer.parseInt(serverPort));
         FtpUtil.login(ftpClient, hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD));
+
+        // Remember where the login placed us, so a pooled connection can start from the same directory
+        String homeDirectory = pool.isEnabled() ? FtpUtil.performSilently(ftpClient::printWorkingDirectory) : null;
+
+        return configure(new Connection(ftpClient, homeDirectory), hints);
+    }
+
+    /**
+     * Sets the transfer mode and base directory of a logged-in connection, and wraps it in a session which returns the
+     * connection to the pool when closed.
+     */
+    private FtpTransportSession configure(Connection connection, Map<String, String> hints) {
+        FTPClient ftpClient = connection.ftpClient;
+        String transferMode = hints.get(FtpTransportHints.TRANSFER_MODE);
+        String baseDir = hints.get(FtpTransportHints.BASE_DIRECTORY);
+
         setTransferMode(ftpClient, transferMode);
 
         if (baseDir != null && baseDir.trim().length() > 0) {
@@ -135,9 +210,29 @@ public class FtpTransport implements Transport {
         // Having this value cached will resolve some issues with aborted file transfers and directory listings
         FtpUtil.performSilently(ftpClient, ftpClient::getSystemType);
 
-        FtpTransportSession session = new FtpTransportSession(ftpClient);
+        String key = poolKey(hints);
+        FtpTransportSession session = pool.isEnabled()
+                                      ? new FtpTransportSession(ftpClient, client -> pool.release(key, connection))
+                                      : new FtpTransportSession(ftpClient);
         LOG.debug("Opened {}@{}...", session.getClass().getSimpleName(), toHexString(identityHashCode(session)));
         return session;
     }
 
+    /**
+     * @return the pool of idle FTP connections, exposing its metrics
+     */
+    public SessionPool<?> getPool() {
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.close();
+    }
+
+    private static String poolKey(Map<String, String> hints) {
+        return SessionPool.key(hints.get(TRANSPORT_SERVER_FQDN) + ":" + hints.get(TRANSPORT_SERVER_PORT),
+                               hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD));
+    }
+
 }
@@ -30,9 +30,11 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import org.apache.commons.net.ftp.FTPClient;
 import org.eclipse.pass.deposit.assembler.PackageStream;
@@ -60,11 +62,35 @@ public class FtpTransportSession implements TransportSession {
      */
     private boolean isClosed = false;
 
+    /**
+     * Runs file transfers for every session.  Threads are created on demand and exit when idle.
+     */
+    private static final ExecutorService TRANSFER_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "pass-ftp-transfer-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
     /**
      * Used to submit jobs for transferring files
      */
     private ExecutorService executorService;
 
+    /**
+     * Receives the client on close instead of it being disconnected, may be {@code null}
+     */
+    private Consumer<FTPClient> release;
+
+    /**
+     * Whether or not the most recent transfer failed, in which case the client is not released for reuse
+     */
+    private boolean transferFailed = false;
+
     /**
      * A connected FTP client
      */
@@ -76,12 +102,24 @@ public class FtpTransportSession implements TransportSession {
     private FutureTask<TransportResponse> transfer;
 
     public FtpTransportSession(FTPClient ftpClient) {
-        this(ftpClient, Executors.newSingleThreadExecutor());
+        this(ftpClient, TRANSFER_EXECUTOR, null);
     }
 
-    private FtpTransportSession(FTPClient ftpClient, ExecutorService executorService) {
+    /**
+     * Creates a session whose client is handed to {@code release} when the session is closed, rather than being
+     * disconnected, as long as no transfer failed or was cancelled.
+     *
+     * @param ftpClient a connected and logged in FTP client
+     * @param release   receives the client when the session is closed
+     */
+    FtpTransportSession(FTPClient ftpClient, Consumer<FTPClient> release) {
+        this(ftpClient, TRANSFER_EXECUTOR, release);
+    }
+
+    private FtpTransportSession(FTPClient ftpClient, ExecutorService executorService, Consumer<FTPClient> release) {
         this.executorService = executorService;
         this.ftpClient = ftpClient;
+        this.release = release;
     }
 
     @Override
@@ -100,8 +138,11 @@ public class FtpTransportSession implements TransportSession {
         executorService.submit(transfer);
 
         try {
-            return transfer.get();
+            TransportResponse response = transfer.get();
+            transferFailed = !response.success();
+            return response;
         } catch (InterruptedException e) {
+            transferFailed = true;
             LOG.info(format(ERR_TRANSFER, streamMetadata.name(), "<host>", "<port>", "transfer was cancelled!"));
             return new TransportResponse() {
                 @Override
@@ -115,6 +156,7 @@ public class FtpTransportSession implements TransportSession {
                 }
             };
         } catch (ExecutionException e) {
+            transferFailed = true;
             LOG.info(format(ERR_TRANSFER, streamMetadata.name(), "<host>", "<port>", e.getMessage()), e);
             return new TransportResponse() {
                 @Override
@@ -144,6 +186,7 @@ public class FtpTransportSession implements TransportSession {
             LOG.debug("Closing {}@{}, cancelling pending transfer...",
                       this.getClass().getSimpleName(), toHexString(identityHashCode(this)));
             transfer.cancel(true);
+            transferFailed = true;
         }
 
         if (this.isClosed) {
@@ -152,6 +195,14 @@ public class FtpTransportSession implements TransportSession {
             return;
         }
 
+        if (release != null && !transferFailed) {
+            LOG.debug("Closing {}@{}, releasing the FTP client for reuse.",
+                      this.getClass().getSimpleName(), toHexString(identityHashCode(this)));
+            this.isClosed = true;
+            release.accept(ftpClient);
+            return;
+        }
+
         try {
             FtpUtil.disconnect(ftpClient);
         } catch (IOException e) {
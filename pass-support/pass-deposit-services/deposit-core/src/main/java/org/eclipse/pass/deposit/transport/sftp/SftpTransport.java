@@ -15,20 +15,63 @@
  */
 package org.eclipse.pass.deposit.transport.sftp;
 
+import static org.eclipse.pass.deposit.transport.Transport.TRANSPORT_PASSWORD;
+
+import java.io.IOException;
 import java.util.Map;
+import javax.annotation.PreDestroy;
 
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.config.hosts.HostConfigEntry;
+import org.apache.sshd.client.session.ClientSession;
+import org.eclipse.pass.deposit.transport.SessionPool;
 import org.eclipse.pass.deposit.transport.Transport;
 import org.eclipse.pass.deposit.transport.TransportSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
+ * Opens SFTP transport sessions.  A single SSH client is shared by every session, and authenticated SSH sessions are
+ * pooled by server, port, and credentials so that back-to-back deposits to the same server skip the SSH handshake.
+ *
  * @author Russ Poetker (rpoetke1@jh.edu)
  */
 @Component
 public class SftpTransport implements Transport {
 
+    private static final Logger LOG = LoggerFactory.getLogger(SftpTransport.class);
+
     public static final String SFTP_BASE_DIRECTORY = "deposit.transport.protocol.sftp.basedir";
 
+    private final SessionPool<ClientSession> pool;
+
+    private SshClient sshClient;
+
+    public SftpTransport() {
+        this(0, 0);
+    }
+
+    /**
+     * @param maxIdlePerKey maximum idle SSH sessions kept for each server and user, 0 disables pooling
+     * @param idleTimeoutMs milliseconds an SSH session may be idle before it is closed
+     */
+    @Autowired
+    public SftpTransport(@Value("${pass.deposit.transport.pool.max-idle-per-key:0}") int maxIdlePerKey,
+                         @Value("${pass.deposit.transport.pool.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.pool = new SessionPool<>("SFTP", maxIdlePerKey, idleTimeoutMs,
+            session -> session.isOpen() && session.isAuthenticated(),
+            session -> {
+                try {
+                    session.close();
+                } catch (IOException e) {
+                    LOG.debug("Error closing pooled SSH session: {}", e.getMessage());
+                }
+            });
+    }
+
     @Override
     public PROTOCOL protocol() {
         return PROTOCOL.sftp;
@@ -36,6 +79,76 @@ public class SftpTransport implements Transport {
 
     @Override
     public TransportSession open(Map<String, String> hints) {
-        return new SftpTransportSession(hints);
+        return new SftpTransportSession(hints, this);
+    }
+
+    /**
+     * @return the pool of idle SSH sessions, exposing its metrics
+     */
+    public SessionPool<?> getPool() {
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        pool.close();
+
+        if (sshClient != null) {
+            sshClient.stop();
+            sshClient = null;
+        }
+    }
+
+    /**
+     * Borrows an authenticated SSH session for the server, connecting and authenticating if none is idle.
+     *
+     * @param key             pool key of the server and credentials
+     * @param hostConfigEntry the server and user
+     * @param transportProps  transport hints carrying the password
+     * @return an authenticated session
+     * @throws IOException if the connection or authentication fails
+     */
+    ClientSession borrowSession(String key, HostConfigEntry hostConfigEntry, Map<String, String> transportProps)
+        throws IOException {
+        ClientSession session = pool.borrow(key);
+
+        if (session != null) {
+            return session;
+        }
+
+        session = getSshClient().connect(hostConfigEntry).verify().getClientSession();
+
+        try {
+            session.addPasswordIdentity(transportProps.get(TRANSPORT_PASSWORD));
+            session.auth().verify();
+        } catch (IOException | RuntimeException e) {
+            session.close();
+            throw e;
+        }
+
+        return session;
+    }
+
+    /**
+     * Returns a session to the pool, or closes it if it may be broken.
+     *
+     * @param key     pool key of the server and credentials
+     * @param session the session
+     * @param healthy whether the session was used without error
+     */
+    void releaseSession(String key, ClientSession session, boolean healthy) {
+        if (healthy) {
+            pool.release(key, session);
+        } else {
+            pool.invalidate(session);
+        }
+    }
+
+    private synchronized SshClient getSshClient() {
+        if (sshClient == null) {
+            sshClient = SshClient.setUpDefaultClient();
+            sshClient.start();
+        }
+        return sshClient;
     }
 }
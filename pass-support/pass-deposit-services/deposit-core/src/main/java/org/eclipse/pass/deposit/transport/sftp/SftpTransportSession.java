@@ -33,7 +33,6 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.sshd.client.SshClient;
 import org.apache.sshd.client.config.hosts.HostConfigEntry;
 import org.apache.sshd.client.session.ClientSession;
 import org.apache.sshd.sftp.client.SftpClient;
@@ -42,6 +41,7 @@ import org.apache.sshd.sftp.common.SftpConstants;
 import org.apache.sshd.sftp.common.SftpException;
 import org.eclipse.pass.deposit.DepositServiceRuntimeException;
 import org.eclipse.pass.deposit.assembler.PackageStream;
+import org.eclipse.pass.deposit.transport.SessionPool;
 import org.eclipse.pass.deposit.transport.TransportResponse;
 import org.eclipse.pass.deposit.transport.TransportSession;
 
@@ -52,8 +52,11 @@ class SftpTransportSession implements TransportSession {
 
     private final Map<String, String> transportProps;
 
-    SftpTransportSession(Map<String, String> transportProps) {
+    private final SftpTransport transport;
+
+    SftpTransportSession(Map<String, String> transportProps, SftpTransport transport) {
         this.transportProps = transportProps;
+        this.transport = transport;
     }
 
     @Override
@@ -61,17 +64,23 @@ class SftpTransportSession implements TransportSession {
         PackageStream.Metadata streamMetadata = packageStream.metadata();
         String fileName = streamMetadata.name();
 
-        try (SshClient sshClient = SshClient.setUpDefaultClient()) {
-            sshClient.start();
-            HostConfigEntry hostConfigEntry = buildHostConfig();
-            try (ClientSession clientSession = sshClient.connect(hostConfigEntry).verify().getClientSession()) {
-                String password = transportProps.get(TRANSPORT_PASSWORD);
-                clientSession.addPasswordIdentity(password);
-                clientSession.auth().verify();
-                return writeFile(clientSession, packageStream, fileName);
-            }
+        HostConfigEntry hostConfigEntry = buildHostConfig();
+        String key = SessionPool.key(hostConfigEntry.getHostName() + ":" + hostConfigEntry.getPort(),
+                                     hostConfigEntry.getUsername(), transportProps.get(TRANSPORT_PASSWORD));
+        ClientSession clientSession = null;
+        boolean healthy = false;
+
+        try {
+            clientSession = transport.borrowSession(key, hostConfigEntry, transportProps);
+            TransportResponse response = writeFile(clientSession, packageStream, fileName);
+            healthy = true;
+            return response;
         } catch (IOException e) {
             throw new RuntimeException("Error writing package to SFTP server", e);
+        } finally {
+            if (clientSession != null) {
+                transport.releaseSession(key, clientSession, healthy);
+            }
         }
     }
 
@@ -149,6 +158,6 @@ class SftpTransportSession implements TransportSession {
 
     @Override
     public void close() throws Exception {
-        // no-op resources are closed with try-with-resources
+        // no-op the SSH session is released after each send
     }
 }
@@ -18,10 +18,14 @@ package org.eclipse.pass.deposit.transport.sword2;
 import static org.eclipse.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_SERVICE_DOC_URL;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.pass.deposit.assembler.PackageStream;
+import org.eclipse.pass.deposit.transport.SessionPool;
 import org.eclipse.pass.deposit.transport.Transport;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.swordapp.client.AuthCredentials;
 import org.swordapp.client.SWORDClient;
@@ -41,6 +45,11 @@ import org.swordapp.client.ServiceDocument;
  * that is configured with a {@code SWORDClient}, working authentication credentials (potentially acting on behalf of
  * a user), and the {@code ServiceDocument} located at the {@link Sword2TransportHints#SWORD_SERVICE_DOC_URL service
  * document URL}.
+ * <p>
+ * Service documents are cached by URL and credentials for a configurable time to live, so back-to-back deposits to the
+ * same repository do not download the service document again.  A cached service document is shared by the sessions
+ * opened with it, which serialize their reads of it because it is parsed lazily.
+ * </p>
  *
  * Hints accepted by this transport are:
  * <dl>
@@ -72,12 +81,40 @@ public class Sword2Transport implements Transport {
 
     private Sword2ClientFactory clientFactory;
 
-    @Autowired
+    private final long serviceDocTtlMs;
+
+    private final Map<String, CachedServiceDocument> serviceDocs = new ConcurrentHashMap<>();
+
+    private final LongAdder serviceDocHits = new LongAdder();
+
+    private final LongAdder serviceDocMisses = new LongAdder();
+
+    private static class CachedServiceDocument {
+        final ServiceDocument document;
+        final long expires;
+
+        CachedServiceDocument(ServiceDocument document, long expires) {
+            this.document = document;
+            this.expires = expires;
+        }
+    }
+
     public Sword2Transport(Sword2ClientFactory clientFactory) {
+        this(clientFactory, 0);
+    }
+
+    /**
+     * @param clientFactory    creates SWORD clients
+     * @param serviceDocTtlMs milliseconds a service document is cached, 0 to retrieve it for every session
+     */
+    @Autowired
+    public Sword2Transport(Sword2ClientFactory clientFactory,
+                           @Value("${pass.deposit.transport.swordv2.service-doc-ttl-ms:0}") long serviceDocTtlMs) {
         if (clientFactory == null) {
             throw new IllegalArgumentException("SWORD client factory must not be null.");
         }
         this.clientFactory = clientFactory;
+        this.serviceDocTtlMs = serviceDocTtlMs;
     }
 
     @Override
@@ -129,7 +166,7 @@ public class Sword2Transport implements Transport {
                 authCreds = new AuthCredentials(hints.get(TRANSPORT_USERNAME), hints.get(TRANSPORT_PASSWORD));
             }
 
-            serviceDocument = client.getServiceDocument(serviceDocUrl, authCreds);
+            serviceDocument = getServiceDocument(client, serviceDocUrl, authCreds);
         } catch (Exception e) {
             throw new RuntimeException("Error reading or parsing SWORD service document '" + serviceDocUrl + "'", e);
         }
@@ -137,6 +174,52 @@ public class Sword2Transport implements Transport {
         return new Sword2TransportSession(client, serviceDocument, authCreds);
     }
 
+    /**
+     * @return the number of sessions opened with a cached service document
+     */
+    public long getServiceDocHits() {
+        return serviceDocHits.sum();
+    }
+
+    /**
+     * @return the number of sessions which retrieved the service document
+     */
+    public long getServiceDocMisses() {
+        return serviceDocMisses.sum();
+    }
+
+    /**
+     * Answers the cached service document for the URL and credentials if it has not expired, otherwise retrieves it
+     * with the supplied client.
+     */
+    private ServiceDocument getServiceDocument(SWORDClient client, String serviceDocUrl, AuthCredentials authCreds)
+        throws Exception {
+        if (serviceDocTtlMs <= 0) {
+            serviceDocMisses.increment();
+            return client.getServiceDocument(serviceDocUrl, authCreds);
+        }
+
+        String key = SessionPool.key(serviceDocUrl, authCreds.getUsername() + "/" + authCreds.getOnBehalfOf(),
+                                     authCreds.getPassword());
+        CachedServiceDocument cached = serviceDocs.get(key);
+        long now = System.currentTimeMillis();
+
+        if (cached != null && cached.expires > now) {
+            serviceDocHits.increment();
+            return cached.document;
+        }
+
+        serviceDocMisses.increment();
+        ServiceDocument document = client.getServiceDocument(serviceDocUrl, authCreds);
+
+        // A failed retrieval returns null, which is not cached
+        if (document != null) {
+            serviceDocs.put(key, new CachedServiceDocument(document, now + serviceDocTtlMs));
+        }
+
+        return document;
+    }
+
     /**
      * Obtains the SWORD Service Document URL from the supplied hints, or throws a {@code RuntimeException}.
      *
@@ -271,20 +271,22 @@ public class Sword2TransportSession implements TransportSession {
 
         final String cUrl = collectionUrl;
 
-        SWORDCollection collection = serviceDoc.getWorkspaces()
-                   .stream()
-                   .flatMap(workspace -> workspace.getCollections().stream())
-                   // TODO is collectionUrl encoded (fingers crossed)?  Just concerned
-                   //  that a user-encoded
-                   //   collection URL in the hints mapping may not match what is returned by the service document
-                   .filter(collectionCandidate -> collectionCandidate.getHref().toString()
-                                                                     .equals(cUrl))
-                   .findAny()
-                   .orElseThrow(() ->
-                                    new InvalidCollectionUrl(
-                                        "SWORD Collection with URL '" + cUrl + "' not found."));
-
-        return collection;
+        // A cached service document is shared by sessions, and reading it may parse more of the underlying document.
+        // The parser is not thread safe, so reads of the document are serialized.
+        synchronized (serviceDoc) {
+            return serviceDoc.getWorkspaces()
+                       .stream()
+                       .flatMap(workspace -> workspace.getCollections().stream())
+                       // TODO is collectionUrl encoded (fingers crossed)?  Just concerned
+                       //  that a user-encoded
+                       //   collection URL in the hints mapping may not match what is returned by the service document
+                       .filter(collectionCandidate -> collectionCandidate.getHref().toString()
+                                                                         .equals(cUrl))
+                       .findAny()
+                       .orElseThrow(() ->
+                                        new InvalidCollectionUrl(
+                                            "SWORD Collection with URL '" + cUrl + "' not found."));
+        }
     }
 
     /**
@@ -295,4 +297,13 @@ public class Sword2TransportSession implements TransportSession {
     AuthCredentials getAuthCreds() {
         return authCreds;
     }
+
+    /**
+     * Exposed for unit testing only.
+     *
+     * @return the SWORD service document
+     */
+    ServiceDocument getServiceDocument() {
+        return serviceDocument;
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.assembler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.pass.deposit.model.DepositFile;
+import org.eclipse.pass.deposit.model.DepositSubmission;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+
+public class ArchivingPackageStreamTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ArchivingPackageStreamTest.class);
+
+    private static final int ONE_MIB = 1024 * 1024;
+
+    private static final PackageProvider PACKAGE_PROVIDER = new PackageProvider() {
+        @Override
+        public void start(DepositSubmission submission, List<DepositFileResource> custodialResources,
+                          Map<String, Object> packageOptions) {
+            // no-op
+        }
+
+        @Override
+        public String packagePath(DepositFileResource custodialResource) {
+            return custodialResource.getDepositFile().getName();
+        }
+
+        @Override
+        public List<SupplementalResource> finish(DepositSubmission submission,
+                                                 List<PackageStream.Resource> packageResources) {
+            return Collections.emptyList();
+        }
+    };
+
+    @Test
+    public void testPipeSizeOption() {
+        assertEquals(ArchivingPackageStream.DEFAULT_PIPE_SIZE, ArchivingPackageStream.pipeSize(new HashMap<>()));
+        assertEquals(ONE_MIB, ArchivingPackageStream.DEFAULT_PIPE_SIZE);
+        assertEquals(4096, ArchivingPackageStream.pipeSize(Map.of(ArchivingPackageStream.PIPE_SIZE, 4096)));
+        assertEquals(4096, ArchivingPackageStream.pipeSize(Map.of(ArchivingPackageStream.PIPE_SIZE, "4096")));
+        assertThrows(IllegalArgumentException.class,
+            () -> ArchivingPackageStream.pipeSize(Map.of(ArchivingPackageStream.PIPE_SIZE, "moo")));
+        assertThrows(IllegalArgumentException.class,
+            () -> ArchivingPackageStream.pipeSize(Map.of(ArchivingPackageStream.PIPE_SIZE, 0)));
+    }
+
+    @Test
+    public void testSmallPipe() throws IOException {
+        List<DepositFileResource> files = files(4, 64 * 1024);
+
+        assertTrue(streamPackage(files, 512) > 4 * 64 * 1024);
+    }
+
+    /**
+     * Measure the throughput of streaming an uncompressed tar package through pipes of different sizes. The size of
+     * the package in MiB and the pipe sizes in bytes can be set with the system properties
+     * pass.deposit.bench.package-mib and pass.deposit.bench.pipe-sizes.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkPipeSize() throws IOException {
+        int packageMib = Integer.getInteger("pass.deposit.bench.package-mib", 16);
+        String pipeSizes = System.getProperty("pass.deposit.bench.pipe-sizes", "512,65536,1048576");
+
+        List<DepositFileResource> files = files(4, packageMib * ONE_MIB / 4);
+
+        for (int pipeSize : Arrays.stream(pipeSizes.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray()) {
+            long start = System.nanoTime();
+            long read = streamPackage(files, pipeSize);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertTrue(read > (long) packageMib * ONE_MIB);
+
+            LOG.info("Streamed {} MiB package through a {} byte pipe in {}s, {} MiB/s", packageMib, pipeSize,
+                String.format("%.2f", seconds), String.format("%.1f", read / (double) ONE_MIB / seconds));
+        }
+    }
+
+    // Stream an uncompressed tar package of the files through a pipe of the given size and return its length
+    private static long streamPackage(List<DepositFileResource> files, int pipeSize) throws IOException {
+        Map<String, Object> options = new HashMap<>();
+        options.put(PackageOptions.Archive.KEY, PackageOptions.Archive.OPTS.TAR);
+        options.put(PackageOptions.Compression.KEY, PackageOptions.Compression.OPTS.NONE);
+        options.put(ArchivingPackageStream.PIPE_SIZE, pipeSize);
+
+        DepositSubmission submission = new DepositSubmission();
+        submission.setName("bench");
+
+        ArchivingPackageStream stream = new ArchivingPackageStream(submission, files, new MetadataBuilderImpl(),
+            new DefaultResourceBuilderFactory(), options, PACKAGE_PROVIDER);
+
+        long read = 0;
+
+        try (InputStream in = stream.open()) {
+            byte[] buf = new byte[8192];
+            int n;
+
+            while ((n = in.read(buf)) != -1) {
+                read += n;
+            }
+        }
+
+        return read;
+    }
+
+    private static List<DepositFileResource> files(int count, int size) {
+        Random random = new Random(1);
+        List<DepositFileResource> result = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            byte[] content = new byte[size];
+            random.nextBytes(content);
+
+            DepositFile file = new DepositFile();
+            file.setName("file-" + i + ".bin");
+
+            result.add(new DepositFileResource(file, new ByteArrayResource(content)));
+        }
+
+        return result;
+    }
+}
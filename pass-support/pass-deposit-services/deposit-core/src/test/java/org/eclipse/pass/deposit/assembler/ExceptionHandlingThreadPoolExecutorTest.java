@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.assembler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ExceptionHandlingThreadPoolExecutorTest {
+
+    private ExceptionHandlingThreadPoolExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionIsRoutedToTaskHandler() throws Exception {
+        executor = ExceptionHandlingThreadPoolExecutor.newAssemblerExecutor(2, 2, 1);
+
+        AtomicReference<Throwable> executorEx = new AtomicReference<>();
+        CompletableFuture<Throwable> failingEx = new CompletableFuture<>();
+        CompletableFuture<Throwable> succeedingEx = new CompletableFuture<>();
+        RuntimeException failure = new RuntimeException("Expected");
+
+        executor.setExceptionHandler((r, t) -> executorEx.set(t));
+
+        Future<?> failing = executor.submit(() -> {
+            throw failure;
+        }, (r, t) -> failingEx.complete(t));
+        Future<?> succeeding = executor.submit(() -> "ok", (r, t) -> succeedingEx.complete(t));
+
+        assertSame(failure, failingEx.get(10, TimeUnit.SECONDS));
+        assertEquals("ok", succeeding.get(10, TimeUnit.SECONDS));
+        assertTrue(failing.isDone());
+        assertFalse(succeedingEx.isDone());
+        assertNull(executorEx.get());
+    }
+
+    @Test
+    public void testSubmissionBlocksWhenQueueIsFull() throws Exception {
+        executor = ExceptionHandlingThreadPoolExecutor.newAssemblerExecutor(1, 1, 10);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        executor.submit(() -> {
+            running.countDown();
+            release.await();
+            return null;
+        }, null);
+
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        // Fills the queue
+        executor.submit(() -> null, null);
+
+        CompletableFuture<Future<Object>> blocked = CompletableFuture.supplyAsync(
+            () -> executor.submit(() -> "done", null));
+
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        assertEquals(1, executor.getQueueDepth());
+
+        release.countDown();
+
+        assertEquals("done", blocked.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        assertEquals(1, executor.getBlockedSubmissions());
+    }
+
+    @Test
+    public void testSubmissionTimesOut() throws Exception {
+        executor = ExceptionHandlingThreadPoolExecutor.newAssemblerExecutor(1, 1, 0);
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            executor.submit(() -> {
+                release.await();
+                return null;
+            }, null);
+            executor.submit(() -> null, null);
+
+            assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> null, null));
+        } finally {
+            release.countDown();
+        }
+    }
+}
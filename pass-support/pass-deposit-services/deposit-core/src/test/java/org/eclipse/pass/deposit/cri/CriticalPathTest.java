@@ -0,0 +1,193 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.cri;
+
+import static org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction.idempotent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction.CriticalResult;
+import org.eclipse.pass.support.client.OptimisticLockException;
+import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.model.Deposit;
+import org.eclipse.pass.support.client.model.DepositStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CriticalPathTest {
+
+    private PassClient passClient;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        passClient = mock(PassClient.class);
+        when(passClient.getObject(eq(Deposit.class), anyString())).thenAnswer(inv -> new Deposit((String) inv.getArgument(1)));
+        when(passClient.getObject(any(Deposit.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    public void testContendedLockIsCounted() throws Exception {
+        CriticalPath cp = new CriticalPath(passClient, new StripedCriticalLockProvider());
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<CriticalResult<Deposit, Deposit>> first = exec.submit(() ->
+                cp.performCritical("1", Deposit.class, d -> true, (d, r) -> true, d -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return d;
+                }, false));
+
+            assertTrue(inside.await(10, TimeUnit.SECONDS));
+
+            Future<CriticalResult<Deposit, Deposit>> second = exec.submit(() ->
+                cp.performCritical("1", Deposit.class, d -> true, (d, r) -> true, d -> {
+                    d.setDepositStatus(DepositStatus.SUBMITTED);
+                    return d;
+                }, true));
+
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+
+            release.countDown();
+
+            assertTrue(first.get(10, TimeUnit.SECONDS).success());
+            assertTrue(second.get(10, TimeUnit.SECONDS).success());
+        } finally {
+            release.countDown();
+            exec.shutdownNow();
+        }
+
+        assertEquals(2, cp.getLockAcquisitions());
+        assertEquals(1, cp.getLockContentions());
+        assertTrue(cp.getLockWaitMillis() > 0);
+    }
+
+    @Test
+    public void testLockFailureShortCircuits() throws Exception {
+        IOException failure = new IOException("No lock");
+        CriticalPath cp = new CriticalPath(passClient, key -> {
+            throw failure;
+        });
+
+        CriticalResult<Deposit, Deposit> result = cp.performCritical("1", Deposit.class, d -> true,
+            (d, r) -> true, d -> d, true);
+
+        assertFalse(result.success());
+        assertSame(failure, result.throwable().get());
+        verify(passClient, never()).getObject(eq(Deposit.class), anyString());
+        assertEquals(0, cp.getLockAcquisitions());
+    }
+
+    @Test
+    public void testStripedLocksAreReleased() {
+        StripedCriticalLockProvider provider = new StripedCriticalLockProvider(1);
+
+        try (CriticalLockProvider.CriticalLock lock = provider.lock("a")) {
+            assertFalse(lock.isContended());
+        }
+
+        // A single stripe is shared by every key
+        try (CriticalLockProvider.CriticalLock lock = provider.lock("b")) {
+            assertFalse(lock.isContended());
+        }
+    }
+
+    @Test
+    public void testOptimisticRetriesConflict() throws Exception {
+        CriticalPath cp = new CriticalPath(passClient, key -> {
+            throw new IOException("Versioned resources are not locked");
+        }, true, 3, 1);
+
+        doThrow(new OptimisticLockException("Conflict")).doNothing().when(passClient).updateObject(any());
+
+        int[] calls = {0};
+        CriticalResult<Integer, Deposit> result = cp.performCritical("1", Deposit.class,
+            d -> d.getDepositStatus() == null, (d, r) -> d.getDepositStatus() == DepositStatus.SUBMITTED,
+            idempotent(d -> {
+                d.setDepositStatus(DepositStatus.SUBMITTED);
+                return ++calls[0];
+            }), true);
+
+        assertTrue(result.success());
+        assertEquals(2, result.result().get());
+        assertEquals(1, cp.getOptimisticConflicts());
+        assertEquals(0, cp.getLockAcquisitions());
+        verify(passClient, times(2)).getObject(eq(Deposit.class), eq("1"));
+        verify(passClient, never()).getObject(any(Deposit.class));
+    }
+
+    @Test
+    public void testOptimisticGivesUp() throws Exception {
+        CriticalPath cp = new CriticalPath(passClient, new StripedCriticalLockProvider(), true, 3, 1);
+        OptimisticLockException conflict = new OptimisticLockException("Conflict");
+
+        doThrow(conflict).when(passClient).updateObject(any());
+
+        CriticalResult<Deposit, Deposit> result = cp.performCritical("1", Deposit.class, d -> true,
+            (d, r) -> true, idempotent(d -> d), true);
+
+        assertFalse(result.success());
+        assertSame(conflict, result.throwable().get());
+        assertEquals(3, cp.getOptimisticConflicts());
+        verify(passClient, times(3)).updateObject(any());
+    }
+
+    @Test
+    public void testOptimisticLocksCriticalWithSideEffects() throws Exception {
+        CriticalPath cp = new CriticalPath(passClient, new StripedCriticalLockProvider(), true, 3, 1);
+        OptimisticLockException conflict = new OptimisticLockException("Conflict");
+
+        doThrow(conflict).when(passClient).updateObject(any());
+
+        int[] calls = {0};
+        CriticalResult<Integer, Deposit> result = cp.performCritical("1", Deposit.class, d -> true,
+            (d, r) -> true, d -> ++calls[0], true);
+
+        // The critical function is not marked idempotent, so it is applied once under a lock and never retried
+        assertFalse(result.success());
+        assertSame(conflict, result.throwable().get());
+        assertEquals(1, calls[0]);
+        assertEquals(1, cp.getLockAcquisitions());
+        assertEquals(0, cp.getOptimisticConflicts());
+        verify(passClient, times(1)).updateObject(any());
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.cri;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class PostgresCriticalLockProviderTest {
+
+    @Test
+    public void requiresPassword() {
+        assertThrows(IllegalArgumentException.class, () -> new PostgresCriticalLockProvider(
+            "jdbc:postgresql://localhost:5432/pass", "pass", "", 2, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PostgresCriticalLockProvider(
+            "jdbc:postgresql://localhost:5432/pass", "pass", null, 2, 1, 0));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class DepositStatusSchedulerTest {
+
+    @Test
+    public void testRescheduledUntilResolved() throws Exception {
+        DepositStatusScheduler scheduler = new DepositStatusScheduler(1, 5, 1);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        try {
+            scheduler.schedule("1", id -> {
+                boolean resolved = calls.incrementAndGet() == 3;
+                if (resolved) {
+                    done.countDown();
+                }
+                return resolved;
+            });
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+
+        assertEquals(3, calls.get());
+        assertEquals(1, scheduler.getScheduled());
+        assertEquals(1, scheduler.getResolved());
+        assertEquals(0, scheduler.getAbandoned());
+    }
+
+    @Test
+    public void testAbandonedAfterMaxAttempts() throws Exception {
+        DepositStatusScheduler scheduler = new DepositStatusScheduler(1, 2, 1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        try {
+            scheduler.schedule("1", id -> {
+                done.countDown();
+                return false;
+            });
+            scheduler.schedule("2", id -> {
+                throw new RuntimeException("Status document unavailable");
+            });
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (scheduler.getAbandoned() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+
+        assertEquals(3, scheduler.getChecks());
+        assertEquals(2, scheduler.getAbandoned());
+        assertEquals(0, scheduler.getResolved());
+    }
+
+    @Test
+    public void testDisabled() {
+        DepositStatusScheduler scheduler = new DepositStatusScheduler(0, 3, 1);
+
+        scheduler.schedule("1", id -> {
+            throw new IllegalStateException("Should not be checked");
+        });
+
+        assertFalse(scheduler.isEnabled());
+        assertEquals(0, scheduler.getScheduled());
+        assertEquals(0, scheduler.getPending());
+        scheduler.shutdown();
+    }
+}
@@ -18,10 +18,14 @@ package org.eclipse.pass.deposit.service;
 import static org.eclipse.pass.deposit.DepositMessagingTestUtil.randomId;
 import static org.eclipse.pass.deposit.DepositMessagingTestUtil.randomIntermediateDepositStatus;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -30,15 +34,18 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.abdera.i18n.iri.IRI;
+import org.eclipse.pass.deposit.DepositServiceRuntimeException;
 import org.eclipse.pass.deposit.assembler.Assembler;
 import org.eclipse.pass.deposit.assembler.PackageStream;
 import org.eclipse.pass.deposit.cri.CriticalPath;
 import org.eclipse.pass.deposit.cri.CriticalRepositoryInteraction;
+import org.eclipse.pass.deposit.cri.StripedCriticalLockProvider;
 import org.eclipse.pass.deposit.model.Packager;
 import org.eclipse.pass.deposit.transport.Transport;
 import org.eclipse.pass.deposit.transport.TransportResponse;
 import org.eclipse.pass.deposit.transport.TransportSession;
 import org.eclipse.pass.deposit.transport.sword2.Sword2DepositReceiptResponse;
+import org.eclipse.pass.support.client.OptimisticLockException;
 import org.eclipse.pass.support.client.PassClient;
 import org.eclipse.pass.support.client.model.AggregatedDepositStatus;
 import org.eclipse.pass.support.client.model.Deposit;
@@ -89,7 +96,6 @@ public class DepositTaskTest {
 
         Deposit d = depositContext(dc, tr, passClient);
 
-        depositTask.setSwordSleepTimeMs(1); // move things along...
         depositTask.setReplacementPrefix(replacement);
         depositTask.setPrefixToMatch(prefix);
 
@@ -116,7 +122,6 @@ public class DepositTaskTest {
 
         Deposit d = depositContext(dc, tr, passClient);
 
-        depositTask.setSwordSleepTimeMs(1); // move things along...
         depositTask.setReplacementPrefix(replacement);
         depositTask.setPrefixToMatch(prefix);
 
@@ -144,7 +149,6 @@ public class DepositTaskTest {
 
         Deposit d = depositContext(dc, tr, passClient);
 
-        depositTask.setSwordSleepTimeMs(1); // move things along...
         depositTask.setReplacementPrefix(replacement);
         depositTask.setPrefixToMatch(prefix);
 
@@ -153,6 +157,24 @@ public class DepositTaskTest {
         assertEquals(href, d.getDepositStatusRef());
     }
 
+    @Test
+    public void optimisticConflictAfterSendDoesNotResend() throws Exception {
+        CriticalRepositoryInteraction cri = new CriticalPath(passClient, new StripedCriticalLockProvider(), true, 5,
+            0);
+        depositTask = new DepositTask(dc, passClient, cri);
+
+        Deposit d = depositContext(dc, mock(TransportResponse.class), passClient);
+
+        // The update of the Deposit after the package is sent is rejected with a 409
+        doThrow(new OptimisticLockException("Conflict")).when(passClient).updateObject(d);
+
+        assertThrows(DepositServiceRuntimeException.class, () -> depositTask.executeDeposit());
+
+        TransportSession session = dc.packager().getTransport().open(Map.of());
+        verify(session, times(1)).send(any(), any());
+        verify(passClient, times(1)).updateObject(d);
+    }
+
     /**
      * Populates the supplied {@code depositContext} with a {@code Repository}, {@code Submission} and
      * {@code Deposit}.
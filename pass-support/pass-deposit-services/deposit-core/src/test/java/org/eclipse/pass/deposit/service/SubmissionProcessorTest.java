@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
@@ -37,10 +38,14 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiPredicate;
 
 import org.eclipse.pass.deposit.DepositServiceErrorHandler;
@@ -53,6 +58,7 @@ import org.eclipse.pass.deposit.model.DepositFile;
 import org.eclipse.pass.deposit.model.DepositSubmission;
 import org.eclipse.pass.deposit.model.Packager;
 import org.eclipse.pass.deposit.model.Registry;
+import org.eclipse.pass.deposit.transport.Transport;
 import org.eclipse.pass.support.client.PassClient;
 import org.eclipse.pass.support.client.model.AggregatedDepositStatus;
 import org.eclipse.pass.support.client.model.Deposit;
@@ -244,6 +250,141 @@ public class SubmissionProcessorTest {
                 any(Packager.class));
     }
 
+    /**
+     * When deposits fan out, the failure of the deposit to one Repository is handled and does not prevent the
+     * deposits to the other Repositories.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void fanOutIsolatesDepositFailures() throws Exception {
+        DepositTaskHelper mockHelper = mock(DepositTaskHelper.class);
+        DepositServiceErrorHandler depositServiceErrorHandler = mock(DepositServiceErrorHandler.class);
+        DepositFanOut fanOut = new DepositFanOut(true, 2, "SWORDv2=1");
+        submissionProcessor = new SubmissionProcessor(passClient, depositSubmissionModelBuilder, packagerRegistry,
+            mockHelper, cri, depositServiceErrorHandler, fanOut);
+
+        Repository repository1 = mock(Repository.class);
+        when(repository1.getName()).thenReturn("repo-1-name");
+        Repository repository2 = mock(Repository.class);
+        when(repository2.getName()).thenReturn("repo-2-name");
+        List<Repository> repositories = List.of(repository1, repository2);
+
+        Submission submission = new Submission();
+        submission.setId("test-submission-id");
+        submission.setRepositories(repositories);
+        submission.setAggregatedDepositStatus(AggregatedDepositStatus.IN_PROGRESS);
+        DepositSubmission depositSubmission = new DepositSubmission();
+
+        CriticalResult<DepositSubmission, Submission> criResult = mock(CriticalResult.class);
+        when(criResult.success()).thenReturn(true);
+        when(criResult.resource()).thenReturn(Optional.of(submission));
+        when(criResult.result()).thenReturn(Optional.of(depositSubmission));
+        when(cri.performCritical(any(), any(), any(), any(BiPredicate.class), any())).thenReturn(criResult);
+
+        for (Repository repo : repositories) {
+            when(passClient.getObject(repo)).thenReturn(repo);
+            when(packagerRegistry.get(repo.getName())).thenReturn(mock(Packager.class));
+        }
+
+        DepositServiceRuntimeException failure = new DepositServiceRuntimeException("Deposit failed");
+        doThrow(failure).when(mockHelper).submitDeposit(any(), any(), eq(repository1), any(), any());
+
+        try {
+            DepositServiceRuntimeException thrown = assertThrows(DepositServiceRuntimeException.class,
+                () -> submissionProcessor.accept(submission));
+
+            assertSame(failure, thrown);
+            verify(depositServiceErrorHandler).handleError(failure);
+            verify(mockHelper).submitDeposit(eq(submission), eq(depositSubmission), eq(repository2),
+                any(Deposit.class), any(Packager.class));
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    /**
+     * When deposits fan out, no more deposits than the limit of a transport protocol run at once, and the permit of a
+     * failed deposit is released.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void fanOutLimitsDepositsPerTransport() throws Exception {
+        DepositTaskHelper mockHelper = mock(DepositTaskHelper.class);
+        DepositServiceErrorHandler depositServiceErrorHandler = mock(DepositServiceErrorHandler.class);
+        DepositFanOut fanOut = new DepositFanOut(true, 4, "SWORDv2=2");
+        submissionProcessor = new SubmissionProcessor(passClient, depositSubmissionModelBuilder, packagerRegistry,
+            mockHelper, cri, depositServiceErrorHandler, fanOut);
+
+        Transport transport = mock(Transport.class);
+        when(transport.protocol()).thenReturn(Transport.PROTOCOL.SWORDv2);
+        Packager packager = mock(Packager.class);
+        when(packager.getTransport()).thenReturn(transport);
+
+        List<Repository> repositories = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            Repository repo = mock(Repository.class);
+            when(repo.getName()).thenReturn("repo-" + i + "-name");
+            when(passClient.getObject(repo)).thenReturn(repo);
+            when(packagerRegistry.get(repo.getName())).thenReturn(packager);
+            repositories.add(repo);
+        }
+
+        Submission submission = new Submission();
+        submission.setId("test-submission-id");
+        submission.setRepositories(repositories);
+        submission.setAggregatedDepositStatus(AggregatedDepositStatus.IN_PROGRESS);
+        DepositSubmission depositSubmission = new DepositSubmission();
+
+        CriticalResult<DepositSubmission, Submission> criResult = mock(CriticalResult.class);
+        when(criResult.success()).thenReturn(true);
+        when(criResult.resource()).thenReturn(Optional.of(submission));
+        when(criResult.result()).thenReturn(Optional.of(depositSubmission));
+        when(cri.performCritical(any(), any(), any(), any(BiPredicate.class), any())).thenReturn(criResult);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        DepositServiceRuntimeException failure = new DepositServiceRuntimeException("Deposit failed");
+
+        doAnswer(inv -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(100);
+            } finally {
+                running.decrementAndGet();
+            }
+
+            if (inv.getArgument(2) == repositories.get(0)) {
+                throw failure;
+            }
+
+            return null;
+        }).when(mockHelper).submitDeposit(any(), any(), any(), any(), any());
+
+        try {
+            assertSame(failure, assertThrows(DepositServiceRuntimeException.class,
+                () -> submissionProcessor.accept(submission)));
+
+            verify(mockHelper, times(4)).submitDeposit(any(), any(), any(), any(), any());
+            assertEquals(2, maxRunning.get());
+
+            // Both permits are available again, so two deposits can meet inside the limit
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Runnable meet = () -> fanOut.withTransportLimit(packager, () -> {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            assertTrue(fanOut.runAll(List.of(meet, meet)).isEmpty());
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void missingCriResource() {
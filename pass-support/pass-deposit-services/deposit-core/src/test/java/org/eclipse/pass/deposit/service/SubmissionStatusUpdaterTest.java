@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.PassClientSelector;
+import org.eclipse.pass.support.client.SubmissionStatusService;
+import org.eclipse.pass.support.client.model.Submission;
+import org.eclipse.pass.support.client.model.SubmissionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class SubmissionStatusUpdaterTest {
+
+    private PassClient passClient;
+    private SubmissionStatusService statusService;
+
+    @BeforeEach
+    void setUp() {
+        passClient = mock(PassClient.class);
+        statusService = mock(SubmissionStatusService.class);
+    }
+
+    private static Submission submission(String id) {
+        Submission submission = new Submission(id);
+        submission.setSubmitted(true);
+        submission.setSubmissionStatus(SubmissionStatus.SUBMITTED);
+        return submission;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testIncrementalUpdateOnlyChangedSubmissions() throws IOException {
+        SubmissionChangeTracker tracker = new SubmissionChangeTracker(true, null);
+        SubmissionStatusUpdater updater = new SubmissionStatusUpdater(statusService, passClient,
+            new UpdateJobRunner(1, 100, null), tracker, 60000);
+
+        // The first update after startup reconciles, as changes made while stopped are not known
+        when(passClient.streamObjects(any())).thenAnswer(i -> Stream.of(submission("1"), submission("2")));
+        when(statusService.calculateSubmissionStatuses(anyList())).thenReturn(
+            Map.of("1", SubmissionStatus.SUBMITTED, "2", SubmissionStatus.SUBMITTED));
+        tracker.markChanged("1");
+        updater.doUpdate();
+        assertTrue(tracker.drain().isEmpty());
+
+        tracker.markChanged("2");
+        when(passClient.streamObjects(any())).thenAnswer(i -> Stream.of(submission("2")));
+        when(statusService.calculateSubmissionStatuses(anyList())).thenReturn(
+            Map.of("2", SubmissionStatus.COMPLETE));
+        updater.doUpdate();
+
+        ArgumentCaptor<PassClientSelector<Submission>> sel = ArgumentCaptor.forClass(PassClientSelector.class);
+        verify(passClient, times(2)).streamObjects(sel.capture());
+        assertTrue(sel.getAllValues().get(1).getFilter().startsWith("(id=in=('2');"));
+
+        ArgumentCaptor<Submission> updated = ArgumentCaptor.forClass(Submission.class);
+        verify(passClient).updateObject(updated.capture());
+        assertEquals("2", updated.getValue().getId());
+        assertEquals(SubmissionStatus.COMPLETE, updated.getValue().getSubmissionStatus());
+
+        // Nothing changed
+        updater.doUpdate();
+        verify(passClient, times(2)).streamObjects(any());
+    }
+
+    @Test
+    void testFailedIncrementalBatchIsKept() throws IOException {
+        SubmissionChangeTracker tracker = new SubmissionChangeTracker(true, null);
+        SubmissionStatusUpdater updater = new SubmissionStatusUpdater(statusService, passClient,
+            new UpdateJobRunner(1, 100, null), tracker, 60000);
+
+        tracker.markChanged("1");
+        when(passClient.streamObjects(any())).thenThrow(new IOException("Unavailable"));
+        updater.doIncrementalUpdate();
+
+        assertEquals(List.of("1"), tracker.drain());
+        verify(passClient, never()).updateObject(any());
+    }
+
+    @Test
+    void testChangedSubmissionsKeptAcrossRestarts() throws IOException {
+        Path file = Files.createTempDirectory("status").resolve("changed");
+
+        SubmissionChangeTracker tracker = new SubmissionChangeTracker(true, file.toString());
+        tracker.markChanged("1");
+        tracker.markChanged("2");
+        tracker.markChanged("1");
+        assertEquals(List.of("1", "2"), new SubmissionChangeTracker(true, file.toString()).drain());
+
+        // Drained but not yet processed
+        assertEquals(List.of("1", "2"), tracker.drain());
+        tracker.markChanged("3");
+        assertEquals(List.of("1", "2", "3"), new SubmissionChangeTracker(true, file.toString()).drain());
+
+        tracker.persist();
+        assertEquals(List.of("3"), new SubmissionChangeTracker(true, file.toString()).drain());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.PassClientSelector;
+import org.eclipse.pass.support.client.model.Deposit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class UpdateJobRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Deposit> deposits(int from, int to) {
+        return IntStream.rangeClosed(from, to).mapToObj(i -> new Deposit(String.valueOf(i)))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRunProcessesEveryBatch() throws Exception {
+        PassClient passClient = mock(PassClient.class);
+        when(passClient.streamObjects(any())).thenAnswer(i -> deposits(1, 250).stream());
+        UpdateJobRunner runner = new UpdateJobRunner(3, 100, null);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        PassClientSelector<Deposit> sel = new PassClientSelector<>(Deposit.class);
+        UpdateJobRunner.Cycle cycle = runner.run("test", passClient, sel, (batch, c) -> {
+            assertTrue(batch.size() <= 100);
+            batch.forEach(d -> seen.add(d.getId()));
+            if (batch.contains(new Deposit("250"))) {
+                throw new IllegalStateException("Last batch fails");
+            }
+            c.changed();
+        });
+
+        assertTrue(sel.isKeyset());
+        assertFalse(sel.isTotals());
+        assertEquals(100, sel.getLimit());
+        assertEquals(250, seen.size());
+        assertEquals(250, cycle.getProcessed());
+        assertEquals(3, cycle.getBatches());
+        assertEquals(2, cycle.getChanged());
+        assertEquals(50, cycle.getFailed());
+        runner.shutdown();
+    }
+
+    @Test
+    public void testInterruptedCycleResumesFromCheckpoint() throws Exception {
+        Path checkpoint = dir.resolve("test.checkpoint");
+        UpdateJobRunner runner = new UpdateJobRunner(2, 100, dir.toString());
+        PassClient passClient = mock(PassClient.class);
+
+        // The stream fails after two full pages
+        Stream<Deposit> failing = Stream.concat(deposits(1, 200).stream(), Stream.generate(() -> {
+            throw new RuntimeException("Connection reset");
+        }));
+        when(passClient.streamObjects(any())).thenAnswer(i -> failing).thenAnswer(i -> deposits(201, 220).stream());
+
+        assertThrows(RuntimeException.class, () ->
+            runner.run("test", passClient, new PassClientSelector<>(Deposit.class), (batch, c) -> { }));
+        assertEquals("200", Files.readString(checkpoint));
+
+        PassClientSelector<Deposit> sel = new PassClientSelector<>(Deposit.class);
+        UpdateJobRunner.Cycle cycle = runner.run("test", passClient, sel, (batch, c) -> { });
+
+        assertEquals("200", sel.getAfter());
+        assertEquals(20, cycle.getProcessed());
+        assertFalse(Files.exists(checkpoint));
+
+        PassClientSelector<Deposit> next = new PassClientSelector<>(Deposit.class);
+        when(passClient.streamObjects(any())).thenReturn(Stream.empty());
+        runner.run("test", passClient, next, (batch, c) -> { });
+        assertNull(next.getAfter());
+        runner.shutdown();
+    }
+
+    @Test
+    public void testFailedBatchStopsCheckpoint() throws Exception {
+        Path checkpoint = dir.resolve("test.checkpoint");
+        UpdateJobRunner runner = new UpdateJobRunner(2, 100, dir.toString());
+        PassClient passClient = mock(PassClient.class);
+
+        // The stream fails after four full pages
+        Stream<Deposit> failing = Stream.concat(deposits(1, 400).stream(), Stream.generate(() -> {
+            throw new RuntimeException("Connection reset");
+        }));
+        when(passClient.streamObjects(any())).thenAnswer(i -> failing);
+
+        // The second batch fails, the batches after it succeed
+        assertThrows(RuntimeException.class, () ->
+            runner.run("test", passClient, new PassClientSelector<>(Deposit.class), (batch, c) -> {
+                if (batch.contains(new Deposit("101"))) {
+                    throw new IllegalStateException("Batch fails");
+                }
+            }));
+        assertEquals("100", Files.readString(checkpoint));
+        runner.shutdown();
+    }
+}
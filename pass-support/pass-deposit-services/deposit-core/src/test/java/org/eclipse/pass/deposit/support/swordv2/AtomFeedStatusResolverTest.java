@@ -17,16 +17,33 @@ package org.eclipse.pass.deposit.support.swordv2;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 
 import org.apache.abdera.parser.Parser;
 import org.apache.abdera.parser.stax.FOMParserFactory;
+import org.eclipse.pass.deposit.assembler.AuthenticatedResource;
 import org.eclipse.pass.deposit.config.repository.RepositoryConfig;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.Resource;
@@ -44,6 +61,19 @@ public class AtomFeedStatusResolverTest {
 
     private Resource resource;
 
+    private HttpServer swordServer;
+
+    // Statement served by the stub SWORD server and its ETag
+    private volatile String statement = AtomResources.INREVIEW_STATUS_RESOURCE;
+
+    private volatile String etag = "\"1\"";
+
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger open = new AtomicInteger();
+
+    private final AtomicInteger maxOpen = new AtomicInteger();
+
     @BeforeEach
     public void setUp() throws Exception {
         abdera = new FOMParserFactory().getParser();
@@ -57,6 +87,60 @@ public class AtomFeedStatusResolverTest {
         when(resource.getInputStream()).thenReturn(swordStatement);
 
         underTest = new AtomFeedStatusResolver(abdera, resolver);
+
+        swordServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        swordServer.setExecutor(Executors.newCachedThreadPool());
+        swordServer.createContext("/statement", this::serveStatement);
+        swordServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        swordServer.stop(0);
+    }
+
+    // Serve the statement, or 304 if the client has the current ETag
+    private void serveStatement(HttpExchange exchange) throws IOException {
+        maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+
+        try {
+            Thread.sleep(20);
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            conditions.add(String.valueOf(ifNoneMatch));
+            assertNotNull(exchange.getRequestHeaders().getFirst("Authorization"));
+
+            exchange.getResponseHeaders().add("ETag", etag);
+
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = this.getClass().getResourceAsStream(statement).readAllBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            open.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private AtomFeedStatusResolver swordResolver(int maxPerHost, long backoffInitialMs) {
+        return new AtomFeedStatusResolver(abdera, (uri, config) -> {
+            try {
+                return new AuthenticatedResource(uri.toURL(), "user", "pass");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, maxPerHost, 100, backoffInitialMs, 60000);
+    }
+
+    private URI statementUri(String name) {
+        return URI.create("http://localhost:" + swordServer.getAddress().getPort() + "/statement/" + name);
     }
 
     @Test
@@ -65,4 +149,68 @@ public class AtomFeedStatusResolverTest {
         assertNotNull(status);
         assertEquals("http://dspace.org/state/inreview", status.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void pollUnmodifiedStatement() {
+        AtomFeedStatusResolver sword = swordResolver(0, 0);
+        URI uri = statementUri("1");
+
+        assertEquals("http://dspace.org/state/inreview", sword.resolve(uri, new RepositoryConfig()).toString());
+        assertEquals("http://dspace.org/state/inreview", sword.resolve(uri, new RepositoryConfig()).toString());
+
+        statement = AtomResources.ARCHIVED_STATUS_RESOURCE;
+        etag = "\"2\"";
+        assertEquals("http://dspace.org/state/archived", sword.resolve(uri, new RepositoryConfig()).toString());
+
+        assertEquals(List.of("null", "\"1\"", "\"1\""), conditions);
+        assertEquals(3, sword.getPolled());
+        assertEquals(1, sword.getNotModified());
+        assertEquals(2, sword.getChanged());
+        assertEquals(0, sword.getSkipped());
+    }
+
+    @Test
+    public void backOffUnchangedStatement() {
+        AtomFeedStatusResolver sword = swordResolver(0, 60000);
+        URI uri = statementUri("1");
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("http://dspace.org/state/inreview", sword.resolve(uri, new RepositoryConfig()).toString());
+        }
+
+        // The second poll finds the state unchanged, so later polls are skipped
+        assertEquals(2, conditions.size());
+        assertEquals(2, sword.getPolled());
+        assertEquals(2, sword.getSkipped());
+    }
+
+    @Test
+    public void limitRequestsPerHost() throws Exception {
+        AtomFeedStatusResolver sword = swordResolver(2, 0);
+        ExecutorService exec = Executors.newFixedThreadPool(8);
+        List<Future<URI>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 16; i++) {
+                URI uri = statementUri(String.valueOf(i));
+                results.add(exec.submit(() -> sword.resolve(uri, new RepositoryConfig())));
+            }
+
+            for (Future<URI> result : results) {
+                assertEquals("http://dspace.org/state/inreview", result.get().toString());
+            }
+        } finally {
+            exec.shutdownNow();
+        }
+
+        assertEquals(16, sword.getPolled());
+        assertTrue(maxOpen.get() <= 2);
+    }
+
+    @Test
+    public void missingStateIsNull() {
+        statement = AtomResources.MISSING_STATUS_RESOURCE;
+
+        assertNull(swordResolver(0, 0).resolve(statementUri("1"), new RepositoryConfig()));
+    }
+}
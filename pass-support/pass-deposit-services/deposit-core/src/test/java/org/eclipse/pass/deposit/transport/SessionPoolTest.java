@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.deposit.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class SessionPoolTest {
+
+    private final Set<Object> unhealthy = new HashSet<>();
+
+    private final List<Object> destroyed = new ArrayList<>();
+
+    private SessionPool<Object> pool(int maxIdlePerKey, long idleTimeoutMs) {
+        return new SessionPool<>("test", maxIdlePerKey, idleTimeoutMs, c -> !unhealthy.contains(c), destroyed::add);
+    }
+
+    @Test
+    public void testReuseByKey() {
+        SessionPool<Object> pool = pool(1, 60000);
+        Object conn = new Object();
+
+        assertNull(pool.borrow("a"));
+        pool.release("a", conn);
+
+        assertNull(pool.borrow("b"));
+        assertSame(conn, pool.borrow("a"));
+        assertNull(pool.borrow("a"));
+
+        assertEquals(1, pool.getHits());
+        assertEquals(3, pool.getMisses());
+        assertTrue(destroyed.isEmpty());
+    }
+
+    @Test
+    public void testFullPoolDestroysReleased() {
+        SessionPool<Object> pool = pool(1, 60000);
+        Object first = new Object();
+        Object second = new Object();
+
+        pool.release("a", first);
+        pool.release("a", second);
+
+        assertEquals(1, pool.getIdle());
+        assertEquals(List.of(second), destroyed);
+    }
+
+    @Test
+    public void testDisabledPoolKeepsNothing() {
+        SessionPool<Object> pool = pool(0, 60000);
+        Object conn = new Object();
+
+        pool.release("a", conn);
+
+        assertNull(pool.borrow("a"));
+        assertEquals(List.of(conn), destroyed);
+    }
+
+    @Test
+    public void testUnhealthyAndExpiredDestroyed() throws Exception {
+        SessionPool<Object> pool = pool(2, 60000);
+        Object healthy = new Object();
+        Object broken = new Object();
+
+        pool.release("a", healthy);
+        pool.release("a", broken);
+        unhealthy.add(broken);
+
+        assertSame(healthy, pool.borrow("a"));
+        assertEquals(List.of(broken), destroyed);
+        assertEquals(1, pool.getUnhealthy());
+
+        SessionPool<Object> expiring = pool(2, 1);
+        Object stale = new Object();
+        expiring.release("a", stale);
+        Thread.sleep(5);
+
+        assertNull(expiring.borrow("a"));
+        assertEquals(1, expiring.getEvicted());
+        assertTrue(destroyed.contains(stale));
+    }
+
+    @Test
+    public void testClose() {
+        SessionPool<Object> pool = pool(2, 60000);
+        Object idle = new Object();
+        Object late = new Object();
+
+        pool.release("a", idle);
+        pool.close();
+        pool.release("a", late);
+
+        assertEquals(List.of(idle, late), destroyed);
+        assertEquals(0, pool.getIdle());
+    }
+
+    @Test
+    public void testKeyHidesPassword() {
+        String key = SessionPool.key("host:21", "user", "secret");
+
+        assertTrue(key.startsWith("user@host:21#"));
+        assertFalse(key.contains("secret"));
+        assertNotEquals(key, SessionPool.key("host:21", "user", "other"));
+    }
+}
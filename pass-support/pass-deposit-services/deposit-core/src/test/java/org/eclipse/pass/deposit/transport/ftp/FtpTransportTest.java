@@ -22,6 +22,7 @@ import static org.eclipse.pass.deposit.transport.Transport.TRANSPORT_SERVER_FQDN
 import static org.eclipse.pass.deposit.transport.Transport.TRANSPORT_SERVER_PORT;
 import static org.eclipse.pass.deposit.transport.Transport.TRANSPORT_USERNAME;
 import static org.eclipse.pass.deposit.transport.ftp.FtpTestConstants.FTP_ROOT_DIR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -29,6 +30,8 @@ import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -110,6 +113,40 @@ public class FtpTransportTest {
         verify(ftpClient).changeWorkingDirectory(FTP_ROOT_DIR);
     }
 
+    /**
+     * A session opened after another session to the same server was closed reuses its connection, after checking it
+     * with a NOOP, rather than connecting and logging in again.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPooledConnectionReused() throws Exception {
+        transport = new FtpTransport(ftpClientFactory, 2, 60000);
+
+        when(ftpClient.login(anyString(), anyString())).thenReturn(true);
+        when(ftpClient.isConnected()).thenReturn(true);
+        when(ftpClient.sendNoOp()).thenReturn(true);
+        when(ftpClient.printWorkingDirectory()).thenReturn("/");
+        when(ftpClient.setFileTransferMode(anyInt())).thenReturn(true);
+        when(ftpClient.changeWorkingDirectory(anyString())).thenReturn(true);
+        when(ftpClient.getReplyCode()).thenReturn(FTPReply.COMMAND_OK);
+
+        transport.open(expectedHints).close();
+        transport.open(expectedHints).close();
+
+        verify(ftpClientFactory, times(1)).newInstance(anyMap());
+        verify(ftpClient, times(1)).login("nihmsftpuser", "nihmsftppass");
+        verify(ftpClient).sendNoOp();
+        verify(ftpClient, never()).logout();
+        assertEquals(1, transport.getPool().getHits());
+        assertEquals(1, transport.getPool().getIdle());
+
+        transport.shutdown();
+
+        verify(ftpClient).logout();
+        assertEquals(0, transport.getPool().getIdle());
+    }
+
     /**
      * A runtime exception is thrown when the login fails.
      *
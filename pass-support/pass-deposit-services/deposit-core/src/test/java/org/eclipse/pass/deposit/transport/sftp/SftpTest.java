@@ -108,6 +108,40 @@ public class SftpTest {
         verifyFileOnSftpServer(String.format("upload/test/%s/", dateDirName) + testFileName);
     }
 
+    @Test
+    public void testCreateFile_ReusesSession() throws IOException {
+        // GIVEN
+        Map<String, String> hints = Map.of(
+            TRANSPORT_SERVER_FQDN, "localhost",
+            TRANSPORT_SERVER_PORT, String.valueOf(sshd.getPort()),
+            TRANSPORT_USERNAME, "dummyUser",
+            TRANSPORT_PASSWORD, "dummyPass",
+            SFTP_BASE_DIRECTORY, "/upload/test/%s"
+        );
+        SftpTransport sftpTransport = new SftpTransport(2, 60000);
+
+        try {
+            // WHEN
+            for (int i = 0; i < 2; i++) {
+                String testFileName = System.currentTimeMillis() + "-" + i + "package.tar.gz";
+                PackageStream stream = mock(PackageStream.class);
+                PackageStream.Metadata streamMetadata = mock(PackageStream.Metadata.class);
+                when(stream.metadata()).thenReturn(streamMetadata);
+                when(streamMetadata.name()).thenReturn(testFileName);
+                when(stream.open()).thenReturn(new NullInputStream(ONE_MIB));
+
+                assertTrue(sftpTransport.open(hints).send(stream, new HashMap<>()).success());
+            }
+
+            // THEN
+            assertEquals(1, sftpTransport.getPool().getMisses());
+            assertEquals(1, sftpTransport.getPool().getHits());
+            assertEquals(1, sftpTransport.getPool().getIdle());
+        } finally {
+            sftpTransport.shutdown();
+        }
+    }
+
     @Test
     public void testCreateFile_Fail_MissingBaseDir() {
         // GIVEN
@@ -21,10 +21,14 @@ import static org.eclipse.pass.deposit.transport.sword2.Sword2TransportHints.SWO
 import static org.eclipse.pass.deposit.transport.sword2.Sword2TransportHints.SWORD_SERVICE_DOC_URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
@@ -68,13 +72,15 @@ public class Sword2TransportTest {
 
     private SWORDClient swordClient;
 
+    private Sword2ClientFactory clientFactory;
+
     private Sword2Transport underTest;
 
     @BeforeEach
     public void setUp() throws Exception {
         ServiceDocument serviceDocument = mock(ServiceDocument.class);
         swordClient = mock(SWORDClient.class);
-        Sword2ClientFactory clientFactory = mock(Sword2ClientFactory.class);
+        clientFactory = mock(Sword2ClientFactory.class);
 
         when(swordClient.getServiceDocument(any(), any())).thenReturn(serviceDocument);
         when(clientFactory.newInstance(anyMap())).thenReturn(swordClient);
@@ -89,6 +95,23 @@ public class Sword2TransportTest {
         });
     }
 
+    @Test
+    public void testServiceDocumentCached() throws Exception {
+        Sword2Transport caching = new Sword2Transport(clientFactory, 60000);
+
+        ServiceDocument first = caching.open(TRANSPORT_HINTS).getServiceDocument();
+        ServiceDocument second = caching.open(TRANSPORT_HINTS).getServiceDocument();
+
+        assertSame(first, second);
+        verify(swordClient, times(1)).getServiceDocument(eq(SERVICE_DOC_URL), any());
+        assertEquals(1, caching.getServiceDocHits());
+        assertEquals(1, caching.getServiceDocMisses());
+
+        // Other credentials retrieve the service document again
+        caching.open(replaceKey(Transport.TRANSPORT_USERNAME, "otheruser", TRANSPORT_HINTS));
+        verify(swordClient, times(2)).getServiceDocument(eq(SERVICE_DOC_URL), any());
+    }
+
     @Test
     public void testOpenMissingAuthUsernameKey() {
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
@@ -146,6 +146,30 @@ public interface CriticalRepositoryInteraction {
         return performCritical(id, clazz, precondition, postcondition, critical, true);
     }
 
+    /**
+     * A critical function whose only effect is on the {@code PassEntity} it is applied to, so it may be applied again
+     * to a fresh copy of the entity. Implementations may retry such a function instead of excluding other interactions
+     * with the entity. A function which sends a package, or creates or updates other resources, must not be marked
+     * idempotent.
+     *
+     * @param <T> the type of {@code PassEntity}
+     * @param <R> the type of result
+     */
+    interface IdempotentFunction<T, R> extends Function<T, R> {
+    }
+
+    /**
+     * Marks a critical function as idempotent.
+     *
+     * @param critical a critical function whose only effect is on the {@code PassEntity} it is applied to
+     * @param <T> the type of {@code PassEntity}
+     * @param <R> the type of result
+     * @return the critical function marked as an {@link IdempotentFunction}
+     */
+    static <T, R> Function<T, R> idempotent(Function<T, R> critical) {
+        return (IdempotentFunction<T, R>) critical::apply;
+    }
+
     /**
      * Encapsulates the result of a critical interaction with the repository.
      *
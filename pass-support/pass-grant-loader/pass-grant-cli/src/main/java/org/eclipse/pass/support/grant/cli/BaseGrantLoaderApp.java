@@ -19,6 +19,7 @@ import static java.lang.String.format;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_ACTION_NOT_VALID;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_COULD_NOT_APPEND_UPDATE_TIMESTAMP;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_COULD_NOT_OPEN_CONFIGURATION_FILE;
+import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_COULD_NOT_WRITE_DATA_FILE;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_DATA_FILE_CANNOT_READ;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_HOME_DIRECTORY_NOT_FOUND;
 import static org.eclipse.pass.support.grant.cli.DataLoaderErrors.ERR_HOME_DIRECTORY_NOT_READABLE_AND_WRITABLE;
@@ -41,17 +42,15 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import org.eclipse.pass.support.grant.data.GrantConnector;
+import org.eclipse.pass.support.grant.data.GrantDataFile;
 import org.eclipse.pass.support.grant.data.PassUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,8 +94,8 @@ abstract class BaseGrantLoaderApp {
      *                    current run
      * @param mode         - a String indicating whether we are updating grants, or existing users in PASS
      * @param action       - a String indicating an optional restriction to just pulling data from the data source,
-     *                     and saving a serialized
-     *                     version to a file, or just taking serialized data in a file and loading it into PASS
+     *                     and saving it to a data file, or just taking the data in a data file and loading it
+     *                     into PASS
      * @param dataFileName - a String representing the path to an output file for a pull, or input for a load
      * @param grant - a single grant number to be run
      */
@@ -208,7 +207,8 @@ abstract class BaseGrantLoaderApp {
             throw processException(ERR_COULD_NOT_OPEN_CONFIGURATION_FILE, e);
         }
 
-        List<Map<String, String>> resultSet = null;
+        Stream<Map<String, String>> rows = null;
+        GrantConnector connector = null;
 
         //now do things;
         if (!action.equals("load")) { //action includes a pull - need to build a result set
@@ -235,35 +235,43 @@ abstract class BaseGrantLoaderApp {
                 }
             }
 
-            GrantConnector connector = configureConnector(connectionProperties, policyProperties);
+            connector = configureConnector(connectionProperties, policyProperties);
             try {
-                resultSet = connector.retrieveUpdates(startDate, awardEndDate, mode, grant);
+                //rows are read from the data source as they are loaded into PASS or written to the data file
+                rows = connector.streamUpdates(startDate, awardEndDate, mode, grant);
             } catch (SQLException e) {
                 throw processException(ERR_SQL_EXCEPTION, e);
             } catch (RuntimeException e) {
                 throw processException("Runtime Exception", e);
+            } finally {
+                //a stream of rows needs the connector until it has been consumed
+                if (rows == null) {
+                    connector.close();
+                }
             }
         } else { //just doing a PASS load, must have results set in the data file
-            try (FileInputStream fis = new FileInputStream(dataFile);
-                 ObjectInputStream in = new ObjectInputStream(fis)
-            ) {
-                resultSet = Collections.unmodifiableList((List<Map<String, String>>) in.readObject());
-            } catch (IOException | ClassNotFoundException ex) {
-                ex.printStackTrace();
+            try {
+                rows = GrantDataFile.read(dataFile);
+            } catch (IOException e) {
+                throw processException(format(ERR_DATA_FILE_CANNOT_READ, dataFileName), e);
             }
         }
 
-        if (resultSet == null) { //this shouldn't happen
+        if (rows == null) { //this shouldn't happen
             throw processException(ERR_RESULT_SET_NULL, null);
         }
 
         //update PASS if required
         if (!action.equals("pull")) {
             PassUpdater passUpdater = configureUpdater();
-            try {
-                passUpdater.updatePass(resultSet, mode);
+            try (Stream<Map<String, String>> updates = rows) {
+                passUpdater.updatePass(updates, mode);
             } catch (RuntimeException e) {
                 throw processException("Runtime Exception", e);
+            } finally {
+                if (connector != null) {
+                    connector.close();
+                }
             }
 
             //apparently the hard part has succeeded, let's write the timestamp to our update timestamps file
@@ -286,15 +294,17 @@ abstract class BaseGrantLoaderApp {
                 emailService.sendEmailMessage("Grant Loader Data Pull SUCCESS", message);
             }
         } else { //don't need to update, just write the result set out to the data file
-            try (FileOutputStream fos = new FileOutputStream(dataFile);
-                 ObjectOutputStream out = new ObjectOutputStream(fos)
-            ) {
-                out.writeObject(resultSet);
+            int size;
+            try (Stream<Map<String, String>> records = rows) {
+                size = GrantDataFile.write(records, mode, dataFile);
             } catch (IOException e) {
-                e.printStackTrace();
+                throw processException(format(ERR_COULD_NOT_WRITE_DATA_FILE, dataFileName), e);
+            } catch (RuntimeException e) {
+                throw processException("Runtime Exception", e);
+            } finally {
+                connector.close();
             }
             //do some notification
-            int size = resultSet.size();
             StringBuilder sb = new StringBuilder();
             sb.append("Wrote result set for ");
             sb.append(size);
@@ -32,6 +32,7 @@ class DataLoaderErrors {
     static String ERR_COULD_NOT_OPEN_CONFIGURATION_FILE = "Could not open configuration file";
     static String ERR_REQUIRED_DATA_FILE_MISSING = "Data file %s does not exist";
     static String ERR_DATA_FILE_CANNOT_READ = "Could not read data file %s";
+    static String ERR_COULD_NOT_WRITE_DATA_FILE = "Could not write data file %s";
     static String ERR_INVALID_COMMAND_LINE_TIMESTAMP = "An invalid timestamp was specified on the command line: %s. " +
                                                        "Please make sure it" +
                                                        " is of the form yyyy-mm-dd hh:mm:ss.m{mm}";
@@ -17,9 +17,12 @@ package org.eclipse.pass.support.grant.cli;
 
 import static java.lang.String.format;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.pass.support.grant.data.GrantDataFile;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
@@ -91,7 +94,8 @@ public class JhuGrantLoaderCLI {
      * either case, the path to
      * the file in question is the first command line argument after all options. If no action is specified, the
      * default is to perform
-     * a pull followed directly by a load.
+     * a pull followed directly by a load. The action "convert" rewrites a data file saved in the old Java serialized
+     * format, given as the first argument, as a data file in the current format, given as the second argument.
      */
     @Option(name = "-a", aliases = {"-action", "--action"},
             usage = "Action to be taken - 'pull' is for COEUS pull only," +
@@ -99,7 +103,8 @@ public class JhuGrantLoaderCLI {
                     "after all options - an" +
                     "output file in the case of 'pull', and an input file in the case of 'load'. If no action is " +
                     "specified, " +
-                    "the data will be pulled from COEUS and loaded directly into PASS")
+                    "the data will be pulled from COEUS and loaded directly into PASS. 'convert' rewrites a Java " +
+                    "serialized data file, the first argument, as a CSV data file, the second argument")
     private static String action = "";
 
     /**
@@ -138,6 +143,24 @@ public class JhuGrantLoaderCLI {
                 System.exit(0);
             }
 
+            if (action.equals("convert")) {
+                if (arguments.size() < 2) {
+                    System.err.println("Action convert requires the serialized file and the output file as " +
+                                       "command line arguments after the options");
+                    System.exit(1);
+                }
+                try {
+                    int count = GrantDataFile.convert(new File(arguments.get(0)), new File(arguments.get(1)));
+                    System.out.println(format("Converted %d records from %s into %s", count, arguments.get(0),
+                                              arguments.get(1)));
+                    System.exit(0);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    System.err.println(format("Could not convert data file %s", arguments.get(0)));
+                    System.exit(1);
+                }
+            }
+
             if (action.equals("pull") || action.equals("load")) {
                 if (arguments.size() > 0) {
                     dataFileName = arguments.get(0);
@@ -44,6 +44,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.pass.support.client.PassClient;
@@ -94,6 +95,10 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
     }
 
     public void updatePass(Collection<Map<String, String>> results, String mode) {
+        updatePass(results.stream(), mode);
+    }
+
+    public void updatePass(Stream<Map<String, String>> results, String mode) {
         this.mode = mode;
         userMap.clear();
         funderMap.clear();
@@ -147,18 +152,20 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
     /**
      * Build a Collection of Grants from a ResultSet, then update the grants in Pass
      * Because we need to make sure we catch any updates to fields referenced by URIs, we construct
-     * these and update these as well
+     * these and update these as well. Rows are processed as they are read, only the Grants are kept.
      */
-    private void updateGrants(Collection<Map<String, String>> results) {
+    private void updateGrants(Stream<Map<String, String>> results) {
 
         //a grant will have several rows in the ResultSet if there are co-pis. so we put the grant on this
         //Map and add to it as additional rows add information.
         Map<String, Grant> grantRowMap = new HashMap<>();
 
-        LOG.warn("Processing result set with {} rows", results.size());
+        LOG.warn("Processing result set");
         boolean modeChecked = false;
+        int rowCount = 0;
 
-        for (Map<String, String> rowMap : results) {
+        for (Map<String, String> rowMap : (Iterable<Map<String, String>>) results::iterator) {
+            rowCount++;
 
             if (!modeChecked) {
                 if (!rowMap.containsKey(C_GRANT_LOCAL_KEY)) { //we always have this for grants
@@ -311,7 +318,8 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
         //success - we capture some information to report
         if (grantResultMap.size() > 0) {
             statistics.setLatestUpdateString(latestUpdateString);
-            statistics.setReport(results.size(), grantResultMap.size());
+            LOG.info("Processed result set with {} rows", rowCount);
+            statistics.setReport(rowCount, grantResultMap.size());
         } else {
             System.out.println("No records were processed in this update");
         }
@@ -335,13 +343,15 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
         return passEntities.stream().map(PassEntity::getId).collect(Collectors.toSet());
     }
 
-    private void updateUsers(Collection<Map<String, String>> results) {
+    private void updateUsers(Stream<Map<String, String>> results) {
 
         boolean modeChecked = false;
 
-        LOG.info("Processing result set with {} rows", results.size());
+        LOG.info("Processing result set");
+        int rowCount = 0;
         int userProcessedCounter = 0;
-        for (Map<String, String> rowMap : results) {
+        for (Map<String, String> rowMap : (Iterable<Map<String, String>>) results::iterator) {
+            rowCount++;
 
             if (!modeChecked) {
                 if (!rowMap.containsKey(C_USER_EMPLOYEE_ID)) { //we always have this for users
@@ -367,9 +377,10 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
             }
         }
 
-        if (results.size() > 0) {
+        if (rowCount > 0) {
+            LOG.info("Processed result set with {} rows", rowCount);
             statistics.setLatestUpdateString(latestUpdateString);
-            statistics.setReport(results.size(), userProcessedCounter);
+            statistics.setReport(rowCount, userProcessedCounter);
         } else {
             System.out.println("No records were processed in this update");
         }
@@ -381,12 +392,14 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
      *
      * @param results the data row map containing funder information
      */
-    private void updateFunders(Collection<Map<String, String>> results) {
+    private void updateFunders(Stream<Map<String, String>> results) {
 
         boolean modeChecked = false;
-        LOG.info("Processing result set with {} rows", results.size());
+        LOG.info("Processing result set");
+        int rowCount = 0;
         int funderProcessedCounter = 0;
-        for (Map<String, String> rowMap : results) {
+        for (Map<String, String> rowMap : (Iterable<Map<String, String>>) results::iterator) {
+            rowCount++;
 
             if (!modeChecked) {
                 if (!rowMap.containsKey(C_PRIMARY_FUNDER_LOCAL_KEY) && !rowMap.containsKey(C_PRIMARY_FUNDER_NAME)) {
@@ -404,7 +417,8 @@ abstract class AbstractDefaultPassUpdater implements PassUpdater {
                 LOG.error("Error processing Funder localKey: " + rowFunder.getLocalKey(), e);
             }
         }
-        statistics.setReport(results.size(), funderProcessedCounter);
+        LOG.info("Processed result set with {} rows", rowCount);
+        statistics.setReport(rowCount, funderProcessedCounter);
     }
 
     /**
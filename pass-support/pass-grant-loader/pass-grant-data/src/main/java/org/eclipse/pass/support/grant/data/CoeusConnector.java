@@ -16,7 +16,6 @@
 package org.eclipse.pass.support.grant.data;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -24,11 +23,20 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.pass.support.client.ModelUtil;
 import org.slf4j.Logger;
@@ -37,6 +45,11 @@ import org.slf4j.LoggerFactory;
 /**
  * This class connects to a COEUS database via the Oracle JDBC driver. The query string reflects local JHU
  * database views
+ * <p>
+ * Connections come from a small pool which is opened on the first query and released by {@link #close()}. Rows are
+ * fetched from the database in batches of {@code coeus.fetch.size} and can be consumed as they arrive with
+ * {@link #streamUpdates(String, String, String, String)}. The queries remove duplicate rows, and grant rows which
+ * become equal once their award numbers are normalized are ordered next to each other and dropped from the stream.
  *
  * @author jrm@jhu.edu
  */
@@ -46,9 +59,14 @@ public class CoeusConnector implements GrantConnector {
     private static final String COEUS_URL = "coeus.url";
     private static final String COEUS_USER = "coeus.user";
     private static final String COEUS_PASS = "coeus.pass";
+    private static final String COEUS_FETCH_SIZE = "coeus.fetch.size";
+    private static final String COEUS_POOL_SIZE = "coeus.pool.size";
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_POOL_SIZE = 2;
 
     private static final String SELECT_GRANT_SQL =
-        "SELECT " +
+        "SELECT DISTINCT " +
         "A." + CoeusFieldNames.C_GRANT_AWARD_NUMBER + ", " +
         "A." + CoeusFieldNames.C_GRANT_AWARD_STATUS + ", " +
         "A." + CoeusFieldNames.C_GRANT_LOCAL_KEY + ", " +
@@ -79,8 +97,32 @@ public class CoeusConnector implements GrantConnector {
         "AND (B.ABBREVIATED_ROLE = 'P' OR B.ABBREVIATED_ROLE = 'C' " +
             "OR REGEXP_LIKE (UPPER(B.ROLE), '^CO ?-?INVESTIGATOR$')) ";
 
+    // Award numbers are normalized after they are read, so rows which only differ in the raw award number are
+    // duplicates. Ordering by every other column first makes such rows adjacent.
+    private static final String GRANT_ORDER_SQL =
+        " ORDER BY " +
+        "A." + CoeusFieldNames.C_GRANT_LOCAL_KEY + ", " +
+        "B." + CoeusFieldNames.C_USER_EMPLOYEE_ID + ", " +
+        "B." + CoeusFieldNames.C_ABBREVIATED_ROLE + ", " +
+        "A." + CoeusFieldNames.C_UPDATE_TIMESTAMP + ", " +
+        "A." + CoeusFieldNames.C_GRANT_AWARD_STATUS + ", " +
+        "A." + CoeusFieldNames.C_GRANT_PROJECT_NAME + ", " +
+        "A." + CoeusFieldNames.C_GRANT_AWARD_DATE + ", " +
+        "A." + CoeusFieldNames.C_GRANT_START_DATE + ", " +
+        "A." + CoeusFieldNames.C_GRANT_END_DATE + ", " +
+        "A." + CoeusFieldNames.C_DIRECT_FUNDER_NAME + ", " +
+        "A." + CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY + ", " +
+        "C." + CoeusFieldNames.C_USER_FIRST_NAME + ", " +
+        "C." + CoeusFieldNames.C_USER_MIDDLE_NAME + ", " +
+        "C." + CoeusFieldNames.C_USER_LAST_NAME + ", " +
+        "C." + CoeusFieldNames.C_USER_EMAIL + ", " +
+        "C." + CoeusFieldNames.C_USER_INSTITUTIONAL_ID + ", " +
+        "D." + CoeusFieldNames.C_PRIMARY_FUNDER_NAME + ", " +
+        "D." + CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY + ", " +
+        "A." + CoeusFieldNames.C_GRANT_AWARD_NUMBER;
+
     private static final String SELECT_USER_SQL =
-        "SELECT " +
+        "SELECT DISTINCT " +
             CoeusFieldNames.C_USER_FIRST_NAME + ", " +
             CoeusFieldNames.C_USER_MIDDLE_NAME + ", " +
             CoeusFieldNames.C_USER_LAST_NAME + ", " +
@@ -102,9 +144,13 @@ public class CoeusConnector implements GrantConnector {
     private String coeusUrl;
     private String coeusUser;
     private String coeusPassword;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int poolSize = DEFAULT_POOL_SIZE;
 
     private final Properties funderPolicyProperties;
 
+    private HikariDataSource dataSource;
+
     /**
      * Class constructor.
      * @param connectionProperties the connection props
@@ -122,6 +168,12 @@ public class CoeusConnector implements GrantConnector {
             if (connectionProperties.getProperty(COEUS_PASS) != null) {
                 this.coeusPassword = connectionProperties.getProperty(COEUS_PASS);
             }
+            if (connectionProperties.getProperty(COEUS_FETCH_SIZE) != null) {
+                this.fetchSize = Integer.parseInt(connectionProperties.getProperty(COEUS_FETCH_SIZE));
+            }
+            if (connectionProperties.getProperty(COEUS_POOL_SIZE) != null) {
+                this.poolSize = Integer.parseInt(connectionProperties.getProperty(COEUS_POOL_SIZE));
+            }
         }
 
         this.funderPolicyProperties = funderPolicyProperties;
@@ -130,147 +182,243 @@ public class CoeusConnector implements GrantConnector {
 
     public List<Map<String, String>> retrieveUpdates(String startDate, String awardEndDate, String mode, String grant)
         throws SQLException {
+        List<Map<String, String>> mapList;
+
+        try (Stream<Map<String, String>> rows = streamUpdates(startDate, awardEndDate, mode, grant)) {
+            mapList = new ArrayList<>(rows.collect(Collectors.toCollection(LinkedHashSet::new)));
+        } catch (CoeusReadException e) {
+            throw e.getCause();
+        }
+
+        LOG.info("Retrieved result set from COEUS: {} records processed", mapList.size());
+        return mapList;
+    }
+
+    /**
+     * Query COEUS and return a stream of the rows, which are read from the result set as the stream is consumed.
+     * The stream holds a pooled connection until it is closed. A row equal to the row before it is skipped. Errors
+     * reading rows are thrown as a {@link CoeusReadException}.
+     *
+     * @param startDate - the date of the earliest record we wish to get on this pull
+     * @param awardEndDate - the end date of the award
+     * @param mode      - indicates whether the data pull is for grants, users, or funders
+     * @param grant      - a grant number
+     * @return the rows, which must be closed
+     * @throws SQLException if the query fails
+     */
+    @Override
+    public Stream<Map<String, String>> streamUpdates(String startDate, String awardEndDate, String mode,
+                                                     String grant) throws SQLException {
         if (mode.equals("user")) {
-            return retrieveUserUpdates(startDate);
+            return query(SELECT_USER_SQL, ps -> ps.setTimestamp(1, toTimestamp(startDate)), this::buildUserRow);
         } else if (mode.equals("funder")) {
-            return retrieveFunderUpdates();
+            String funderSql = String.format(SELECT_FUNDER_SQL,
+                funderPolicyProperties.stringPropertyNames().stream()
+                    .map(v -> "?")
+                    .collect(Collectors.joining(", ")));
+            return query(funderSql, ps -> {
+                int index = 1;
+                for ( String funderKey : funderPolicyProperties.stringPropertyNames() ) {
+                    ps.setString(index++, funderKey);
+                }
+            }, this::buildFunderRow);
         } else {
-            return retrieveGrantUpdates(startDate, awardEndDate, grant);
+            return query(buildGrantQueryString(grant), ps -> {
+                ps.setTimestamp(1, toTimestamp(startDate));
+                ps.setString(2, awardEndDate);
+                if (StringUtils.isNotEmpty(grant)) {
+                    ps.setString(3, grant);
+                }
+            }, this::buildGrantRow);
+        }
+    }
+
+    /**
+     * Close the connection pool.
+     */
+    @Override
+    public synchronized void close() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
         }
     }
 
-    private List<Map<String, String>> retrieveGrantUpdates(String startDate, String awardEndDate, String grant)
+    private synchronized HikariDataSource getDataSource() {
+        if (dataSource == null) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("coeus");
+            config.setJdbcUrl(coeusUrl);
+            config.setUsername(coeusUser);
+            config.setPassword(coeusPassword);
+            config.setMaximumPoolSize(poolSize);
+            config.setMinimumIdle(0);
+            dataSource = new HikariDataSource(config);
+        }
+        return dataSource;
+    }
+
+    private Stream<Map<String, String>> query(String sql, StatementBinder binder, RowBuilder builder)
         throws SQLException {
+        Connection con = getDataSource().getConnection();
 
-        String sql = buildGrantQueryString(grant);
-        List<Map<String, String>> mapList = new ArrayList<>();
-
-        try (
-            Connection con = DriverManager.getConnection(coeusUrl, coeusUser, coeusPassword);
-            PreparedStatement ps = con.prepareStatement(sql);
-        ) {
-            LocalDateTime startLd = LocalDateTime.from(DateTimeUtil.DATE_TIME_FORMATTER.parse(startDate));
-            ps.setTimestamp(1, Timestamp.valueOf(startLd));
-            ps.setString(2, awardEndDate);
-            if (StringUtils.isNotEmpty(grant)) {
-                ps.setString(3, grant);
-            }
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Map<String, String> rowMap = new HashMap<>();
-                    rowMap.put(CoeusFieldNames.C_GRANT_AWARD_NUMBER,
-                        ModelUtil.normalizeAwardNumber(rs.getString(CoeusFieldNames.C_GRANT_AWARD_NUMBER)));
-                    rowMap.put(CoeusFieldNames.C_GRANT_AWARD_STATUS,
-                        rs.getString(CoeusFieldNames.C_GRANT_AWARD_STATUS));
-                    rowMap.put(CoeusFieldNames.C_GRANT_LOCAL_KEY, rs.getString(CoeusFieldNames.C_GRANT_LOCAL_KEY));
-                    rowMap.put(CoeusFieldNames.C_GRANT_PROJECT_NAME,
-                        rs.getString(CoeusFieldNames.C_GRANT_PROJECT_NAME));
-                    rowMap.put(CoeusFieldNames.C_GRANT_AWARD_DATE, rs.getString(CoeusFieldNames.C_GRANT_AWARD_DATE));
-                    rowMap.put(CoeusFieldNames.C_GRANT_START_DATE, rs.getString(CoeusFieldNames.C_GRANT_START_DATE));
-                    rowMap.put(CoeusFieldNames.C_GRANT_END_DATE, rs.getString(CoeusFieldNames.C_GRANT_END_DATE));
-                    rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_NAME,
-                        rs.getString(CoeusFieldNames.C_DIRECT_FUNDER_NAME));
-                    rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
-                        rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_FIRST_NAME, rs.getString(CoeusFieldNames.C_USER_FIRST_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_MIDDLE_NAME, rs.getString(CoeusFieldNames.C_USER_MIDDLE_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_LAST_NAME, rs.getString(CoeusFieldNames.C_USER_LAST_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_EMAIL, rs.getString(CoeusFieldNames.C_USER_EMAIL));
-                    rowMap.put(CoeusFieldNames.C_USER_EMPLOYEE_ID, rs.getString(CoeusFieldNames.C_USER_EMPLOYEE_ID));
-                    rowMap.put(CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
-                        rs.getString(CoeusFieldNames.C_USER_INSTITUTIONAL_ID));
-                    rowMap.put(CoeusFieldNames.C_UPDATE_TIMESTAMP, rs.getString(CoeusFieldNames.C_UPDATE_TIMESTAMP));
-                    rowMap.put(CoeusFieldNames.C_ABBREVIATED_ROLE, rs.getString(CoeusFieldNames.C_ABBREVIATED_ROLE));
-                    String primaryFunderLocalKey = rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY);
-                    rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY, primaryFunderLocalKey);
-                    if (primaryFunderLocalKey != null &&
-                        funderPolicyProperties.stringPropertyNames().contains(primaryFunderLocalKey)) {
-                        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY,
-                            funderPolicyProperties.getProperty(primaryFunderLocalKey));
-                    }
-                    String directFunderLocalKey = rs.getString(CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY);
-                    rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY, directFunderLocalKey);
-                    if (directFunderLocalKey != null &&
-                        funderPolicyProperties.stringPropertyNames().contains(directFunderLocalKey)) {
-                        rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_POLICY,
-                            funderPolicyProperties.getProperty(directFunderLocalKey));
+        try {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            binder.bind(ps);
+            ResultSet rs = ps.executeQuery();
+
+            Iterator<Map<String, String>> rows = new Iterator<>() {
+                private Map<String, String> previous;
+                private Map<String, String> next;
+                private boolean done;
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        while (next == null && !done) {
+                            if (!rs.next()) {
+                                done = true;
+                                break;
+                            }
+
+                            Map<String, String> rowMap = builder.build(rs);
+
+                            if (rowMap.equals(previous)) {
+                                LOG.debug("Duplicate record skipped: {}", rowMap);
+                            } else {
+                                LOG.debug("Record processed: {}", rowMap);
+                                next = rowMap;
+                            }
+                        }
+                    } catch (SQLException e) {
+                        throw new CoeusReadException(e);
                     }
-                    LOG.debug("Record processed: {}", rowMap);
-                    if (!mapList.contains(rowMap)) {
-                        mapList.add(rowMap);
+                    return next != null;
+                }
+
+                @Override
+                public Map<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
                     }
+                    previous = next;
+                    next = null;
+                    return previous;
                 }
-            }
+            };
+
+            // Returning the connection to the pool closes its statement and result set
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        con.close();
+                    } catch (SQLException e) {
+                        throw new CoeusReadException(e);
+                    }
+                });
+        } catch (SQLException | RuntimeException e) {
+            con.close();
+            throw e;
         }
-        LOG.info("Retrieved result set from COEUS: {} records processed", mapList.size());
-        return mapList;
+    }
+
+    private Timestamp toTimestamp(String startDate) {
+        LocalDateTime startLd = LocalDateTime.from(DateTimeUtil.DATE_TIME_FORMATTER.parse(startDate));
+        return Timestamp.valueOf(startLd);
+    }
+
+    private Map<String, String> buildGrantRow(ResultSet rs) throws SQLException {
+        Map<String, String> rowMap = new HashMap<>();
+        rowMap.put(CoeusFieldNames.C_GRANT_AWARD_NUMBER,
+            ModelUtil.normalizeAwardNumber(rs.getString(CoeusFieldNames.C_GRANT_AWARD_NUMBER)));
+        rowMap.put(CoeusFieldNames.C_GRANT_AWARD_STATUS,
+            rs.getString(CoeusFieldNames.C_GRANT_AWARD_STATUS));
+        rowMap.put(CoeusFieldNames.C_GRANT_LOCAL_KEY, rs.getString(CoeusFieldNames.C_GRANT_LOCAL_KEY));
+        rowMap.put(CoeusFieldNames.C_GRANT_PROJECT_NAME,
+            rs.getString(CoeusFieldNames.C_GRANT_PROJECT_NAME));
+        rowMap.put(CoeusFieldNames.C_GRANT_AWARD_DATE, rs.getString(CoeusFieldNames.C_GRANT_AWARD_DATE));
+        rowMap.put(CoeusFieldNames.C_GRANT_START_DATE, rs.getString(CoeusFieldNames.C_GRANT_START_DATE));
+        rowMap.put(CoeusFieldNames.C_GRANT_END_DATE, rs.getString(CoeusFieldNames.C_GRANT_END_DATE));
+        rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_NAME,
+            rs.getString(CoeusFieldNames.C_DIRECT_FUNDER_NAME));
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
+            rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_FIRST_NAME, rs.getString(CoeusFieldNames.C_USER_FIRST_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_MIDDLE_NAME, rs.getString(CoeusFieldNames.C_USER_MIDDLE_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_LAST_NAME, rs.getString(CoeusFieldNames.C_USER_LAST_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_EMAIL, rs.getString(CoeusFieldNames.C_USER_EMAIL));
+        rowMap.put(CoeusFieldNames.C_USER_EMPLOYEE_ID, rs.getString(CoeusFieldNames.C_USER_EMPLOYEE_ID));
+        rowMap.put(CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
+            rs.getString(CoeusFieldNames.C_USER_INSTITUTIONAL_ID));
+        rowMap.put(CoeusFieldNames.C_UPDATE_TIMESTAMP, rs.getString(CoeusFieldNames.C_UPDATE_TIMESTAMP));
+        rowMap.put(CoeusFieldNames.C_ABBREVIATED_ROLE, rs.getString(CoeusFieldNames.C_ABBREVIATED_ROLE));
+        String primaryFunderLocalKey = rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY);
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY, primaryFunderLocalKey);
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY,
+            primaryFunderLocalKey != null ? funderPolicyProperties.getProperty(primaryFunderLocalKey) : null);
+        String directFunderLocalKey = rs.getString(CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY);
+        rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY, directFunderLocalKey);
+        rowMap.put(CoeusFieldNames.C_DIRECT_FUNDER_POLICY,
+            directFunderLocalKey != null ? funderPolicyProperties.getProperty(directFunderLocalKey) : null);
+        return rowMap;
     }
 
     private String buildGrantQueryString(String grant) {
         return StringUtils.isEmpty(grant)
-            ? SELECT_GRANT_SQL + "AND A.GRANT_NUMBER IS NOT NULL"
-            : SELECT_GRANT_SQL + "AND A.GRANT_NUMBER = ?";
+            ? SELECT_GRANT_SQL + "AND A.GRANT_NUMBER IS NOT NULL" + GRANT_ORDER_SQL
+            : SELECT_GRANT_SQL + "AND A.GRANT_NUMBER = ?" + GRANT_ORDER_SQL;
     }
 
-    private List<Map<String, String>> retrieveFunderUpdates() throws SQLException {
-        List<Map<String, String>> mapList = new ArrayList<>();
-        String funderSql = String.format(SELECT_FUNDER_SQL,
-            funderPolicyProperties.stringPropertyNames().stream()
-                .map(v -> "?")
-                .collect(Collectors.joining(", ")));
-        try (
-            Connection con = DriverManager.getConnection(coeusUrl, coeusUser, coeusPassword);
-            PreparedStatement ps = con.prepareStatement(funderSql);
-        ) {
-            int index = 1;
-            for ( String funderKey : funderPolicyProperties.stringPropertyNames() ) {
-                ps.setString(index++, funderKey);
-            }
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) { //these are the field names in the swift sponsor view
-                    Map<String, String> rowMap = new HashMap<>();
-                    rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY,
-                        rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY));
-                    rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
-                        rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
-                    rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY,
-                        funderPolicyProperties.getProperty(
-                            rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY)));
-                    mapList.add(rowMap);
-                }
-            }
-        }
-        return mapList;
+    //these are the field names in the swift sponsor view
+    private Map<String, String> buildFunderRow(ResultSet rs) throws SQLException {
+        Map<String, String> rowMap = new HashMap<>();
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY,
+            rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY));
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
+            rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
+        rowMap.put(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY,
+            funderPolicyProperties.getProperty(
+                rs.getString(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY)));
+        return rowMap;
     }
 
-    private List<Map<String, String>> retrieveUserUpdates(String startDate) throws SQLException {
-        List<Map<String, String>> mapList = new ArrayList<>();
-        try (
-            Connection con = DriverManager.getConnection(coeusUrl, coeusUser, coeusPassword);
-            PreparedStatement ps = con.prepareStatement(SELECT_USER_SQL);
-        ) {
-            LocalDateTime startLd = LocalDateTime.from(DateTimeUtil.DATE_TIME_FORMATTER.parse(startDate));
-            ps.setTimestamp(1, Timestamp.valueOf(startLd));
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Map<String, String> rowMap = new HashMap<>();
-                    rowMap.put(CoeusFieldNames.C_USER_FIRST_NAME, rs.getString(CoeusFieldNames.C_USER_FIRST_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_MIDDLE_NAME, rs.getString(CoeusFieldNames.C_USER_MIDDLE_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_LAST_NAME, rs.getString(CoeusFieldNames.C_USER_LAST_NAME));
-                    rowMap.put(CoeusFieldNames.C_USER_EMAIL, rs.getString(CoeusFieldNames.C_USER_EMAIL));
-                    rowMap.put(CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
-                        rs.getString(CoeusFieldNames.C_USER_INSTITUTIONAL_ID));
-                    rowMap.put(CoeusFieldNames.C_USER_EMPLOYEE_ID, rs.getString(CoeusFieldNames.C_USER_EMPLOYEE_ID));
-                    rowMap.put(CoeusFieldNames.C_UPDATE_TIMESTAMP, rs.getString(CoeusFieldNames.C_UPDATE_TIMESTAMP));
-                    LOG.debug("Record processed: {}", rowMap);
-                    if (!mapList.contains(rowMap)) {
-                        mapList.add(rowMap);
-                    }
-                }
-            }
+    private Map<String, String> buildUserRow(ResultSet rs) throws SQLException {
+        Map<String, String> rowMap = new HashMap<>();
+        rowMap.put(CoeusFieldNames.C_USER_FIRST_NAME, rs.getString(CoeusFieldNames.C_USER_FIRST_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_MIDDLE_NAME, rs.getString(CoeusFieldNames.C_USER_MIDDLE_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_LAST_NAME, rs.getString(CoeusFieldNames.C_USER_LAST_NAME));
+        rowMap.put(CoeusFieldNames.C_USER_EMAIL, rs.getString(CoeusFieldNames.C_USER_EMAIL));
+        rowMap.put(CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
+            rs.getString(CoeusFieldNames.C_USER_INSTITUTIONAL_ID));
+        rowMap.put(CoeusFieldNames.C_USER_EMPLOYEE_ID, rs.getString(CoeusFieldNames.C_USER_EMPLOYEE_ID));
+        rowMap.put(CoeusFieldNames.C_UPDATE_TIMESTAMP, rs.getString(CoeusFieldNames.C_UPDATE_TIMESTAMP));
+        return rowMap;
+    }
+
+    private interface StatementBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private interface RowBuilder {
+        Map<String, String> build(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Thrown when a row cannot be read from a stream of COEUS rows.
+     */
+    public static class CoeusReadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CoeusReadException(SQLException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
         }
-        LOG.info("Retrieved Users result set from COEUS: {} records processed", mapList.size());
-        return mapList;
     }
 
 }
@@ -18,11 +18,12 @@ package org.eclipse.pass.support.grant.data;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * This interface defines methods for connecting to a grant datasource for us with PASS
  */
-public interface GrantConnector {
+public interface GrantConnector extends AutoCloseable {
 
     /**
      * This method retrieves the data from a data source. The format is a List of Maps - one List element for each
@@ -37,4 +38,28 @@ public interface GrantConnector {
     List<Map<String, String>> retrieveUpdates(String startDate, String awardEndDate, String mode, String grant) throws
         SQLException;
 
+    /**
+     * This method retrieves the data from a data source as a Stream of Maps which may be read from the data source
+     * as the Stream is consumed. The Stream must be closed. The default implementation streams the result of
+     * {@link #retrieveUpdates(String, String, String, String)}.
+     *
+     * @param startDate - the date of the earliest record we wish to get on this pull
+     * @param awardEndDate - the end date of the award
+     * @param mode      - indicates whether the data pull is for grants, or users
+     * @param grant      - a grant number
+     * @return the records
+     * @throws SQLException           if there is an SQL exception
+     */
+    default Stream<Map<String, String>> streamUpdates(String startDate, String awardEndDate, String mode,
+                                                      String grant) throws SQLException {
+        return retrieveUpdates(startDate, awardEndDate, mode, grant).stream();
+    }
+
+    /**
+     * Release any resources, such as connections, held by the connector.
+     */
+    @Override
+    default void close() {
+    }
+
 }
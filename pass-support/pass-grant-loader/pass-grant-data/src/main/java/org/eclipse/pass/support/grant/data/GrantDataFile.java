@@ -0,0 +1,317 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.grant.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.csv.QuoteMode;
+
+/**
+ * Reads and writes the grant data files used by the pull and load actions of the grant loader. A data file is a CSV
+ * file with a header row naming the fields of the rows, which is fixed for each mode. Values are quoted. A null value
+ * is written as {@code \N}, and a value starting with a backslash is written with another backslash in front, so that
+ * only null is read back as null. Files whose name ends with {@code .gz} are gzip compressed. Rows are read and written
+ * one at a time, so the size of a file is not limited by memory. A file is written under a temporary name and renamed
+ * when complete, so a failed write leaves any existing file in place.
+ * <p>
+ * Data files used to be a Java serialized {@code List} of rows. These are still read, and can be converted with
+ * {@link #convert(File, File)}.
+ */
+public class GrantDataFile {
+
+    static final CSVFormat FORMAT = CSVFormat.DEFAULT
+        .withQuoteMode(QuoteMode.ALL)
+        .withRecordSeparator('\n');
+
+    private static final String NULL_VALUE = "\\N";
+    private static final String ESCAPE = "\\";
+
+    private static final List<String> GRANT_FIELDS = List.of(
+        CoeusFieldNames.C_GRANT_AWARD_NUMBER,
+        CoeusFieldNames.C_GRANT_AWARD_STATUS,
+        CoeusFieldNames.C_GRANT_LOCAL_KEY,
+        CoeusFieldNames.C_GRANT_PROJECT_NAME,
+        CoeusFieldNames.C_GRANT_AWARD_DATE,
+        CoeusFieldNames.C_GRANT_START_DATE,
+        CoeusFieldNames.C_GRANT_END_DATE,
+        CoeusFieldNames.C_DIRECT_FUNDER_NAME,
+        CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY,
+        CoeusFieldNames.C_DIRECT_FUNDER_POLICY,
+        CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
+        CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY,
+        CoeusFieldNames.C_PRIMARY_FUNDER_POLICY,
+        CoeusFieldNames.C_USER_FIRST_NAME,
+        CoeusFieldNames.C_USER_MIDDLE_NAME,
+        CoeusFieldNames.C_USER_LAST_NAME,
+        CoeusFieldNames.C_USER_EMAIL,
+        CoeusFieldNames.C_USER_EMPLOYEE_ID,
+        CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
+        CoeusFieldNames.C_UPDATE_TIMESTAMP,
+        CoeusFieldNames.C_ABBREVIATED_ROLE);
+
+    private static final List<String> USER_FIELDS = List.of(
+        CoeusFieldNames.C_USER_FIRST_NAME,
+        CoeusFieldNames.C_USER_MIDDLE_NAME,
+        CoeusFieldNames.C_USER_LAST_NAME,
+        CoeusFieldNames.C_USER_EMAIL,
+        CoeusFieldNames.C_USER_EMPLOYEE_ID,
+        CoeusFieldNames.C_USER_INSTITUTIONAL_ID,
+        CoeusFieldNames.C_UPDATE_TIMESTAMP);
+
+    private static final List<String> FUNDER_FIELDS = List.of(
+        CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY,
+        CoeusFieldNames.C_PRIMARY_FUNDER_NAME,
+        CoeusFieldNames.C_PRIMARY_FUNDER_POLICY);
+
+    private static final int SERIALIZED_MAGIC = 0xACED;
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    private GrantDataFile() {
+        //never called
+    }
+
+    /**
+     * The fields of the rows pulled in a mode, which make up the header of a data file.
+     *
+     * @param mode the mode of the grant loader: grant, user, or funder
+     * @return the fields of the rows
+     * @throws IllegalArgumentException if the mode is not known
+     */
+    public static List<String> fields(String mode) {
+        switch (mode) {
+            case "grant":
+                return GRANT_FIELDS;
+            case "user":
+                return USER_FIELDS;
+            case "funder":
+                return FUNDER_FIELDS;
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Write rows to a data file as they are consumed from the stream. The header is made up of the fields of the
+     * mode, a missing field in a row is written as null.
+     *
+     * @param rows the rows to write
+     * @param mode the mode of the grant loader which pulled the rows
+     * @param file the data file, which is gzip compressed if its name ends with .gz
+     * @return the number of rows written
+     * @throws IOException if the file could not be written
+     * @throws IllegalArgumentException if the mode is not known, or a row has a field which is not in the header
+     */
+    public static int write(Stream<Map<String, String>> rows, String mode, File file) throws IOException {
+        return write(rows, fields(mode), file);
+    }
+
+    private static int write(Stream<Map<String, String>> rows, List<String> fields, File file) throws IOException {
+        int count = 0;
+        Set<String> fieldSet = new HashSet<>(fields);
+        List<String> values = new ArrayList<>();
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+
+        try {
+            try (CSVPrinter printer = new CSVPrinter(openWriter(temp, file.getName().endsWith(".gz")), FORMAT)) {
+                printer.printRecord(fields);
+                Iterator<Map<String, String>> iterator = rows.iterator();
+
+                while (iterator.hasNext()) {
+                    Map<String, String> row = iterator.next();
+
+                    if (!fieldSet.containsAll(row.keySet())) {
+                        throw new IllegalArgumentException("Row " + (count + 1) + " has fields which are not in " +
+                            "the header " + fields + ": " + row.keySet());
+                    }
+
+                    values.clear();
+                    for (String field : fields) {
+                        values.add(encode(row.get(field)));
+                    }
+                    printer.printRecord(values);
+                    count++;
+                }
+            }
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+
+        return count;
+    }
+
+    private static String encode(String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return value.startsWith(ESCAPE) ? ESCAPE + value : value;
+    }
+
+    private static String decode(String value) {
+        if (value.equals(NULL_VALUE)) {
+            return null;
+        }
+        return value.startsWith(ESCAPE) ? value.substring(1) : value;
+    }
+
+    /**
+     * Read the rows of a data file. The rows are read from the file as the stream is consumed, and the file is closed
+     * when the stream is closed. Each row has every field of the header. Java serialized data files are read into
+     * memory.
+     *
+     * @param file the data file, which may be gzip compressed
+     * @return the rows of the file
+     * @throws IOException if the file could not be opened
+     */
+    public static Stream<Map<String, String>> read(File file) throws IOException {
+        InputStream in = openInputStream(file);
+
+        try {
+            if (peekMagic(in) == SERIALIZED_MAGIC) {
+                try (in) {
+                    return readSerialized(in).stream();
+                }
+            }
+
+            CSVParser parser = FORMAT.withFirstRecordAsHeader()
+                .parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<String> fields = parser.getHeaderNames();
+            Iterator<CSVRecord> records = parser.iterator();
+
+            Iterator<Map<String, String>> iterator = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public Map<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    CSVRecord record = records.next();
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 0; i < fields.size(); i++) {
+                        row.put(fields.get(i), i < record.size() ? decode(record.get(i)) : null);
+                    }
+                    return row;
+                }
+            };
+
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Convert a Java serialized data file to the CSV data file format. The header is made up of every field of the
+     * rows, which are in memory, so it is not limited to the fields of a mode.
+     *
+     * @param serializedFile the Java serialized data file
+     * @param file the data file to write, which is gzip compressed if its name ends with .gz
+     * @return the number of rows converted
+     * @throws IOException if either file could not be accessed, or the serialized file is not a list of rows
+     */
+    public static int convert(File serializedFile, File file) throws IOException {
+        List<Map<String, String>> rows;
+        try (InputStream in = openInputStream(serializedFile)) {
+            rows = readSerialized(in);
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        rows.forEach(row -> fields.addAll(row.keySet()));
+
+        return write(rows.stream(), new ArrayList<>(fields), file);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, String>> readSerialized(InputStream in) throws IOException {
+        try {
+            return (List<Map<String, String>>) new ObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Not a serialized grant data file", e);
+        }
+    }
+
+    private static InputStream openInputStream(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        if (peekMagic(in) == GZIP_MAGIC) {
+            return new BufferedInputStream(new GZIPInputStream(in));
+        }
+        return in;
+    }
+
+    private static int peekMagic(InputStream in) throws IOException {
+        in.mark(2);
+        int magic = (in.read() << 8) | in.read();
+        in.reset();
+        return magic;
+    }
+
+    private static BufferedWriter openWriter(File file, boolean gzip) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        if (gzip) {
+            out = new GZIPOutputStream(out);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+}
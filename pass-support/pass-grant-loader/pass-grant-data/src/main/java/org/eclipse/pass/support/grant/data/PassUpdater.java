@@ -17,6 +17,7 @@ package org.eclipse.pass.support.grant.data;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.eclipse.pass.support.client.model.Funder;
 import org.eclipse.pass.support.client.model.Grant;
@@ -34,6 +35,13 @@ public interface PassUpdater {
      */
     void updatePass(Collection<Map<String, String>> results, String mode);
 
+    /**
+     * Update PASS using the data in results, processing each row as it is read from the Stream.
+     * @param results the source grant data
+     * @param mode the mode of update
+     */
+    void updatePass(Stream<Map<String, String>> results, String mode);
+
     /**
      * This method takes a Grantfrom the data source, calculates whether it needs to be updated, and if so, returns
      * the updated object
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.grant.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests the COEUS connector against an H2 database, in Oracle mode, standing in for the COEUS views.
+ */
+public class CoeusConnectorTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CoeusConnectorTest.class);
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final String START_DATE = "2020-01-01 00:00:00";
+    private static final String AWARD_END_DATE = "01/01/2020";
+
+    private String url;
+    private Connection database;
+    private CoeusConnector connector;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        url = "jdbc:h2:mem:coeus" + DATABASES.incrementAndGet() + ";MODE=Oracle";
+        // Keeps the in memory database open while the connector opens and closes connections
+        database = DriverManager.getConnection(url);
+
+        try (Statement st = database.createStatement()) {
+            st.execute("CREATE SCHEMA COEUS");
+            st.execute("CREATE TABLE COEUS.JHU_FACULTY_FORCE_PROP (INST_PROPOSAL VARCHAR(20), AWARD_ID VARCHAR(20), " +
+                "AWARD_STATUS VARCHAR(20), GRANT_NUMBER VARCHAR(20), TITLE VARCHAR(200), AWARD_DATE VARCHAR(20), " +
+                "AWARD_START VARCHAR(20), AWARD_END VARCHAR(20), SPOSNOR_CODE VARCHAR(20), SPONSOR VARCHAR(100), " +
+                "PRIME_SPONSOR_CODE VARCHAR(20), PROPOSAL_STATUS VARCHAR(20), UPDATE_TIMESTAMP TIMESTAMP)");
+            st.execute("CREATE TABLE COEUS.JHU_FACULTY_FORCE_PRSN (INST_PROPOSAL VARCHAR(20), " +
+                "EMPLOYEE_ID VARCHAR(20), ABBREVIATED_ROLE VARCHAR(2), ROLE VARCHAR(40))");
+            st.execute("CREATE TABLE COEUS.JHU_FACULTY_FORCE_PRSN_DETAIL (EMPLOYEE_ID VARCHAR(20), " +
+                "FIRST_NAME VARCHAR(40), MIDDLE_NAME VARCHAR(40), LAST_NAME VARCHAR(40), EMAIL_ADDRESS VARCHAR(80), " +
+                "JHED_ID VARCHAR(20), UPDATE_TIMESTAMP TIMESTAMP)");
+            st.execute("CREATE TABLE COEUS.SWIFT_SPONSOR (SPONSOR_CODE VARCHAR(20), SPONSOR_NAME VARCHAR(100))");
+            st.execute("INSERT INTO COEUS.SWIFT_SPONSOR VALUES ('moo', 'Moo Foundation'), ('baa', 'Baa Institute')");
+        }
+
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("coeus.url", url);
+        connectionProperties.setProperty("coeus.user", "");
+        connectionProperties.setProperty("coeus.pass", "");
+        connectionProperties.setProperty("coeus.fetch.size", "100");
+        connectionProperties.setProperty("coeus.pool.size", "1");
+
+        Properties policyProperties = new Properties();
+        policyProperties.setProperty("moo", "policy/moo/policy/policy1");
+        policyProperties.setProperty("baa", "policy/baa/policy/policy2");
+
+        connector = new CoeusConnector(connectionProperties, policyProperties);
+    }
+
+    @AfterEach
+    public void cleanup() throws SQLException {
+        connector.close();
+        database.close();
+    }
+
+    // Each grant has a PI and a Co-PI, users are shared between grants
+    private void insertGrants(int grants) throws SQLException {
+        Timestamp updated = Timestamp.valueOf(LocalDateTime.of(2023, 6, 1, 12, 0));
+
+        try (PreparedStatement prop = database.prepareStatement(
+                 "INSERT INTO COEUS.JHU_FACULTY_FORCE_PROP VALUES (?, ?, 'Active', ?, ?, '01/01/2021', " +
+                 "'01/01/2021', '12/31/2025', 'baa', 'Baa Institute', ?, 'Funded', ?)");
+             PreparedStatement prsn = database.prepareStatement(
+                 "INSERT INTO COEUS.JHU_FACULTY_FORCE_PRSN VALUES (?, ?, ?, ?)");
+             PreparedStatement detail = database.prepareStatement(
+                 "INSERT INTO COEUS.JHU_FACULTY_FORCE_PRSN_DETAIL VALUES (?, 'First', 'M', ?, ?, ?, ?)")) {
+
+            for (int i = 0; i < grants; i++) {
+                String proposal = "P" + i;
+                prop.setString(1, proposal);
+                prop.setString(2, String.format("K23 HL%06d", i));
+                prop.setString(3, "G" + i);
+                prop.setString(4, "Project " + i);
+                prop.setString(5, i % 2 == 0 ? "moo" : null);
+                prop.setTimestamp(6, updated);
+                prop.addBatch();
+
+                prsn.setString(1, proposal);
+                prsn.setString(2, "E" + (i % 100));
+                prsn.setString(3, "P");
+                prsn.setString(4, "Principal Investigator");
+                prsn.addBatch();
+
+                prsn.setString(1, proposal);
+                prsn.setString(2, "E" + ((i + 1) % 100));
+                prsn.setString(3, "C");
+                prsn.setString(4, "Co-Investigator");
+                prsn.addBatch();
+            }
+
+            for (int i = 0; i < Math.min(grants + 1, 100); i++) {
+                detail.setString(1, "E" + i);
+                detail.setString(2, "Last" + i);
+                detail.setString(3, "user" + i + "@jhu.edu");
+                detail.setString(4, "jhed" + i);
+                detail.setTimestamp(5, updated);
+                detail.addBatch();
+            }
+
+            prop.executeBatch();
+            prsn.executeBatch();
+            detail.executeBatch();
+        }
+    }
+
+    @Test
+    public void testStreamGrants() throws SQLException {
+        insertGrants(10);
+
+        List<Map<String, String>> rows;
+        try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant", null)) {
+            rows = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(20, rows.size());
+
+        Map<String, String> pi = rows.stream()
+            .filter(row -> row.get(CoeusFieldNames.C_GRANT_LOCAL_KEY).equals("G0"))
+            .filter(row -> row.get(CoeusFieldNames.C_ABBREVIATED_ROLE).equals("P"))
+            .findFirst().orElseThrow();
+        assertEquals("K23HL000000", pi.get(CoeusFieldNames.C_GRANT_AWARD_NUMBER));
+        assertEquals("E0", pi.get(CoeusFieldNames.C_USER_EMPLOYEE_ID));
+        assertEquals("user0@jhu.edu", pi.get(CoeusFieldNames.C_USER_EMAIL));
+        assertEquals("Moo Foundation", pi.get(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
+        assertEquals("policy/moo/policy/policy1", pi.get(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY));
+        assertEquals("policy/baa/policy/policy2", pi.get(CoeusFieldNames.C_DIRECT_FUNDER_POLICY));
+
+        Map<String, String> coPi = rows.stream()
+            .filter(row -> row.get(CoeusFieldNames.C_GRANT_LOCAL_KEY).equals("G1"))
+            .filter(row -> row.get(CoeusFieldNames.C_ABBREVIATED_ROLE).equals("C"))
+            .findFirst().orElseThrow();
+        assertEquals("E2", coPi.get(CoeusFieldNames.C_USER_EMPLOYEE_ID));
+        assertNull(coPi.get(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY));
+        assertNull(coPi.get(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY));
+    }
+
+    @Test
+    public void testRetrieveMatchesStream() throws SQLException {
+        insertGrants(10);
+
+        List<Map<String, String>> retrieved = connector.retrieveUpdates(START_DATE, AWARD_END_DATE, "grant", null);
+
+        try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant", null)) {
+            assertEquals(new HashSet<>(retrieved), stream.collect(Collectors.toSet()));
+        }
+
+        List<Map<String, String>> single = connector.retrieveUpdates(START_DATE, AWARD_END_DATE, "grant", "G3");
+        assertEquals(2, single.size());
+        assertTrue(single.stream().allMatch(row -> row.get(CoeusFieldNames.C_GRANT_LOCAL_KEY).equals("G3")));
+    }
+
+    @Test
+    public void testStreamUsersAndFunders() throws SQLException {
+        insertGrants(10);
+
+        assertEquals(11, connector.retrieveUpdates(START_DATE, null, "user", null).size());
+
+        List<Map<String, String>> funders = connector.retrieveUpdates(null, null, "funder", null);
+        assertEquals(2, funders.size());
+        assertTrue(funders.stream().anyMatch(row -> "Baa Institute".equals(row.get(
+            CoeusFieldNames.C_PRIMARY_FUNDER_NAME)) && "policy/baa/policy/policy2".equals(row.get(
+            CoeusFieldNames.C_PRIMARY_FUNDER_POLICY))));
+    }
+
+    /**
+     * Rows which only differ in the formatting of the award number are the same once it is normalized.
+     */
+    @Test
+    public void testStreamSkipsNormalizedDuplicates() throws SQLException {
+        insertGrants(2);
+
+        try (Statement st = database.createStatement()) {
+            st.execute("INSERT INTO COEUS.JHU_FACULTY_FORCE_PROP SELECT INST_PROPOSAL, 'K23HL000000', " +
+                "AWARD_STATUS, GRANT_NUMBER, TITLE, AWARD_DATE, AWARD_START, AWARD_END, SPOSNOR_CODE, SPONSOR, " +
+                "PRIME_SPONSOR_CODE, PROPOSAL_STATUS, UPDATE_TIMESTAMP FROM COEUS.JHU_FACULTY_FORCE_PROP " +
+                "WHERE INST_PROPOSAL = 'P0'");
+        }
+
+        List<Map<String, String>> rows;
+        try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant", null)) {
+            rows = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(4, rows.size());
+        assertEquals(4, new HashSet<>(rows).size());
+    }
+
+    /**
+     * The pool has a single connection, so each query waits for the previous stream to return it.
+     */
+    @Test
+    public void testClosedStreamReturnsConnection() throws SQLException {
+        insertGrants(3);
+
+        for (int i = 0; i < 3; i++) {
+            try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant",
+                null)) {
+                assertEquals(6, stream.limit(6).count());
+            }
+        }
+    }
+
+    /**
+     * Compare loading grant rows into a list with consuming them as they are read. The number of grants can be set
+     * with the system property pass.grant.bench.grants. The heap in use is measured halfway through the stream and
+     * after loading the list.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkStreamGrants() throws SQLException {
+        int grants = Integer.getInteger("pass.grant.bench.grants", 20000);
+        insertGrants(grants);
+
+        long start = System.nanoTime();
+        int retrieved = connector.retrieveUpdates(START_DATE, AWARD_END_DATE, "grant", null).size();
+        double retrieveSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        long streamed;
+        try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant", null)) {
+            streamed = stream.count();
+        }
+        double streamSeconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(2L * grants, retrieved);
+        assertEquals(2L * grants, streamed);
+
+        long streamBaseline = usedHeap();
+        long[] streamHeap = new long[1];
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<Map<String, String>> stream = connector.streamUpdates(START_DATE, AWARD_END_DATE, "grant", null)) {
+            stream.forEach(row -> {
+                if (count.incrementAndGet() == grants) {
+                    streamHeap[0] = usedHeap() - streamBaseline;
+                }
+            });
+        }
+
+        long listBaseline = usedHeap();
+        List<Map<String, String>> list = connector.retrieveUpdates(START_DATE, AWARD_END_DATE, "grant", null);
+        long listHeap = usedHeap() - listBaseline;
+        assertEquals(retrieved, list.size());
+
+        LOG.info("Retrieved {} grant rows in {}s, streamed them in {}s", retrieved,
+            String.format("%.2f", retrieveSeconds), String.format("%.2f", streamSeconds));
+        LOG.info("Heap in use holding the list: {}KiB, while streaming: {}KiB", listHeap / 1024,
+            streamHeap[0] / 1024);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.support.grant.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests reading, writing and converting grant data files
+ */
+public class GrantDataFileTest {
+    private static final Logger LOG = LoggerFactory.getLogger(GrantDataFileTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, String> grantRow(int i) {
+        Map<String, String> row = new HashMap<>();
+        row.put(CoeusFieldNames.C_GRANT_AWARD_NUMBER, "K23HL" + i);
+        row.put(CoeusFieldNames.C_GRANT_AWARD_STATUS, "Active");
+        row.put(CoeusFieldNames.C_GRANT_LOCAL_KEY, "G" + i);
+        row.put(CoeusFieldNames.C_GRANT_PROJECT_NAME, "Project " + i + ", \"phase\" 2\nextension");
+        row.put(CoeusFieldNames.C_GRANT_AWARD_DATE, "01/01/2021");
+        row.put(CoeusFieldNames.C_GRANT_START_DATE, "01/01/2021");
+        row.put(CoeusFieldNames.C_GRANT_END_DATE, "12/31/2025");
+        row.put(CoeusFieldNames.C_DIRECT_FUNDER_NAME, "Baa Institute");
+        row.put(CoeusFieldNames.C_PRIMARY_FUNDER_NAME, i % 2 == 0 ? "Moo Foundation" : null);
+        row.put(CoeusFieldNames.C_USER_FIRST_NAME, "First");
+        row.put(CoeusFieldNames.C_USER_MIDDLE_NAME, "");
+        row.put(CoeusFieldNames.C_USER_LAST_NAME, "Last" + i);
+        row.put(CoeusFieldNames.C_USER_EMAIL, "user" + i + "@jhu.edu");
+        row.put(CoeusFieldNames.C_USER_EMPLOYEE_ID, "E" + i);
+        row.put(CoeusFieldNames.C_USER_INSTITUTIONAL_ID, "jhed" + i);
+        row.put(CoeusFieldNames.C_UPDATE_TIMESTAMP, "2023-06-01 12:00:00.0");
+        row.put(CoeusFieldNames.C_ABBREVIATED_ROLE, "P");
+        row.put(CoeusFieldNames.C_PRIMARY_FUNDER_LOCAL_KEY, i % 2 == 0 ? "moo" : null);
+        row.put(CoeusFieldNames.C_PRIMARY_FUNDER_POLICY, i % 2 == 0 ? "policy/moo/policy/policy1" : null);
+        row.put(CoeusFieldNames.C_DIRECT_FUNDER_LOCAL_KEY, "baa");
+        row.put(CoeusFieldNames.C_DIRECT_FUNDER_POLICY, "policy/baa/policy/policy2");
+        return row;
+    }
+
+    private static List<Map<String, String>> read(File file) throws IOException {
+        try (Stream<Map<String, String>> rows = GrantDataFile.read(file)) {
+            return rows.collect(Collectors.toList());
+        }
+    }
+
+    private static void serialize(List<Map<String, String>> rows, File file) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject(rows);
+        }
+    }
+
+    /**
+     * Rows are read back as written, keeping nulls, empty strings, quotes and line breaks
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        List<Map<String, String>> rows = IntStream.range(0, 10).mapToObj(GrantDataFileTest::grantRow)
+            .collect(Collectors.toList());
+
+        for (String name : List.of("grants.csv", "grants.csv.gz")) {
+            File file = tempDir.resolve(name).toFile();
+            assertEquals(10, GrantDataFile.write(rows.stream(), "grant", file));
+            assertEquals(rows, read(file));
+        }
+
+        Map<String, String> row = read(tempDir.resolve("grants.csv").toFile()).get(1);
+        assertNull(row.get(CoeusFieldNames.C_PRIMARY_FUNDER_NAME));
+        assertEquals("", row.get(CoeusFieldNames.C_USER_MIDDLE_NAME));
+        assertEquals("Project 1, \"phase\" 2\nextension", row.get(CoeusFieldNames.C_GRANT_PROJECT_NAME));
+    }
+
+    @Test
+    public void testWriteEmpty() throws IOException {
+        File file = tempDir.resolve("empty.csv").toFile();
+
+        assertEquals(0, GrantDataFile.write(Stream.empty(), "user", file));
+        assertTrue(read(file).isEmpty());
+    }
+
+    /**
+     * Values which look like the null marker are read back as written
+     */
+    @Test
+    public void testNullMarkerInValues() throws IOException {
+        List<String> values = Arrays.asList(null, "\\N", "\\\\N", "\\", "N", "", "a\\N");
+        List<Map<String, String>> rows = new ArrayList<>();
+
+        for (String value : values) {
+            Map<String, String> row = new HashMap<>();
+            GrantDataFile.fields("user").forEach(field -> row.put(field, "x"));
+            row.put(CoeusFieldNames.C_USER_MIDDLE_NAME, value);
+            rows.add(row);
+        }
+
+        File file = tempDir.resolve("users.csv").toFile();
+        assertEquals(values.size(), GrantDataFile.write(rows.stream(), "user", file));
+        assertEquals(values, read(file).stream().map(row -> row.get(CoeusFieldNames.C_USER_MIDDLE_NAME))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * The header is fixed by the mode, so a field missing from any row is read as null
+     */
+    @Test
+    public void testWriteMissingFields() throws IOException {
+        Map<String, String> first = new HashMap<>(Map.of(CoeusFieldNames.C_USER_EMPLOYEE_ID, "E1"));
+        Map<String, String> second = new HashMap<>(Map.of(CoeusFieldNames.C_USER_EMPLOYEE_ID, "E2",
+            CoeusFieldNames.C_USER_EMAIL, "user2@jhu.edu"));
+        File file = tempDir.resolve("users.csv").toFile();
+
+        assertEquals(2, GrantDataFile.write(Stream.of(first, second), "user", file));
+
+        List<Map<String, String>> rows = read(file);
+        assertEquals(GrantDataFile.fields("user"), new ArrayList<>(rows.get(0).keySet()));
+        assertNull(rows.get(0).get(CoeusFieldNames.C_USER_EMAIL));
+        assertEquals("user2@jhu.edu", rows.get(1).get(CoeusFieldNames.C_USER_EMAIL));
+    }
+
+    /**
+     * A field outside the header is an error, and a failed write leaves the existing file in place
+     */
+    @Test
+    public void testFailedWriteKeepsFile() throws IOException {
+        Map<String, String> row = new HashMap<>(Map.of(CoeusFieldNames.C_USER_EMPLOYEE_ID, "E1"));
+        Map<String, String> extra = new HashMap<>(Map.of(CoeusFieldNames.C_USER_EMPLOYEE_ID, "E2", "c", "5"));
+        File file = tempDir.resolve("users.csv").toFile();
+
+        assertEquals(1, GrantDataFile.write(Stream.of(row), "user", file));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> GrantDataFile.write(Stream.of(row, row, extra), "user", file));
+        assertThrows(IllegalArgumentException.class, () -> GrantDataFile.write(Stream.of(row), "other", file));
+
+        assertEquals(1, read(file).size());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(file.toPath()), files.collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Serialized data files can still be loaded, and are converted with every field of their rows
+     */
+    @Test
+    public void testReadAndConvertSerialized() throws IOException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        rows.add(new HashMap<>(Map.of("a", "1")));
+        rows.add(new HashMap<>(Map.of("a", "2", "b", "3")));
+
+        File serialized = tempDir.resolve("grants.ser").toFile();
+        serialize(rows, serialized);
+        assertEquals(rows, read(serialized));
+
+        File file = tempDir.resolve("grants.csv").toFile();
+        assertEquals(2, GrantDataFile.convert(serialized, file));
+
+        List<Map<String, String>> converted = read(file);
+        assertEquals(2, converted.size());
+        assertEquals("1", converted.get(0).get("a"));
+        assertNull(converted.get(0).get("b"));
+        assertEquals(rows.get(1), converted.get(1));
+    }
+
+    /**
+     * Compare the time to write and read back a data file, as done by the pull and load actions, in the serialized
+     * and CSV formats. The number of rows can be set with the system property pass.grant.bench.rows.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkDataFiles() throws IOException {
+        int size = Integer.getInteger("pass.grant.bench.rows", 50000);
+        List<Map<String, String>> rows = IntStream.range(0, size).mapToObj(GrantDataFileTest::grantRow)
+            .collect(Collectors.toList());
+
+        File serialized = tempDir.resolve("bench.ser").toFile();
+        long start = System.nanoTime();
+        serialize(rows, serialized);
+        double serializedPull = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        long serializedRows;
+        try (Stream<Map<String, String>> stream = GrantDataFile.read(serialized)) {
+            serializedRows = stream.count();
+        }
+        double serializedLoad = (System.nanoTime() - start) / 1e9;
+
+        LOG.info("Serialized file of {} rows, {} bytes: pull {}s, load {}s", serializedRows, serialized.length(),
+            String.format("%.2f", serializedPull), String.format("%.2f", serializedLoad));
+
+        for (String name : List.of("bench.csv", "bench.csv.gz")) {
+            File file = tempDir.resolve(name).toFile();
+            start = System.nanoTime();
+            GrantDataFile.write(rows.stream(), "grant", file);
+            double pull = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long count;
+            try (Stream<Map<String, String>> stream = GrantDataFile.read(file)) {
+                count = stream.count();
+            }
+            double load = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(size, count);
+            LOG.info("{} file of {} rows, {} bytes: pull {}s, load {}s", name, count, file.length(),
+                String.format("%.2f", pull), String.format("%.2f", load));
+        }
+    }
+}
@@ -22,7 +22,6 @@ import java.util.Map;
 
 import jakarta.mail.Message;
 import jakarta.mail.internet.MimeMessage;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.pass.notification.config.NotificationConfig;
 import org.eclipse.pass.notification.config.NotificationTemplate;
@@ -31,6 +30,7 @@ import org.eclipse.pass.notification.dispatch.DispatchException;
 import org.eclipse.pass.notification.dispatch.DispatchService;
 import org.eclipse.pass.notification.model.Notification;
 import org.eclipse.pass.notification.model.NotificationType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
@@ -50,18 +50,44 @@ import org.springframework.stereotype.Service;
  * implementation does <em>not</em> send individual emails to each recipient.  It will send a single email, with both
  * recipients listed in the {@code TO} field of the email.
  * </p>
+ * <p>
+ * Composed emails are handed to the {@link MailDispatchQueue}, which may send them asynchronously.
+ * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  * @see <a href="https://tools.ietf.org/html/rfc6068">RFC 6068</a>
  */
 @Slf4j
-@AllArgsConstructor
 @Service
 public class EmailDispatchImpl implements DispatchService {
 
     private final Parameterizer parameterizer;
     private final EmailComposer composer;
-    private final JavaMailSender javaMailSender;
+    private final MailDispatchQueue mailDispatchQueue;
+
+    /**
+     * Creates a dispatcher which sends each email on the calling thread.
+     * @param parameterizer the parameterizer
+     * @param composer the composer
+     * @param javaMailSender the mail sender
+     */
+    public EmailDispatchImpl(Parameterizer parameterizer, EmailComposer composer, JavaMailSender javaMailSender) {
+        this(parameterizer, composer, new MailDispatchQueue(javaMailSender));
+    }
+
+    /**
+     * Constructor.
+     * @param parameterizer the parameterizer
+     * @param composer the composer
+     * @param mailDispatchQueue the queue sending composed emails
+     */
+    @Autowired
+    public EmailDispatchImpl(Parameterizer parameterizer, EmailComposer composer,
+                             MailDispatchQueue mailDispatchQueue) {
+        this.parameterizer = parameterizer;
+        this.composer = composer;
+        this.mailDispatchQueue = mailDispatchQueue;
+    }
 
     @Override
     public void dispatch(Notification notification) {
@@ -79,7 +105,7 @@ public class EmailDispatchImpl implements DispatchService {
                         notificationTuple(notification) + "]", notification));
 
             // send email
-            javaMailSender.send(email);
+            mailDispatchQueue.send(email, notification);
             log.trace("Dispatched email with id '{}'", notification.getEventId());
         } catch (DispatchException e) {
             throw e;
@@ -18,8 +18,14 @@ package org.eclipse.pass.notification.dispatch.email;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -35,7 +41,9 @@ import org.springframework.stereotype.Component;
 /**
  * Parameterizes Mustache templates using Handlebars.
  * <p>
- * <em>Implementation note:</em> performance could be improved by pre-compiling templates.
+ * Compiled templates are cached by the SHA-256 hash of their content, so a template is compiled once no matter how
+ * many notifications use it, and a template whose content changes is compiled again.  The least recently used
+ * templates are evicted once the cache holds {@link #DEFAULT_CACHE_SIZE} templates.
  * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
@@ -43,8 +51,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class HandlebarsParameterizer {
 
+    static final int DEFAULT_CACHE_SIZE = 256;
+
     private final Handlebars handlebars;
     private final ObjectMapper mapper;
+    private final Map<String, Template> compiled;
+    private final LongAdder compilations = new LongAdder();
 
     /**
      * Constructor.
@@ -56,6 +68,12 @@ public class HandlebarsParameterizer {
         handlebars.registerHelper("eq", ConditionalHelpers.eq);
         handlebars.registerHelper("abbreviate", StringHelpers.abbreviate);
         this.handlebars = handlebars.with(EscapingStrategy.NOOP);
+        this.compiled = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                return size() > DEFAULT_CACHE_SIZE;
+            }
+        });
     }
 
     /**
@@ -65,8 +83,17 @@ public class HandlebarsParameterizer {
      * @return the populated template as String
      */
     public String parameterize(Map<NotificationParam, String> paramMap, InputStream template) {
+        return parameterizeModel(model(paramMap), template);
+    }
 
-        Map<String, Object> mustacheModel = paramMap
+    /**
+     * Build the model used to populate templates from the param values.  Metadata params are parsed from JSON.  The
+     * model can be reused to populate each template of a notification.
+     * @param paramMap the map of params
+     * @return the model
+     */
+    public Map<String, Object> model(Map<NotificationParam, String> paramMap) {
+        return paramMap
                 .entrySet()
                 .stream()
                 .collect(Collectors.toMap(entry -> entry.getKey().getParamName(),
@@ -80,7 +107,7 @@ public class HandlebarsParameterizer {
                                         throw new RuntimeException(e.getMessage(), e);
                                     }
                                 }
-                                case LINKS -> {
+                                case LINKS, EVENT_DIGEST -> {
                                     try {
                                         return mapper.readValue(entry.getValue(), List.class);
                                     } catch (IOException e) {
@@ -93,15 +120,52 @@ public class HandlebarsParameterizer {
 
                             return entry.getValue();
                         }));
+    }
 
+    /**
+     * Populate template stream with a model built by {@link #model(Map)} and return it as a String.
+     * @param model the model
+     * @param template the template
+     * @return the populated template as String
+     */
+    public String parameterizeModel(Map<String, Object> model, InputStream template) {
         String parameterizedTemplate;
         try {
             String templateString = IOUtils.toString(template, StandardCharsets.UTF_8);
-            Template t = handlebars.compileInline(templateString);
-            parameterizedTemplate = t.apply(mustacheModel);
+            parameterizedTemplate = compile(templateString).apply(model);
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
         return parameterizedTemplate;
     }
+
+    /**
+     * @return the number of templates compiled, i.e. the number of cache misses
+     */
+    public long getCompilations() {
+        return compilations.sum();
+    }
+
+    private Template compile(String templateString) throws IOException {
+        String key = sha256(templateString);
+        Template template = compiled.get(key);
+
+        if (template == null) {
+            // Concurrent misses may both compile, the templates are equivalent
+            template = handlebars.compileInline(templateString);
+            compilations.increment();
+            compiled.put(key, template);
+        }
+
+        return template;
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.notification.dispatch.email;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.pass.notification.dispatch.DispatchException;
+import org.eclipse.pass.notification.model.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends composed email messages.
+ * <p>
+ * When asynchronous dispatch is enabled, messages are queued and sent by a fixed pool of worker threads, so that a slow
+ * SMTP server does not hold up the thread consuming notifications.  Each worker keeps its SMTP connection open and
+ * sends every message it handles over it, reconnecting only when the server drops the connection.  The queue is
+ * bounded: when it is full, {@link #send(MimeMessage, Notification)} blocks until a message is sent.
+ * </p>
+ * <p>
+ * Transient failures, i.e. connection failures and SMTP 4xx replies, are retried with exponential backoff.  Permanent
+ * failures, and messages which exhaust their attempts, are logged and dropped.
+ * </p>
+ * <p>
+ * When asynchronous dispatch is disabled, each message is sent on the calling thread and failures are thrown to the
+ * caller.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MailDispatchQueue {
+
+    private final JavaMailSender javaMailSender;
+    private final boolean async;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Semaphore queued;
+    private final ThreadLocal<Transport> transports = new ThreadLocal<>();
+    private final Set<Transport> openTransports = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final LongAccumulator maxSendNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Creates a queue which sends each message on the calling thread.
+     * @param javaMailSender the mail sender
+     */
+    public MailDispatchQueue(JavaMailSender javaMailSender) {
+        this(javaMailSender, false, 1, 1, 1, 0, 0);
+    }
+
+    /**
+     * Constructor.
+     * @param javaMailSender the mail sender
+     * @param async whether messages are sent by the worker pool
+     * @param threads the number of workers, each holding an SMTP connection
+     * @param queueCapacity the number of messages accepted but not yet sent before callers block
+     * @param maxAttempts the number of times a message is attempted
+     * @param initialBackoffMs milliseconds before the first retry, doubled for each further retry
+     * @param maxBackoffMs the maximum milliseconds between retries
+     */
+    @Autowired
+    public MailDispatchQueue(JavaMailSender javaMailSender,
+                             @Value("${pass.notification.dispatch.async:false}") boolean async,
+                             @Value("${pass.notification.dispatch.threads:2}") int threads,
+                             @Value("${pass.notification.dispatch.queue-capacity:1000}") int queueCapacity,
+                             @Value("${pass.notification.dispatch.retry.max-attempts:3}") int maxAttempts,
+                             @Value("${pass.notification.dispatch.retry.initial-ms:1000}") long initialBackoffMs,
+                             @Value("${pass.notification.dispatch.retry.max-ms:60000}") long maxBackoffMs) {
+        if (threads < 1 || queueCapacity < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Dispatch threads, queue capacity, and attempts must be positive");
+        }
+
+        this.javaMailSender = javaMailSender;
+        this.async = async;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.queued = new Semaphore(queueCapacity);
+
+        if (async) {
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+                Thread t = new Thread(runnable, "pass-mail-dispatch-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Send a message.  Returns once the message is queued, or once it is sent if asynchronous dispatch is disabled.
+     * @param message the message
+     * @param notification the notification the message was composed from
+     * @throws DispatchException if interrupted while waiting for room in the queue
+     */
+    public void send(MimeMessage message, Notification notification) {
+        if (!async) {
+            long start = System.nanoTime();
+            javaMailSender.send(message);
+            recordSend(start);
+            return;
+        }
+
+        try {
+            queued.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DispatchException("Interrupted while queueing email", e, notification);
+        }
+
+        try {
+            executor.execute(() -> attempt(message, notification, 1));
+        } catch (RuntimeException e) {
+            queued.release();
+            throw new DispatchException("Unable to queue email: " + e.getMessage(), e, notification);
+        }
+    }
+
+    private void attempt(MimeMessage message, Notification notification, int attempt) {
+        try {
+            long start = System.nanoTime();
+            deliver(message);
+            recordSend(start);
+            queued.release();
+            log.trace("Sent email with id '{}'", notification.getEventId());
+        } catch (Exception e) {
+            if (attempt < maxAttempts && isTransient(e) && !executor.isShutdown()) {
+                long delay = Math.min(initialBackoffMs << Math.min(attempt - 1, 30), maxBackoffMs);
+                retried.increment();
+                log.warn("Transient failure sending email for notification tuple [{},{}] (attempt {} of {}), " +
+                         "retrying in {} ms: {}", notification.getResourceId(), notification.getEventId(), attempt,
+                         maxAttempts, delay, e.getMessage());
+                executor.schedule(() -> attempt(message, notification, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } else {
+                failed.increment();
+                queued.release();
+                log.error("Unable to send email for notification tuple [{},{}] after {} attempts",
+                          notification.getResourceId(), notification.getEventId(), attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Sends the message over the connection of the current worker if the sender exposes its mail session, otherwise
+     * through the sender.
+     */
+    private void deliver(MimeMessage message) throws MessagingException {
+        if (!(javaMailSender instanceof JavaMailSenderImpl)) {
+            javaMailSender.send(message);
+            return;
+        }
+
+        Transport transport = transport((JavaMailSenderImpl) javaMailSender);
+
+        try {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+
+            // Saving changes assigns a new Message-ID, keep one that was set explicitly
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+
+            Address[] addresses = message.getAllRecipients();
+            transport.sendMessage(message, addresses != null ? addresses : new Address[0]);
+        } catch (MessagingException | RuntimeException e) {
+            // The connection may be broken, connect again for the next message
+            close(transport);
+            throw e;
+        }
+    }
+
+    private Transport transport(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = transports.get();
+
+        if (transport != null) {
+            if (transport.isConnected()) {
+                return transport;
+            }
+            close(transport);
+        }
+
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        String username = sender.getUsername() == null || sender.getUsername().isEmpty() ? null : sender.getUsername();
+        String password = sender.getPassword() == null || sender.getPassword().isEmpty() ? null : sender.getPassword();
+
+        transport = sender.getSession().getTransport(protocol);
+        transport.connect(sender.getHost(), sender.getPort(), username, password);
+        connections.increment();
+        transports.set(transport);
+        openTransports.add(transport);
+
+        return transport;
+    }
+
+    private void close(Transport transport) {
+        transports.remove();
+        openTransports.remove(transport);
+
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private void recordSend(long start) {
+        long nanos = System.nanoTime() - start;
+        sent.increment();
+        sendNanos.add(nanos);
+        maxSendNanos.accumulate(nanos);
+    }
+
+    /**
+     * A failure is transient if the SMTP server replied with a 4xx code, or if no reply was received because the
+     * connection failed.  Authentication failures, rejected addresses, and malformed messages are permanent.
+     */
+    static boolean isTransient(Throwable e) {
+        if (e instanceof MailSendException && !((MailSendException) e).getFailedMessages().isEmpty()) {
+            return ((MailSendException) e).getFailedMessages().values().stream()
+                                          .allMatch(MailDispatchQueue::isTransient);
+        }
+
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            int code = smtpReturnCode(t);
+
+            if (code >= 400 && code < 500) {
+                return true;
+            }
+
+            if (code >= 500 || t instanceof AuthenticationFailedException ||
+                t instanceof MailAuthenticationException || t instanceof MailParseException ||
+                t instanceof MailPreparationException) {
+                return false;
+            }
+
+            if (t instanceof SendFailedException && ((SendFailedException) t).getInvalidAddresses() != null &&
+                ((SendFailedException) t).getInvalidAddresses().length > 0) {
+                return false;
+            }
+
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+
+        // e.g. a connection that could not be opened
+        return e instanceof MessagingException || e instanceof MailSendException;
+    }
+
+    /**
+     * The SMTP exceptions of the mail provider expose the server reply code, but are not part of the mail API.
+     */
+    private static int smtpReturnCode(Throwable t) {
+        try {
+            Method getReturnCode = t.getClass().getMethod("getReturnCode");
+            return getReturnCode.getReturnType() == int.class ? (int) getReturnCode.invoke(t) : -1;
+        } catch (ReflectiveOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return whether messages are sent by the worker pool
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return the number of messages queued or being retried, but not yet sent or dropped
+     */
+    public int getQueueDepth() {
+        return queueCapacity - queued.availablePermits();
+    }
+
+    /**
+     * @return the number of messages sent
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of messages dropped after a permanent failure or exhausting their attempts
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of retries of transient failures
+     */
+    public long getRetried() {
+        return retried.sum();
+    }
+
+    /**
+     * @return the number of SMTP connections opened by the workers
+     */
+    public long getConnections() {
+        return connections.sum();
+    }
+
+    /**
+     * @return the mean milliseconds taken to send a message
+     */
+    public double getMeanSendMillis() {
+        long count = sent.sum();
+        return count == 0 ? 0 : sendNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return the most milliseconds taken to send a message
+     */
+    public double getMaxSendMillis() {
+        return maxSendNanos.get() / 1e6;
+    }
+
+    /**
+     * Stop accepting messages, wait briefly for queued messages to be sent, and close the SMTP connections.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Discarding {} queued emails on shutdown", getQueueDepth());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        openTransports.forEach(transport -> {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+        });
+        openTransports.clear();
+    }
+}
@@ -58,14 +58,14 @@ public class Parameterizer {
                         .collect(Collectors.toMap(Map.Entry::getKey,
                                 entry -> compositeResolver.resolve(entry.getKey(), entry.getValue())));
 
-        // perform pararmeterization on all templates
+        // perform pararmeterization on all templates, parsing the notification parameters once
+
+        Map<String, Object> model = parameterizer.model(
+                ofNullable(notification.getParameters()).orElseGet(Collections::emptyMap));
 
         return templates.entrySet()
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey,
-                        entry -> parameterizer.parameterize(
-                                ofNullable(notification.getParameters())
-                                    .orElseGet(Collections::emptyMap),
-                                entry.getValue())));
+                        entry -> parameterizer.parameterizeModel(model, entry.getValue())));
     }
 }
@@ -17,34 +17,57 @@ package org.eclipse.pass.notification.dispatch.email;
 
 import static java.lang.String.format;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.InvalidPathException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.pass.notification.config.NotificationTemplateName;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Component;
 
 /**
+ * Resolves templates as Spring resources.  The content of classpath and file resources is cached, and read again only
+ * when the last modified time of the resource changes.  Remote resources are read on every resolution.
+ *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
 @Slf4j
 @Component
 public class SpringUriTemplateResolver implements TemplateResolver {
 
+    private final Map<String, CachedTemplate> cache = new ConcurrentHashMap<>();
+
+    private static class CachedTemplate {
+        private final long lastModified;
+        private final byte[] content;
+
+        private CachedTemplate(long lastModified, byte[] content) {
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+    }
+
     @Override
     public InputStream resolve(NotificationTemplateName name, String template) {
 
         try {
             if (template.startsWith("classpath:")) {
                 int semiColonIdx = template.indexOf(":");
-                return new ClassPathResource(template.substring(semiColonIdx + 1)).getInputStream();
+                return cached(template, new ClassPathResource(template.substring(semiColonIdx + 1)));
+            }
+
+            if (template.startsWith("file:")) {
+                return cached(template, new UrlResource(template));
             }
 
-            if (template.startsWith("file:") || template.startsWith("http:") || template.startsWith("https:")) {
+            if (template.startsWith("http:") || template.startsWith("https:")) {
                 // todo: handle authenticated endpoints; cf. deposit services for impl
                 return new UrlResource(template).getInputStream();
             }
@@ -57,7 +80,7 @@ public class SpringUriTemplateResolver implements TemplateResolver {
         // assume file
 
         try {
-            return new FileSystemResource(template).getInputStream();
+            return cached(template, new FileSystemResource(template));
         } catch (IOException | InvalidPathException e) {
             log.debug("Unable to resolve template named '{}' (value: '{}') as a Spring Resource.", name, template);
         }
@@ -65,4 +88,29 @@ public class SpringUriTemplateResolver implements TemplateResolver {
         return null;
 
     }
+
+    /**
+     * Answers the content of the resource, reading it only if it is not cached or was modified since it was cached.
+     * Resources without a last modified time are read every time.
+     */
+    private InputStream cached(String template, Resource resource) throws IOException {
+        long lastModified;
+
+        try {
+            lastModified = resource.lastModified();
+        } catch (IOException e) {
+            return resource.getInputStream();
+        }
+
+        CachedTemplate cached = cache.get(template);
+
+        if (cached == null || cached.lastModified != lastModified) {
+            try (InputStream in = resource.getInputStream()) {
+                cached = new CachedTemplate(lastModified, in.readAllBytes());
+            }
+            cache.put(template, cached);
+        }
+
+        return new ByteArrayInputStream(cached.content);
+    }
 }
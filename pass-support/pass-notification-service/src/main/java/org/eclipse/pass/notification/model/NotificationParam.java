@@ -65,6 +65,12 @@ public enum NotificationParam {
      */
     LINKS("link_metadata"),
 
+    /**
+     * Placeholder for a list of the metadata of each event summarized by a digest notification, absent if the
+     * notification is for a single event
+     */
+    EVENT_DIGEST("event_digest"),
+
     /**
      * Placeholder for the application domain
      */
@@ -19,11 +19,14 @@ import static java.lang.String.join;
 import static org.eclipse.pass.notification.service.LinksUtil.concat;
 import static org.eclipse.pass.notification.service.LinksUtil.serialized;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.function.BiFunction;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.pass.notification.config.RecipientConfig;
@@ -128,4 +131,40 @@ public class Composer implements BiFunction<SubmissionEvent, SubmissionEventMess
         return notification;
     }
 
+    /**
+     * Combines the notifications of several events on the same {@code Submission} for the same recipients into a
+     * single digest notification.  The digest is addressed and typed like the last notification, and carries the
+     * metadata of every event in the {@link NotificationParam#EVENT_DIGEST} parameter.
+     *
+     * @param notifications the notifications in the order their events were received
+     * @return the digest Notification
+     */
+    public Notification coalesce(List<Notification> notifications) {
+        Notification last = notifications.get(notifications.size() - 1);
+        ArrayNode digest = mapper.createArrayNode();
+
+        for (Notification notification : notifications) {
+            try {
+                digest.add(mapper.readTree(notification.getParameters().get(NotificationParam.EVENT_METADATA)));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        Notification notification = new Notification();
+        notification.setType(last.getType());
+        notification.setEventId(last.getEventId());
+        notification.setResourceId(last.getResourceId());
+        notification.setSender(last.getSender());
+        notification.setRecipients(last.getRecipients());
+        notification.setCc(last.getCc());
+        notification.setBcc(last.getBcc());
+
+        HashMap<NotificationParam, String> params = new HashMap<>(last.getParameters());
+        params.put(NotificationParam.EVENT_DIGEST, digest.toString());
+        notification.setParameters(params);
+
+        return notification;
+    }
+
 }
@@ -16,40 +16,151 @@
 package org.eclipse.pass.notification.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.pass.notification.dispatch.DispatchService;
 import org.eclipse.pass.notification.model.Notification;
 import org.eclipse.pass.notification.model.SubmissionEventMessage;
 import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.PassClientSelector;
+import org.eclipse.pass.support.client.RSQL;
+import org.eclipse.pass.support.client.model.PassEntity;
 import org.eclipse.pass.support.client.model.Submission;
 import org.eclipse.pass.support.client.model.SubmissionEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Service which processes {@link SubmissionEvent}s relating to proxy submissions.
  * Self-submitted {@link Submission}s (identified by the lack of a preparer on the {@code Submission}) are
  * not processed by this implementation.
+ * <p>
+ * Optionally, events are coalesced: messages received within a window are buffered and then processed together.
+ * The events and their submissions are retrieved with one query each, and the notifications of events on the same
+ * submission of the same type for the same recipients are combined into a single digest notification.  If the batched
+ * retrieval fails, each event is processed on its own.  Buffered messages have already been acknowledged, so they are
+ * lost if the service stops abruptly during the window.  On shutdown the buffered messages are processed for at most
+ * a bounded time and the number of messages which could not be sent is logged.
+ * </p>
  *
  * @author Elliot Metsger (emetsger@jhu.edu)
  */
 @Slf4j
-@AllArgsConstructor
 @Service
 public class NotificationService {
 
     private final PassClient passClient;
     private final DispatchService dispatchService;
     private final Composer composer;
+    private final long coalesceWindowMs;
+    private final int coalesceMaxEvents;
+    private final long shutdownTimeoutMs;
+
+    private final List<SubmissionEventMessage> pending = new ArrayList<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private ScheduledFuture<?> scheduledFlush;
+
+    // Messages taken from pending by a flush which have not been processed yet
+    private final AtomicInteger unsent = new AtomicInteger();
 
     /**
-     * Create notification for submission event message.
+     * Creates a service which processes each message as it is received.
+     * @param passClient the PASS client
+     * @param dispatchService the dispatch service
+     * @param composer the composer
+     */
+    public NotificationService(PassClient passClient, DispatchService dispatchService, Composer composer) {
+        this(passClient, dispatchService, composer, 0, 1);
+    }
+
+    /**
+     * Creates a service which waits at most 10 seconds for buffered messages to be processed on shutdown.
+     * @param passClient the PASS client
+     * @param dispatchService the dispatch service
+     * @param composer the composer
+     * @param coalesceWindowMs milliseconds to buffer messages before processing them together, 0 to disable
+     * @param coalesceMaxEvents the number of buffered messages which triggers processing before the window ends
+     */
+    public NotificationService(PassClient passClient, DispatchService dispatchService, Composer composer,
+                               long coalesceWindowMs, int coalesceMaxEvents) {
+        this(passClient, dispatchService, composer, coalesceWindowMs, coalesceMaxEvents, 10000);
+    }
+
+    /**
+     * Constructor.
+     * @param passClient the PASS client
+     * @param dispatchService the dispatch service
+     * @param composer the composer
+     * @param coalesceWindowMs milliseconds to buffer messages before processing them together, 0 to disable
+     * @param coalesceMaxEvents the number of buffered messages which triggers processing before the window ends
+     * @param shutdownTimeoutMs milliseconds to wait for buffered messages to be processed on shutdown
+     */
+    @Autowired
+    public NotificationService(PassClient passClient, DispatchService dispatchService, Composer composer,
+                               @Value("${pass.notification.coalesce.window-ms:0}") long coalesceWindowMs,
+                               @Value("${pass.notification.coalesce.max-events:100}") int coalesceMaxEvents,
+                               @Value("${pass.notification.coalesce.shutdown-timeout-ms:10000}")
+                               long shutdownTimeoutMs) {
+        this.passClient = passClient;
+        this.dispatchService = dispatchService;
+        this.composer = composer;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.coalesceMaxEvents = Math.max(1, coalesceMaxEvents);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+
+        if (coalesceWindowMs > 0) {
+            this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread t = new Thread(runnable, "pass-notification-coalesce");
+                t.setDaemon(true);
+                return t;
+            });
+            // A pending window is replaced by the final flush submitted on shutdown
+            this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Create notification for submission event message.  If coalescing is enabled the message is buffered and
+     * processed with the other messages received in the window.
      * @param submissionEventMessage the message
      */
     public void notify(SubmissionEventMessage submissionEventMessage) {
+        if (scheduler == null) {
+            notifyEvent(submissionEventMessage);
+            return;
+        }
 
+        synchronized (pending) {
+            pending.add(submissionEventMessage);
+
+            if (pending.size() >= coalesceMaxEvents) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                }
+                scheduledFlush = scheduler.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void notifyEvent(SubmissionEventMessage submissionEventMessage) {
         try {
             SubmissionEvent submissionEvent = passClient.getObject(SubmissionEvent.class,
                 submissionEventMessage.getSubmissionEventId(), "submission", "performedBy");
@@ -72,6 +183,105 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Process the buffered messages.  Stops between batches if the thread is interrupted.
+     */
+    void flush() {
+        List<SubmissionEventMessage> messages;
+
+        synchronized (pending) {
+            messages = new ArrayList<>(pending);
+            pending.clear();
+            scheduledFlush = null;
+            unsent.addAndGet(messages.size());
+        }
+
+        for (int i = 0; i < messages.size() && !Thread.currentThread().isInterrupted(); i += coalesceMaxEvents) {
+            List<SubmissionEventMessage> batch = messages.subList(i, Math.min(messages.size(), i + coalesceMaxEvents));
+
+            try {
+                notifyEvents(batch);
+            } finally {
+                unsent.addAndGet(-batch.size());
+            }
+        }
+    }
+
+    private void notifyEvents(List<SubmissionEventMessage> messages) {
+        Map<String, SubmissionEventMessage> messagesById = messages.stream().collect(Collectors.toMap(
+            SubmissionEventMessage::getSubmissionEventId, Function.identity(), (first, second) -> first,
+            LinkedHashMap::new));
+
+        Map<String, SubmissionEvent> events;
+        Map<String, Submission> submissions;
+
+        try {
+            events = select(SubmissionEvent.class, new ArrayList<>(messagesById.keySet()), "submission", "performedBy");
+            submissions = select(Submission.class, events.values().stream()
+                .map(SubmissionEvent::getSubmission)
+                .filter(Objects::nonNull)
+                .map(Submission::getId)
+                .distinct()
+                .toList(), "submitter", "preparers");
+        } catch (Exception e) {
+            log.warn("Unable to retrieve SubmissionEvents {}, processing them one at a time", messagesById.keySet(),
+                e);
+            messagesById.values().forEach(this::notifyEvent);
+            return;
+        }
+
+        // Notifications of each submission, event type, and set of recipients, in the order the events were received.
+        // Only notifications of the same type are combined so that the digest has the links of all its events.
+        Map<String, List<Notification>> grouped = new LinkedHashMap<>();
+
+        messagesById.forEach((eventId, message) -> {
+            try {
+                SubmissionEvent submissionEvent = events.get(eventId);
+                Objects.requireNonNull(submissionEvent, "SubmissionEvent not found.");
+                Objects.requireNonNull(submissionEvent.getSubmission(), "Submission must not be null.");
+                Submission submission = submissions.get(submissionEvent.getSubmission().getId());
+                Objects.requireNonNull(submission, "Submission not found.");
+                submissionEvent.setSubmission(submission);
+
+                if (isSelfSubmission(submission)) {
+                    log.debug("Dropping self-submission SubmissionEvent (Event URI: {}, Resource URI: {})",
+                        submissionEvent.getId(), submission.getId());
+                    return;
+                }
+
+                Notification notification = composer.apply(submissionEvent, message);
+                String key = notification.getResourceId() + " " + notification.getType() + " "
+                    + new TreeSet<>(notification.getRecipients());
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(notification);
+            } catch (Exception e) {
+                log.error("Unable to process SubmissionEvent '{}'", eventId, e);
+            }
+        });
+
+        grouped.values().forEach(notifications -> {
+            try {
+                dispatchService.dispatch(notifications.size() == 1 ? notifications.get(0)
+                    : composer.coalesce(notifications));
+            } catch (Exception e) {
+                log.error("Unable to process SubmissionEvents {}", notifications.stream()
+                    .map(Notification::getEventId).toList(), e);
+            }
+        });
+    }
+
+    private <T extends PassEntity> Map<String, T> select(Class<T> type, List<String> ids, String... include)
+            throws IOException {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        PassClientSelector<T> selector = new PassClientSelector<>(type, 0, ids.size(),
+            RSQL.in("id", ids.toArray(String[]::new)), null, include);
+
+        return passClient.selectObjects(selector).getObjects().stream()
+            .collect(Collectors.toMap(PassEntity::getId, Function.identity(), (first, second) -> first));
+    }
+
     private void populateSubmission(SubmissionEvent submissionEvent) throws IOException {
         Objects.requireNonNull(submissionEvent.getSubmission(), "Submission must not be null.");
         Submission populatedSubmission = passClient.getObject(submissionEvent.getSubmission(),
@@ -84,4 +294,36 @@ public class NotificationService {
             (submission.getPreparers().contains(submission.getSubmitter()) && submission.getPreparers().size() == 1);
     }
 
+    /**
+     * Process any buffered messages and stop the coalescing scheduler.  Waits at most the shutdown timeout for the
+     * messages to be processed and logs the number of messages which could not be sent.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.execute(this::flush);
+        scheduler.shutdown();
+
+        try {
+            if (!scheduler.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        int lost;
+
+        synchronized (pending) {
+            lost = pending.size() + unsent.get();
+        }
+
+        if (lost > 0) {
+            log.warn("Stopped with {} SubmissionEvents which could not be sent", lost);
+        }
+    }
 }
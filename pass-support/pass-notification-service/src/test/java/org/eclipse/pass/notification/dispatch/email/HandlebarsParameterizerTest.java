@@ -24,15 +24,21 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.pass.notification.model.NotificationParam;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class HandlebarsParameterizerTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(HandlebarsParameterizerTest.class);
+
     private static final String BODY_TEMPLATE = "" +
             "Dear {{to}},\n" +
             "\n" +
@@ -126,4 +132,62 @@ public class HandlebarsParameterizerTest {
 
         assertEquals(expectedTitle, parameterized);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompiledTemplateCached() {
+        handlebarsParameterizer.parameterize(paramMap, new ByteArrayInputStream(BODY_TEMPLATE.getBytes()));
+        String parameterized = handlebarsParameterizer.parameterize(paramMap,
+                                                      new ByteArrayInputStream(BODY_TEMPLATE.getBytes()));
+
+        assertTrue(parameterized.contains(SUBMISSION_REVIEW_LINK));
+        assertEquals(1, handlebarsParameterizer.getCompilations());
+
+        // Changed content is compiled again
+        assertEquals(TO + "!", handlebarsParameterizer.parameterize(paramMap,
+                                                      new ByteArrayInputStream("{{to}}!".getBytes())));
+        assertEquals(2, handlebarsParameterizer.getCompilations());
+    }
+
+    @Test
+    public void testModelReused() {
+        Map<String, Object> model = handlebarsParameterizer.model(paramMap);
+
+        assertEquals(Set.of("to", "from", "resource_metadata", "event_metadata", "link_metadata", "app_domain"),
+                     model.keySet());
+        assertEquals(ARTICLE_TITLE, handlebarsParameterizer.parameterizeModel(model,
+                        new ByteArrayInputStream("{{resource_metadata.title}}".getBytes())));
+        assertEquals(FROM, handlebarsParameterizer.parameterizeModel(model,
+                        new ByteArrayInputStream("{{from}}".getBytes())));
+    }
+
+    /**
+     * Measure rendering the subject, body, and footer of a notification. The number of messages can be set with the
+     * system property pass.notification.bench.messages.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkParameterize() {
+        int messages = Integer.getInteger("pass.notification.bench.messages", 2000);
+        String subject = "PASS Submission: {{abbreviate resource_metadata.title 40}}";
+        String footer = "Sent by https://{{app_domain}} to {{to}}";
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < messages; i++) {
+            Map<String, Object> model = handlebarsParameterizer.model(paramMap);
+
+            handlebarsParameterizer.parameterizeModel(model, new ByteArrayInputStream(subject.getBytes()));
+            String body = handlebarsParameterizer.parameterizeModel(model,
+                                                          new ByteArrayInputStream(BODY_TEMPLATE.getBytes()));
+            handlebarsParameterizer.parameterizeModel(model, new ByteArrayInputStream(footer.getBytes()));
+
+            assertTrue(body.contains(COMMENT_STRING));
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(3, handlebarsParameterizer.getCompilations());
+        LOG.info("Rendered {} messages in {}s, {} messages/sec", messages, String.format("%.2f", seconds),
+                 String.format("%.1f", messages / seconds));
+    }
+}
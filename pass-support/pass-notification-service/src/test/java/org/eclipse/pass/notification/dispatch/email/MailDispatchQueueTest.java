@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.pass.notification.dispatch.email;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.ConnectException;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.pass.notification.model.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+public class MailDispatchQueueTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailDispatchQueue queue;
+
+    @AfterEach
+    public void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private static JavaMailSenderImpl greenMailSender() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        return sender;
+    }
+
+    private static MimeMessage message(JavaMailSender sender, int i) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom("pass-noreply@jhu.edu");
+        helper.setTo("user" + i + "@jhu.edu");
+        helper.setSubject("Subject " + i);
+        helper.setText("Body " + i);
+        return message;
+    }
+
+    private static Notification notification(int i) {
+        Notification notification = new Notification();
+        notification.setResourceId("submission-" + i);
+        notification.setEventId("event-" + i);
+        return notification;
+    }
+
+    @Test
+    public void testAsyncSendReusesConnection() throws Exception {
+        JavaMailSenderImpl sender = greenMailSender();
+        queue = new MailDispatchQueue(sender, true, 1, 10, 3, 10, 100);
+
+        for (int i = 0; i < 5; i++) {
+            queue.send(message(sender, i), notification(i));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        await().atMost(3, SECONDS).until(() -> queue.getSent() == 5);
+
+        assertEquals(1, queue.getConnections());
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(0, queue.getFailed());
+        assertTrue(queue.getMaxSendMillis() >= queue.getMeanSendMillis());
+    }
+
+    @Test
+    public void testTransientFailureRetried() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("Mail server connection failed",
+                                      new MessagingException("Could not connect", new ConnectException())))
+            .doNothing().when(sender).send(any(MimeMessage.class));
+        queue = new MailDispatchQueue(sender, true, 1, 10, 3, 1, 10);
+
+        queue.send(message(greenMailSender(), 1), notification(1));
+
+        await().atMost(3, SECONDS).until(() -> queue.getSent() == 1);
+        verify(sender, times(2)).send(any(MimeMessage.class));
+        assertEquals(1, queue.getRetried());
+        assertEquals(0, queue.getFailed());
+    }
+
+    @Test
+    public void testPermanentFailureNotRetried() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        doThrow(new MailAuthenticationException(new AuthenticationFailedException("535 Bad credentials")))
+            .when(sender).send(any(MimeMessage.class));
+        queue = new MailDispatchQueue(sender, true, 1, 10, 3, 1, 10);
+
+        queue.send(message(greenMailSender(), 1), notification(1));
+
+        await().atMost(3, SECONDS).until(() -> queue.getFailed() == 1);
+        verify(sender).send(any(MimeMessage.class));
+        assertEquals(0, queue.getRetried());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void testSyncSendThrows() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("Mail server connection failed")).when(sender).send(any(MimeMessage.class));
+        queue = new MailDispatchQueue(sender);
+
+        assertFalse(queue.isAsync());
+        assertThrows(MailSendException.class, () -> queue.send(message(greenMailSender(), 1), notification(1)));
+    }
+}
@@ -21,11 +21,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author rpoetke1@jh.edu
@@ -74,4 +80,28 @@ public class SpringUriTemplateResolverTest {
         assertNull(springUriTemplateResolver.resolve(null,
                 new URL("jar:file:/path/to/file.jar!/path/to/resource").toString()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void resolveModifiedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("template");
+        Files.writeString(file, "first");
+        file.toFile().setLastModified(1000);
+
+        assertEquals("first", read(springUriTemplateResolver.resolve(null, file.toString())));
+
+        // Content is cached until the file is modified
+        Files.writeString(file, "second");
+        file.toFile().setLastModified(1000);
+        assertEquals("first", read(springUriTemplateResolver.resolve(null, file.toString())));
+
+        file.toFile().setLastModified(2000);
+        assertEquals("second", read(springUriTemplateResolver.resolve(null, file.toString())));
+        assertEquals("second", read(springUriTemplateResolver.resolve(null, file.toUri().toString())));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -470,4 +470,53 @@ public class ComposerMockTest {
         assertEquals(TEST_RESOURCE_METADATA, params.get(NotificationParam.RESOURCE_METADATA));
         assertEquals(expectedType, notification.getType());
     }
-}
\ No newline at end of file
+
+    /**
+     * A digest of several notifications is addressed and typed like the last one, and lists the metadata of each
+     * event.
+     */
+    @Test
+    public void testCoalesce() throws IOException {
+        // GIVEN
+        Submission submission = new Submission();
+        submission.setMetadata(TEST_RESOURCE_METADATA);
+        submission.setId("test-sub-id");
+        User submitter = new User("test-user-id");
+        submitter.setEmail("test-user@test");
+        submission.setSubmitter(submitter);
+
+        when(submissionLinkAnalyzer.apply(any(), any())).thenAnswer(inv -> generatedSubmissionLinks.stream());
+        List<Notification> notifications = new ArrayList<>();
+
+        for (String comment : List.of("first", "second")) {
+            SubmissionEvent event = new SubmissionEvent();
+            event.setEventType(EventType.APPROVAL_REQUESTED);
+            event.setId("test-sub-event-" + comment);
+            event.setComment(comment);
+            event.setSubmission(submission);
+
+            SubmissionEventMessage submissionEventMessage = new SubmissionEventMessage();
+            submissionEventMessage.setSubmissionEventId(event.getId());
+
+            notifications.add(composer.apply(event, submissionEventMessage));
+        }
+
+        // WHEN
+        Notification digest = composer.coalesce(notifications);
+
+        // THEN
+        assertEquals(NotificationType.SUBMISSION_APPROVAL_REQUESTED, digest.getType());
+        assertEquals("test-sub-event-second", digest.getEventId());
+        assertEquals("test-sub-id", digest.getResourceId());
+        assertEquals(notifications.get(1).getRecipients(), digest.getRecipients());
+        assertEquals(notifications.get(1).getParameters().get(EVENT_METADATA),
+            digest.getParameters().get(EVENT_METADATA));
+        assertNull(notifications.get(1).getParameters().get(NotificationParam.EVENT_DIGEST));
+
+        List<?> events = new ObjectMapper().readValue(digest.getParameters().get(NotificationParam.EVENT_DIGEST),
+            List.class);
+        assertEquals(2, events.size());
+        assertEquals("first", ((Map<?, ?>) events.get(0)).get("comment"));
+        assertEquals("second", ((Map<?, ?>) events.get(1)).get("comment"));
+    }
+}
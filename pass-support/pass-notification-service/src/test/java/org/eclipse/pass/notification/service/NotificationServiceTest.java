@@ -17,26 +17,38 @@
  */
 package org.eclipse.pass.notification.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import lombok.SneakyThrows;
 import org.eclipse.pass.notification.dispatch.DispatchService;
 import org.eclipse.pass.notification.model.Notification;
+import org.eclipse.pass.notification.model.NotificationType;
 import org.eclipse.pass.notification.model.SubmissionEventMessage;
 import org.eclipse.pass.support.client.PassClient;
+import org.eclipse.pass.support.client.PassClientResult;
+import org.eclipse.pass.support.client.PassClientSelector;
 import org.eclipse.pass.support.client.model.Submission;
 import org.eclipse.pass.support.client.model.SubmissionEvent;
 import org.eclipse.pass.support.client.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 public class NotificationServiceTest {
 
@@ -179,6 +191,229 @@ public class NotificationServiceTest {
         verify(dispatchService).dispatch(n);
     }
 
+    /**
+     * Events received within the coalescing window are retrieved together, and the events on the same submission for
+     * the same recipients are dispatched as one digest.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalescedEvents() throws IOException {
+        // GIVEN
+        notificationService = new NotificationService(passClient, dispatchService, composer, 60000, 100);
+
+        User submitter = new User("test-submitter-id");
+        User preparer = new User("test-preparer-id");
+        List<Submission> submissions = new ArrayList<>();
+        List<SubmissionEvent> events = new ArrayList<>();
+
+        for (String id : List.of("s1", "s2")) {
+            Submission submission = new Submission(id);
+            submission.setSubmitter(submitter);
+            submission.setPreparers(List.of(preparer));
+            submissions.add(submission);
+        }
+
+        for (String id : List.of("e1", "e2", "e3")) {
+            SubmissionEvent event = new SubmissionEvent(id);
+            event.setSubmission(new Submission(id.equals("e3") ? "s2" : "s1"));
+            events.add(event);
+        }
+
+        stubSelectObjects(submissions, events);
+        stubCompose(Map.of());
+        Notification digest = new Notification();
+        when(composer.coalesce(any())).thenReturn(digest);
+
+        // WHEN
+        for (String id : List.of("e1", "e2", "e3")) {
+            notificationService.notify(message(id));
+        }
+
+        verifyNoInteractions(passClient, dispatchService);
+
+        notificationService.flush();
+        notificationService.shutdown();
+
+        // THEN
+        verify(passClient, times(2)).selectObjects(any());
+        verify(passClient, never()).getObject(any(), anyString(), any());
+
+        ArgumentCaptor<List<Notification>> coalesced = ArgumentCaptor.forClass(List.class);
+        verify(composer).coalesce(coalesced.capture());
+        assertEquals(List.of("e1", "e2"), coalesced.getValue().stream().map(Notification::getEventId).toList());
+
+        ArgumentCaptor<Notification> dispatched = ArgumentCaptor.forClass(Notification.class);
+        verify(dispatchService, times(2)).dispatch(dispatched.capture());
+        assertEquals(digest, dispatched.getAllValues().get(0));
+        assertEquals("e3", dispatched.getAllValues().get(1).getEventId());
+    }
+
+    /**
+     * Only notifications of the same type are combined, so that the digest has the links of each of its events.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalescedEventsOfDifferentTypes() throws IOException {
+        // GIVEN
+        notificationService = new NotificationService(passClient, dispatchService, composer, 60000, 100);
+
+        Submission submission = proxySubmission("s1");
+        List<SubmissionEvent> events = new ArrayList<>();
+
+        for (String id : List.of("e1", "e2", "e3")) {
+            SubmissionEvent event = new SubmissionEvent(id);
+            event.setSubmission(new Submission("s1"));
+            events.add(event);
+        }
+
+        stubSelectObjects(List.of(submission), events);
+        stubCompose(Map.of(
+            "e1", NotificationType.SUBMISSION_APPROVAL_INVITE,
+            "e2", NotificationType.SUBMISSION_CHANGES_REQUESTED,
+            "e3", NotificationType.SUBMISSION_APPROVAL_INVITE));
+        Notification digest = new Notification();
+        when(composer.coalesce(any())).thenReturn(digest);
+
+        // WHEN
+        for (String id : List.of("e1", "e2", "e3")) {
+            notificationService.notify(message(id));
+        }
+
+        notificationService.flush();
+
+        // THEN
+        ArgumentCaptor<List<Notification>> coalesced = ArgumentCaptor.forClass(List.class);
+        verify(composer).coalesce(coalesced.capture());
+        assertEquals(List.of("e1", "e3"), coalesced.getValue().stream().map(Notification::getEventId).toList());
+
+        ArgumentCaptor<Notification> dispatched = ArgumentCaptor.forClass(Notification.class);
+        verify(dispatchService, times(2)).dispatch(dispatched.capture());
+        assertEquals(digest, dispatched.getAllValues().get(0));
+        assertEquals("e2", dispatched.getAllValues().get(1).getEventId());
+    }
+
+    /**
+     * If the events of a window cannot be retrieved together, each event is processed on its own.
+     */
+    @Test
+    public void testCoalescedRetrievalFailure() throws IOException {
+        // GIVEN
+        notificationService = new NotificationService(passClient, dispatchService, composer, 60000, 100);
+
+        Submission submission = proxySubmission("s1");
+        when(passClient.selectObjects(any())).thenThrow(new IOException("test"));
+        when(passClient.getObject(new Submission("s1"), "submitter", "preparers")).thenReturn(submission);
+
+        for (String id : List.of("e1", "e2")) {
+            SubmissionEvent event = new SubmissionEvent(id);
+            event.setSubmission(new Submission("s1"));
+            when(passClient.getObject(SubmissionEvent.class, id, "submission", "performedBy")).thenReturn(event);
+        }
+
+        stubCompose(Map.of());
+
+        // WHEN
+        notificationService.notify(message("e1"));
+        notificationService.notify(message("e2"));
+        notificationService.flush();
+
+        // THEN
+        verify(composer, never()).coalesce(any());
+
+        ArgumentCaptor<Notification> dispatched = ArgumentCaptor.forClass(Notification.class);
+        verify(dispatchService, times(2)).dispatch(dispatched.capture());
+        assertEquals(List.of("e1", "e2"), dispatched.getAllValues().stream().map(Notification::getEventId).toList());
+    }
+
+    /**
+     * Buffered events are sent on shutdown.
+     */
+    @Test
+    public void testShutdownSendsBufferedEvents() throws IOException {
+        // GIVEN
+        notificationService = new NotificationService(passClient, dispatchService, composer, 60000, 100);
+
+        SubmissionEvent event = new SubmissionEvent("e1");
+        event.setSubmission(new Submission("s1"));
+        stubSelectObjects(List.of(proxySubmission("s1")), List.of(event));
+        stubCompose(Map.of());
+
+        // WHEN
+        notificationService.notify(message("e1"));
+        notificationService.shutdown();
+
+        // THEN
+        verify(dispatchService).dispatch(any());
+    }
+
+    /**
+     * Shutdown does not wait longer than the timeout for buffered events to be sent.
+     */
+    @Test
+    public void testShutdownTimeout() throws IOException {
+        // GIVEN
+        notificationService = new NotificationService(passClient, dispatchService, composer, 60000, 1, 100);
+
+        List<SubmissionEvent> events = new ArrayList<>();
+
+        for (String id : List.of("e1", "e2")) {
+            SubmissionEvent event = new SubmissionEvent(id);
+            event.setSubmission(new Submission("s1"));
+            events.add(event);
+        }
+
+        stubSelectObjects(List.of(proxySubmission("s1")), events);
+        stubCompose(Map.of());
+        doAnswer(inv -> {
+            Thread.sleep(60000);
+            return null;
+        }).when(dispatchService).dispatch(any());
+
+        notificationService.notify(message("e1"));
+        notificationService.notify(message("e2"));
+
+        // WHEN
+        long start = System.currentTimeMillis();
+        notificationService.shutdown();
+
+        // THEN
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    private void stubSelectObjects(List<Submission> submissions, List<SubmissionEvent> events) throws IOException {
+        when(passClient.selectObjects(any())).thenAnswer(inv -> {
+            PassClientSelector<?> selector = inv.getArgument(0);
+            return selector.getType() == Submission.class ? new PassClientResult<>(submissions, -1)
+                : new PassClientResult<>(events, -1);
+        });
+    }
+
+    // Compose a notification for the submitter of the given type for each event id, null by default
+    private void stubCompose(Map<String, NotificationType> types) {
+        when(composer.apply(any(), any())).thenAnswer(inv -> {
+            SubmissionEvent event = inv.getArgument(0);
+            Notification n = new Notification();
+            n.setEventId(event.getId());
+            n.setResourceId(event.getSubmission().getId());
+            n.setRecipients(List.of("test-submitter@test"));
+            n.setType(types.get(event.getId()));
+            return n;
+        });
+    }
+
+    private static Submission proxySubmission(String id) {
+        Submission submission = new Submission(id);
+        submission.setSubmitter(new User("test-submitter-id"));
+        submission.setPreparers(List.of(new User("test-preparer-id")));
+        return submission;
+    }
+
+    private static SubmissionEventMessage message(String eventId) {
+        SubmissionEventMessage message = new SubmissionEventMessage();
+        message.setSubmissionEventId(eventId);
+        return message;
+    }
+
     private static class SubmissionPreparer {
         private final SubmissionEventMessage eventMessage;
         private final SubmissionEvent event;